@@ -49,4 +49,16 @@ public class JRouterException extends RuntimeException {
         super(message, cause);
     }
 
+    /**
+     * 构造一个包含指定详细消息和原因、是否启用抑制异常及是否记录栈轨迹的JRouterException。
+     * @param message 详细消息。
+     * @param cause 异常原因。
+     * @param enableSuppression 是否启用抑制异常。
+     * @param writableStackTrace 是否记录栈轨迹。
+     */
+    protected JRouterException(String message, Throwable cause, boolean enableSuppression,
+            boolean writableStackTrace) {
+        super(message, cause, enableSuppression, writableStackTrace);
+    }
+
 }
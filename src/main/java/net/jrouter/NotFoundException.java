@@ -49,4 +49,14 @@ public class NotFoundException extends JRouterException {
         super(message, cause);
     }
 
+    /**
+     * 构造一个包含指定详细消息、是否记录栈轨迹的NotFoundException。
+     * 不记录栈轨迹的异常同时禁用抑制异常且原因固定为 null，可预先创建并重复抛出。
+     * @param message 详细消息。
+     * @param writableStackTrace 是否记录栈轨迹。
+     */
+    public NotFoundException(String message, boolean writableStackTrace) {
+        super(message, null, writableStackTrace, writableStackTrace);
+    }
+
 }
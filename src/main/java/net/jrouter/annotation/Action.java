@@ -47,6 +47,13 @@ import java.lang.annotation.*;
 @Documented
 public @interface Action {
 
+    /**
+     * 匹配任意值的路由键。
+     * @see #routeKeys()
+     * @since 1.8.9
+     */
+    int ANY_ROUTE_KEY = -1;
+
     /**
      * Action名称，可多个路径映射同一个Action。
      * 等同于{@link #name()}，name属性非空时优先选取name值，当仅需要name属性时提供便捷的注解方式。
@@ -58,6 +65,8 @@ public @interface Action {
 
     /**
      * Action名称，可多个路径映射同一个Aciton，需保证其最终生成路径的唯一性。 Action名称为空时，默认取其所在的方法名称（区分大小写）。
+     * 路径片段可为'*'、'{key}'或带约束的'{key:constraint}'（如"{id:int}"、"{slug:[a-z-]+}"、"{uid:uuid}"），
+     * 不满足约束的路径片段在路由时即不匹配；最后一个路径片段可为'**'或'{key:**}'，匹配剩余的一个或多个路径片段。
      * @return Action名称。
      * @see #value()
      */
@@ -97,4 +106,14 @@ public @interface Action {
      */
     Parameter[] parameters() default {};
 
+    /**
+     * Action的路由键，以整数表示路径之外的区分值（如HTTP方法、虚拟主机的序号），按位置依次与调用时的路由键比较，
+     * {@link #ANY_ROUTE_KEY}匹配任意值，为空时匹配任意路由键。
+     * 相同路径的多个Action可由不同的路由键区分；路由键仅在路径匹配后比较，不参与路径的查询及缓存。
+     * @return Action的路由键。
+     * @see net.jrouter.impl.PathActionFactory#invokeAction(int[], String, Object...)
+     * @since 1.8.9
+     */
+    int[] routeKeys() default {};
+
 }
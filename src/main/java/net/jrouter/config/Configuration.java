@@ -289,6 +289,15 @@ public class Configuration {
     @Setter
     private Class<? extends ActionFactory> actionFactoryClass = PathActionFactory.class;
 
+    /**
+     * 预编译的路由快照文件，为 null 则不使用。
+     * 快照有效时由快照获取组件类及Action的拦截器集合，跳过类扫描及aop路径匹配；无效或不存在时完整构建后重新写入快照。
+     *
+     * @see RouteSnapshot
+     */
+    @Setter
+    private File routeSnapshotFile;
+
     /**
      * ActionFactory的属性
      */
@@ -860,10 +869,25 @@ public class Configuration {
         ActionFactory factory = createActionFactory(actionFactoryClass, actionFactoryProperties);
         printSeparator(!actionFactoryProperties.isEmpty());
         try {
+            // 预编译的路由快照
+            long fingerprint = 0;
+            RouteSnapshot snapshot = null;
+            if (routeSnapshotFile != null) {
+                Set<String> packages = new LinkedHashSet<>();
+                for (ClassScanner scanner : classScanners) {
+                    packages.addAll(scanner.getIncludePackages());
+                }
+                fingerprint = RouteSnapshot.fingerprint(packages, describe(), routeSnapshotFile);
+                snapshot = loadRouteSnapshot(fingerprint);
+            }
             // 扫描类集合
-            Set<Class<?>> scanComponents = new LinkedHashSet<>();
+            Set<Class<?>> scanComponents = snapshot == null ? new LinkedHashSet<>() : loadComponentClasses(snapshot);
+            if (scanComponents == null) {
+                snapshot = null;
+                scanComponents = new LinkedHashSet<>();
+            }
             // 计算扫描类集合
-            if (!classScanners.isEmpty()) {
+            if (snapshot == null && !classScanners.isEmpty()) {
                 for (ClassScanner scanner : classScanners) {
                     LOG.info("Add classes scanner : {}", scanner);
                     scanComponents.addAll(scanner.getClasses());
@@ -1015,14 +1039,21 @@ public class Configuration {
                 }
 
                 // actions' aop
-                if (!aopActions.isEmpty()) {
+                if (snapshot != null && !applyRouteSnapshot(pathActionFactory, snapshot)) {
+                    LOG.warn("Route snapshot [{}] does not match the actions, fall back to aop matching.",
+                            routeSnapshotFile);
+                    snapshot = null;
+                }
+                if (snapshot == null && !aopActions.isEmpty()) {
                     LOG.info("Starting Aop Action");
                     AntPathMatcher matcher = new AntPathMatcher(String.valueOf(pathActionFactory.getPathSeparator()));
                     // 已经匹配的路径
                     Set<String> existMatchPaths = new HashSet<>();
+                    // 包括路径相同、路由键不同的Action
+                    Map<String, List<PathActionProxy>> allActions = pathActionFactory.getAllActions();
                     // 倒序，最后匹配的路径优先
                     for (int i = aopActions.size() - 1; i > -1; i--) {
-                        in: for (Map.Entry<String, PathActionProxy> e : pathActionFactory.getActions().entrySet()) {
+                        in: for (Map.Entry<String, List<PathActionProxy>> e : allActions.entrySet()) {
                             AopAction aa = aopActions.get(i);
                             String path = e.getKey();
                             if (matcher.match(aa.getMatches(), path)) {
@@ -1030,8 +1061,6 @@ public class Configuration {
                                     continue in;
                                 }
                                 existMatchPaths.add(path);
-                                // exist can't be null by PathActionFactory
-                                List<InterceptorProxy> exist = e.getValue().getInterceptorProxies();
                                 List<InterceptorProxy> news = new ArrayList<>();
                                 // TODO
                                 if (CollectionUtil.isNotEmpty(aa.getInterceptorStacks())) {
@@ -1056,35 +1085,42 @@ public class Configuration {
                                         }
                                     }
                                 }
-                                String existName = interceptorsToString(exist);
-                                switch (aa.getType()) {
-                                    case ADD_BEFORE: {
-                                        exist.addAll(0, news);
-                                        break;
-                                    }
-                                    case ADD_AFTER: {
-                                        exist.addAll(news);
-                                        break;
-                                    }
-                                    case OVERRIDE: {
-                                        exist.clear();
-                                        exist.addAll(news);
-                                        break;
+                                for (PathActionProxy ap : e.getValue()) {
+                                    // exist can't be null by PathActionFactory
+                                    List<InterceptorProxy> exist = ap.getInterceptorProxies();
+                                    String existName = interceptorsToString(exist);
+                                    switch (aa.getType()) {
+                                        case ADD_BEFORE: {
+                                            exist.addAll(0, news);
+                                            break;
+                                        }
+                                        case ADD_AFTER: {
+                                            exist.addAll(news);
+                                            break;
+                                        }
+                                        case OVERRIDE: {
+                                            exist.clear();
+                                            exist.addAll(news);
+                                            break;
+                                        }
+                                        default: {
+                                            LOG.error("Unknown {} : [{}]", Type.class, aa.getType());
+                                            break;
+                                        }
                                     }
-                                    default: {
-                                        LOG.error("Unknown {} : [{}]", Type.class, aa.getType());
-                                        break;
+                                    if (LOG.isInfoEnabled()) {
+                                        LOG.info("Aop Action [{}] interceptors {} -> {}, matches {}", path, existName,
+                                                interceptorsToString(exist), aa.toString());
                                     }
                                 }
-                                if (LOG.isInfoEnabled()) {
-                                    LOG.info("Aop Action [{}] interceptors {} -> {}, matches {}", path, existName,
-                                            interceptorsToString(exist), aa.toString());
-                                }
                             }
                         }
                     }
                 }
             }
+            if (routeSnapshotFile != null && snapshot == null && factory instanceof PathActionFactory) {
+                storeRouteSnapshot((PathActionFactory) factory, scanComponents, fingerprint);
+            }
             // give subclasses a chance to prepare factory
             afterActionFactoryBuild(factory);
         }
@@ -1097,6 +1133,164 @@ public class Configuration {
         return (T) factory;
     }
 
+    /**
+     * 返回影响构建结果的配置描述，用于计算路由快照的指纹。
+     * @return 配置描述。
+     */
+    private String describe() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(actionFactoryClass.getName()).append('{');
+        for (Map.Entry<String, Object> e : new TreeMap<>(actionFactoryProperties).entrySet()) {
+            sb.append(e.getKey()).append('=').append(describeValue(e.getValue())).append(',');
+        }
+        sb.append('}');
+        for (Set<Object> components : Arrays.asList(interceptors, interceptorStacks, resultTypes, results, actions)) {
+            sb.append('[');
+            for (Object obj : components) {
+                sb.append(obj instanceof Class ? ((Class<?>) obj).getName() : obj.getClass().getName()).append(',');
+            }
+            sb.append(']');
+        }
+        return sb.append(classScanners).append(aopActions).toString();
+    }
+
+    /**
+     * 返回属性值的描述；非标量的对象（如ObjectFactory实例）仅以类名描述，避免默认toString的哈希值使指纹随进程变化。
+     * @param value 属性值。
+     * @return 属性值的描述。
+     */
+    private static String describeValue(Object value) {
+        if (value == null || value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum) {
+            return String.valueOf(value);
+        }
+        return value instanceof Class ? ((Class<?>) value).getName() : value.getClass().getName();
+    }
+
+    /**
+     * 读取路由快照，文件不存在、已损坏或指纹不一致则返回 null。
+     * @param fingerprint 当前类路径及配置的指纹。
+     * @return 有效的路由快照。
+     */
+    private RouteSnapshot loadRouteSnapshot(long fingerprint) {
+        try {
+            RouteSnapshot snapshot = RouteSnapshot.read(routeSnapshotFile);
+            if (snapshot == null || snapshot.getFingerprint() != fingerprint) {
+                LOG.info("Route snapshot [{}] is absent or out of date, rebuild it.", routeSnapshotFile);
+                return null;
+            }
+            LOG.info("Load route snapshot [{}] : {}", routeSnapshotFile, snapshot);
+            return snapshot;
+        }
+        catch (IOException e) {
+            LOG.warn("Can't read route snapshot [" + routeSnapshotFile + "]", e);
+            return null;
+        }
+    }
+
+    /**
+     * 加载路由快照记录的组件类，任一类不存在则返回 null。
+     * @param snapshot 路由快照。
+     * @return 组件类集合。
+     */
+    private Set<Class<?>> loadComponentClasses(RouteSnapshot snapshot) {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        for (String name : snapshot.getComponentClasses()) {
+            Class<?> cls = ClassUtil.loadClassQuietly(name);
+            if (cls == null) {
+                LOG.warn("Can't load class [{}] of route snapshot, fall back to scanning.", name);
+                return null;
+            }
+            classes.add(cls);
+        }
+        return classes;
+    }
+
+    /**
+     * 以路由快照记录的拦截器集合设置所有Action的拦截器集合，取代aop路径匹配。
+     * 快照中的路径、类、方法或拦截器与当前的Action不一致则不做修改并返回{@code false}。
+     * @param factory PathActionFactory对象。
+     * @param snapshot 路由快照。
+     * @return 是否已设置。
+     */
+    private boolean applyRouteSnapshot(PathActionFactory factory, RouteSnapshot snapshot) {
+        // 以路径、类及方法精确查找，不做路径匹配；路径相同、路由键不同的Action以类及方法区分
+        Map<String, PathActionProxy> actionMap = new HashMap<>();
+        for (Map.Entry<String, List<PathActionProxy>> e : factory.getAllActions().entrySet()) {
+            for (PathActionProxy ap : e.getValue()) {
+                actionMap.put(routeSnapshotKey(e.getKey(), ap.getMethod().getDeclaringClass().getName(),
+                        MethodUtil.getSimpleMethod(ap.getMethod())), ap);
+            }
+        }
+        if (actionMap.size() != snapshot.getRoutes().size()) {
+            return false;
+        }
+        Map<PathActionProxy, List<InterceptorProxy>> resolved = new LinkedHashMap<>();
+        for (RouteSnapshot.Route route : snapshot.getRoutes()) {
+            PathActionProxy ap = actionMap.get(routeSnapshotKey(route.getPath(), route.getClassName(),
+                    route.getMethod()));
+            if (ap == null) {
+                return false;
+            }
+            List<InterceptorProxy> list = new ArrayList<>(route.getInterceptors().size());
+            for (String name : route.getInterceptors()) {
+                InterceptorProxy ip = factory.getInterceptors().get(name);
+                if (ip == null) {
+                    return false;
+                }
+                list.add(ip);
+            }
+            resolved.put(ap, list);
+        }
+        for (Map.Entry<PathActionProxy, List<InterceptorProxy>> e : resolved.entrySet()) {
+            List<InterceptorProxy> exist = e.getKey().getInterceptorProxies();
+            if (!exist.equals(e.getValue())) {
+                exist.clear();
+                exist.addAll(e.getValue());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 路由快照中Action的查找键。
+     */
+    private static String routeSnapshotKey(String path, String className, String method) {
+        return path + ' ' + className + '#' + method;
+    }
+
+    /**
+     * 写入路由快照，写入失败仅记录日志。
+     * @param factory PathActionFactory对象。
+     * @param scanComponents 扫描得到的组件类集合。
+     * @param fingerprint 当前类路径及配置的指纹。
+     */
+    private void storeRouteSnapshot(PathActionFactory factory, Set<Class<?>> scanComponents, long fingerprint) {
+        List<String> classes = new ArrayList<>(scanComponents.size());
+        for (Class<?> cls : scanComponents) {
+            classes.add(cls.getName());
+        }
+        List<RouteSnapshot.Route> routes = new ArrayList<>();
+        for (Map.Entry<String, List<PathActionProxy>> e : factory.getAllActions().entrySet()) {
+            for (PathActionProxy ap : e.getValue()) {
+                List<String> names = new ArrayList<>();
+                for (InterceptorProxy ip : ap.getInterceptorProxies()) {
+                    names.add(ip.getName());
+                }
+                routes.add(new RouteSnapshot.Route(e.getKey(), ap.getMethod().getDeclaringClass().getName(),
+                        MethodUtil.getSimpleMethod(ap.getMethod()), names));
+            }
+        }
+        RouteSnapshot snapshot = new RouteSnapshot(fingerprint, classes, routes);
+        try {
+            snapshot.write(routeSnapshotFile);
+            LOG.info("Store route snapshot [{}] : {}", routeSnapshotFile, snapshot);
+        }
+        catch (IOException e) {
+            LOG.warn("Can't write route snapshot [" + routeSnapshotFile + "]", e);
+        }
+    }
+
     /**
      * 由指定的ActionFactory类型和属性集合创建ActionFactory的对象实例,可用于子类继承以覆写。
      * 如果存在，默认优先调用&lt;init&gt;(java.util.Map)的构造函数。
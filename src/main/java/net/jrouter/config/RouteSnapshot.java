@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.config;
+
+import lombok.Getter;
+
+import java.io.*;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+/**
+ * 预编译的路由快照，记录一次完整构建后的组件类、Action路径及其所在类、方法和最终的拦截器名称集合，
+ * 由{@link Configuration}于后续启动时读取以跳过类扫描及aop路径匹配。
+ *
+ * <p>
+ * 快照以紧凑的二进制格式存储，所有字符串存储于去重的字符串表中并以序号引用，读取时一次读入整个文件，不保留文件的映射或句柄。
+ * 快照包含扫描的包及配置的指纹，指纹不一致（扫描的包下的文件或配置变更）时快照失效。
+ * </p>
+ *
+ * <pre>
+ * 文件头：魔数"JRTS" | 格式版本 | 指纹
+ * 字符串表：数目 | (字节数, UTF-8字节)...
+ * 组件类：数目 | 字符串序号...
+ * 路由：数目 | (路径, 类名, 方法, 拦截器数目, 拦截器名称...)...
+ * </pre>
+ */
+final class RouteSnapshot {
+
+    /**
+     * 文件的魔数："JRTS"
+     */
+    static final int MAGIC = 0x4A525453;
+
+    /**
+     * 文件格式的版本
+     */
+    static final int FORMAT_VERSION = 1;
+
+    /**
+     * FNV-1a 64位初始值
+     */
+    private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+
+    /**
+     * FNV-1a 64位素数
+     */
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    /**
+     * 扫描的包及配置的指纹
+     */
+    @Getter
+    private final long fingerprint;
+
+    /**
+     * 扫描得到的组件类名称
+     */
+    @Getter
+    private final List<String> componentClasses;
+
+    /**
+     * 路由集合，按添加顺序排列
+     */
+    @Getter
+    private final List<Route> routes;
+
+    RouteSnapshot(long fingerprint, List<String> componentClasses, List<Route> routes) {
+        this.fingerprint = fingerprint;
+        this.componentClasses = componentClasses;
+        this.routes = routes;
+    }
+
+    /**
+     * 读取快照文件，文件内容一次读入堆内缓冲区后即关闭文件。
+     * @param file 快照文件。
+     * @return 快照；文件不存在、格式不符或已损坏则返回 null。
+     * @throws IOException 如果发生读取错误。
+     */
+    static RouteSnapshot read(File file) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                return null;
+            }
+            ByteBuffer buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining() && channel.read(buf) >= 0) {
+                // read fully
+            }
+            buf.flip();
+            if (buf.remaining() < 16 || buf.getInt() != MAGIC || buf.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+            long fingerprint = buf.getLong();
+            String[] strings = new String[buf.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[buf.getInt()];
+                buf.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            int count = buf.getInt();
+            List<String> classes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                classes.add(strings[buf.getInt()]);
+            }
+            count = buf.getInt();
+            List<Route> routes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String path = strings[buf.getInt()];
+                String className = strings[buf.getInt()];
+                String method = strings[buf.getInt()];
+                String[] interceptors = new String[buf.getInt()];
+                for (int j = 0; j < interceptors.length; j++) {
+                    interceptors[j] = strings[buf.getInt()];
+                }
+                routes.add(new Route(path, className, method, Arrays.asList(interceptors)));
+            }
+            return new RouteSnapshot(fingerprint, Collections.unmodifiableList(classes),
+                    Collections.unmodifiableList(routes));
+        }
+        catch (RuntimeException e) {
+            // BufferUnderflowException, ArrayIndexOutOfBoundsException...
+            return null;
+        }
+    }
+
+    /**
+     * 将快照写入文件，先写入临时文件再替换原文件。
+     * @param file 快照文件。
+     * @throws IOException 如果发生写入错误。
+     */
+    void write(File file) throws IOException {
+        Map<String, Integer> table = new LinkedHashMap<>();
+        for (String cls : componentClasses) {
+            index(table, cls);
+        }
+        for (Route r : routes) {
+            index(table, r.path);
+            index(table, r.className);
+            index(table, r.method);
+            for (String name : r.interceptors) {
+                index(table, name);
+            }
+        }
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+        Path tmp = Files.createTempFile(parent == null ? null : parent.toPath(), file.getName(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(fingerprint);
+            out.writeInt(table.size());
+            for (String str : table.keySet()) {
+                byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.writeInt(componentClasses.size());
+            for (String cls : componentClasses) {
+                out.writeInt(table.get(cls));
+            }
+            out.writeInt(routes.size());
+            for (Route r : routes) {
+                out.writeInt(table.get(r.path));
+                out.writeInt(table.get(r.className));
+                out.writeInt(table.get(r.method));
+                out.writeInt(r.interceptors.size());
+                for (String name : r.interceptors) {
+                    out.writeInt(table.get(name));
+                }
+            }
+        }
+        catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void index(Map<String, Integer> table, String str) {
+        if (!table.containsKey(str)) {
+            table.put(str, table.size());
+        }
+    }
+
+    /**
+     * 计算扫描的包及配置的指纹：每个包所在的目录下每个文件的路径、大小及修改时间，或包所在jar文件的大小及修改时间，以及配置的描述。
+     * 快照文件及其临时文件位于包的目录下时不计入指纹。
+     * @param packages 扫描的包的名称。
+     * @param config 影响构建结果的配置描述。
+     * @param file 快照文件。
+     * @return 扫描的包及配置的指纹。
+     * @throws IOException 如果发生读取错误。
+     */
+    static long fingerprint(Collection<String> packages, String config, File file) throws IOException {
+        Path dir = file.getAbsoluteFile().toPath().getParent();
+        long h = hash(FNV_OFFSET_BASIS, config);
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (loader == null) {
+            loader = RouteSnapshot.class.getClassLoader();
+        }
+        for (String pkg : packages) {
+            h = hash(h, pkg);
+            Enumeration<URL> urls = loader.getResources(pkg.replace('.', '/'));
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                h = hash(h, url.toString());
+                Path root = toPath(url);
+                if (root == null) {
+                    continue;
+                }
+                if (Files.isDirectory(root)) {
+                    List<Path> files = new ArrayList<>();
+                    Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+
+                        @Override
+                        public FileVisitResult visitFile(Path f, BasicFileAttributes attrs) {
+                            if (!f.toAbsolutePath().getParent().equals(dir)
+                                    || !f.getFileName().toString().startsWith(file.getName())) {
+                                files.add(f);
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                    });
+                    // 遍历顺序与文件系统相关
+                    Collections.sort(files);
+                    for (Path f : files) {
+                        BasicFileAttributes attrs = Files.readAttributes(f, BasicFileAttributes.class);
+                        h = hash(h, root.relativize(f).toString());
+                        h = hash(h, attrs.size());
+                        h = hash(h, attrs.lastModifiedTime().toMillis());
+                    }
+                }
+                else if (Files.exists(root)) {
+                    BasicFileAttributes attrs = Files.readAttributes(root, BasicFileAttributes.class);
+                    h = hash(h, attrs.size());
+                    h = hash(h, attrs.lastModifiedTime().toMillis());
+                }
+            }
+        }
+        return h;
+    }
+
+    /**
+     * 包资源所在的本地路径：file协议为包的目录，jar协议为所在的jar文件。
+     * @param url 包资源的URL。
+     * @return 本地路径；无法转换为本地路径则返回 null。
+     * @throws IOException 如果发生读取错误。
+     */
+    private static Path toPath(URL url) throws IOException {
+        if ("jar".equals(url.getProtocol())) {
+            url = ((JarURLConnection) url.openConnection()).getJarFileURL();
+        }
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(url.toURI());
+        }
+        catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long hash(long h, String str) {
+        for (int i = 0; i < str.length(); i++) {
+            h = (h ^ str.charAt(i)) * FNV_PRIME;
+        }
+        // 分隔相邻的字符串
+        return (h ^ 0xFFFF) * FNV_PRIME;
+    }
+
+    private static long hash(long h, long value) {
+        for (int i = 0; i < 64; i += 8) {
+            h = (h ^ ((value >>> i) & 0xFF)) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteSnapshot{" + "fingerprint=" + Long.toHexString(fingerprint) + ", componentClasses="
+                + componentClasses.size() + ", routes=" + routes.size() + '}';
+    }
+
+    /**
+     * Action路径及其所在类、方法和最终的拦截器名称集合。
+     */
+    @Getter
+    static final class Route {
+
+        /**
+         * Action的路径
+         */
+        private final String path;
+
+        /**
+         * Action方法所在类的名称
+         */
+        private final String className;
+
+        /**
+         * Action的方法名和参数类型
+         */
+        private final String method;
+
+        /**
+         * 拦截器的名称集合
+         */
+        private final List<String> interceptors;
+
+        Route(String path, String className, String method, List<String> interceptors) {
+            this.path = path;
+            this.className = className;
+            this.method = method;
+            this.interceptors = interceptors;
+        }
+
+    }
+
+}
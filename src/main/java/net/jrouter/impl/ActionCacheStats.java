@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import lombok.Getter;
+
+/**
+ * {@link PathActionFactory}路径缓存的统计快照（不可变），分别统计固定路径、参数匹配路径及未匹配路径（负缓存）的缓存。
+ * 计数自{@code PathActionFactory}创建起累计，清除缓存时不重置；各计数于不同时刻读取，相互间可能略有偏差。
+ *
+ * @see PathActionFactory#getActionCacheStats()
+ */
+@Getter
+public final class ActionCacheStats {
+
+    /**
+     * 固定路径Action的缓存统计
+     */
+    private final Tier fullPath;
+
+    /**
+     * 参数匹配Action的缓存统计
+     */
+    private final Tier matchedPath;
+
+    /**
+     * 未匹配任何Action的路径的缓存统计
+     */
+    private final Tier notFound;
+
+    ActionCacheStats(Tier fullPath, Tier matchedPath, Tier notFound) {
+        this.fullPath = fullPath;
+        this.matchedPath = matchedPath;
+        this.notFound = notFound;
+    }
+
+    @Override
+    public String toString() {
+        return "ActionCacheStats{" + "fullPath=" + fullPath + ", matchedPath=" + matchedPath + ", notFound="
+                + notFound + '}';
+    }
+
+    /**
+     * 单个缓存的统计。
+     */
+    @Getter
+    public static final class Tier {
+
+        /**
+         * 命中的次数
+         */
+        private final long hitCount;
+
+        /**
+         * 未命中（含缓存对象已失效）的次数
+         */
+        private final long missCount;
+
+        /**
+         * 超出最大缓存数目而淘汰（含接纳策略拒绝）的次数
+         */
+        private final long evictionCount;
+
+        /**
+         * 写入的次数
+         */
+        private final long insertCount;
+
+        /**
+         * 当前的缓存数目
+         */
+        private final int size;
+
+        Tier(long hitCount, long missCount, long evictionCount, long insertCount, int size) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.insertCount = insertCount;
+            this.size = size;
+        }
+
+        /**
+         * 返回命中率，无查询时为0。
+         * @return 命中率。
+         */
+        public double getHitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 0 : (double) hitCount / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "Tier{" + "hitCount=" + hitCount + ", missCount=" + missCount + ", evictionCount="
+                    + evictionCount + ", insertCount=" + insertCount + ", size=" + size + '}';
+        }
+
+    }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import net.jrouter.JRouterException;
+import net.jrouter.annotation.Scope;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 已解析路径的Action调用句柄，由{@link PathActionFactory#handle(String)}创建，可重复调用且线程安全。
+ *
+ * <p>
+ * 句柄持有已解析的Action代理对象、路径参数及拦截器集合的快照，调用时不再截断后缀、读取缓存及查询路径映射，
+ * 单例Action亦不再获取代理对象实例。添加或删除Action（路径映射快照的版本号变更）后，句柄于下次调用时重新解析其路径。
+ * </p>
+ *
+ * @see PathActionFactory#handle(String)
+ */
+public final class ActionHandle {
+
+    /**
+     * Action工厂对象
+     */
+    private final PathActionFactory actionFactory;
+
+    /**
+     * Action的调用路径（不含后缀）
+     */
+    private final String path;
+
+    /**
+     * 当前绑定的Action
+     */
+    private volatile Binding binding;
+
+    ActionHandle(PathActionFactory actionFactory, ResolvedAction resolved) {
+        this.actionFactory = actionFactory;
+        this.path = resolved.getPath();
+        this.binding = new Binding(resolved);
+    }
+
+    /**
+     * 调用句柄所解析的Action，可传递Action方法相应的参数。
+     * @param params Action的调用参数。
+     * @return 调用后的结果。
+     * @throws JRouterException 如果发生调用错误，或重新解析时路径已不再映射任何Action。
+     * @see PathActionFactory#invokeAction(String, Object...)
+     */
+    public <T> T invoke(Object... params) throws JRouterException {
+        Binding b = binding;
+        if (b.resolved.getVersion() != actionFactory.getRouteVersion()) {
+            binding = b = new Binding(actionFactory.resolve(path));
+        }
+        PathActionProxy ap = b.resolved.getActionProxy();
+        if (!b.singleton) {
+            ap = ap.getInstance();
+        }
+        PathActionInvocation ai = new PathActionInvocation(path, actionFactory, ap, b.interceptors, params);
+        ai.setPathParameters(b.resolved.getPathParameters());
+        return actionFactory.invoke(ai, path, params);
+    }
+
+    /**
+     * 返回句柄的调用路径（不含后缀）。
+     * @return 句柄的调用路径。
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * 返回句柄当前绑定的Action代理对象。
+     * @return Action代理对象。
+     */
+    public PathActionProxy getActionProxy() {
+        return binding.resolved.getActionProxy();
+    }
+
+    @Override
+    public String toString() {
+        return "ActionHandle{" + binding.resolved + "}";
+    }
+
+    /**
+     * 解析结果及其拦截器集合的快照（不可变）。
+     */
+    private static final class Binding {
+
+        /**
+         * 解析结果
+         */
+        private final ResolvedAction resolved;
+
+        /**
+         * 拦截器集合的快照
+         */
+        private final List<InterceptorProxy> interceptors;
+
+        /**
+         * Action是否为单例
+         */
+        private final boolean singleton;
+
+        Binding(ResolvedAction resolved) {
+            this.resolved = resolved;
+            PathActionProxy ap = resolved.getActionProxy();
+            List<InterceptorProxy> list = ap.getInterceptorProxies();
+            this.interceptors = list == null || list.isEmpty() ? Collections.emptyList()
+                    : Collections.unmodifiableList(Arrays.asList(list.toArray(new InterceptorProxy[0])));
+            this.singleton = ap.getAction() == null || ap.getAction().scope() == Scope.SINGLETON;
+        }
+
+    }
+
+}
@@ -0,0 +1,551 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import net.jrouter.impl.PathTree.IndexKey;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * 堆外存储的不可变路径表，由路径树快照构建，匹配规则与{@link PathTrie}的深度回溯查找一致。
+ * 节点结构、节点标签及全路径的字符均存储于直接内存的{@link ByteBuffer}中，堆内仅保留路径相关联的值、
+ * 路径的匹配索引及键名数组（相同结构的路径共享同一数组）及带约束的路径片段匹配器。
+ *
+ * <p>
+ * 节点以字节偏移量相互引用，根节点的偏移量为0；查询以绝对位置读取缓冲区，不创建任何对象。构建后只读，可被多线程并发访问。
+ * 缓冲区的容量不超过2GB。
+ * </p>
+ *
+ * <pre>
+ * 节点：label位置 | label长度 | 首个路径片段长度 | 首个路径片段散列值 | 值序号 | 子节点表 | '*'节点 | '**'节点 | 带约束节点表 | label字符...
+ * 子节点表：容量 | 节点偏移量...（开放寻址，空槽为0）
+ * 带约束节点表：数目 | (节点偏移量, 匹配器序号)...
+ * 全路径表：(全路径位置, 全路径长度)... | 全路径字符...
+ * </pre>
+ *
+ * @param <V> 与路径相关联值的类型。
+ */
+final class DirectPathTable<V> {
+
+    /**
+     * 节点各字段的字节偏移量
+     */
+    private static final int LABEL = 0;
+
+    private static final int LABEL_LENGTH = 4;
+
+    private static final int FIRST_LENGTH = 8;
+
+    private static final int FIRST_HASH = 12;
+
+    private static final int SLOT = 16;
+
+    private static final int CHILDREN = 20;
+
+    private static final int WILDCARD = 24;
+
+    private static final int TAIL = 28;
+
+    private static final int CONSTRAINED = 32;
+
+    /**
+     * 节点固定部分的字节数
+     */
+    private static final int NODE_BYTES = 36;
+
+    /**
+     * 路径分割符
+     */
+    private final char pathSeparator;
+
+    /**
+     * 节点及字符数据
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * 全路径表的起始位置
+     */
+    private final int pathTable;
+
+    /**
+     * 路径相关联的值，以值序号索引
+     */
+    private final Object[] values;
+
+    /**
+     * 路径的匹配索引及键名数组，以值序号索引
+     */
+    private final IndexKey[][] indexKeys;
+
+    /**
+     * 带约束的路径片段匹配器
+     */
+    private final SegmentMatcher[] matchers;
+
+    private DirectPathTable(char pathSeparator, ByteBuffer buffer, int pathTable, Object[] values,
+            IndexKey[][] indexKeys, SegmentMatcher[] matchers) {
+        this.pathSeparator = pathSeparator;
+        this.buffer = buffer;
+        this.pathTable = pathTable;
+        this.values = values;
+        this.indexKeys = indexKeys;
+        this.matchers = matchers;
+    }
+
+    /**
+     * 由路径树的根节点构建堆外路径表。
+     * @param <V> 与路径相关联值的类型。
+     * @param root 路径树的根节点。
+     * @param size 有相关联值的路径数目。
+     * @param pathSeparator 路径分割符。
+     * @return 堆外路径表。
+     */
+    static <V> DirectPathTable<V> build(PathTrie.Node<V> root, int size, char pathSeparator) {
+        long bytes = measure(root);
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalStateException("DirectPathTable exceeds 2GB : " + bytes);
+        }
+        Builder<V> builder = new Builder<>(size, (int) bytes);
+        builder.write(root);
+        return builder.finish(pathSeparator);
+    }
+
+    /**
+     * 计算节点及其所有子节点写入路径表所需的字节数，包括子节点表、带约束节点表、label字符及全路径表。
+     */
+    private static <V> long measure(PathTrie.Node<V> node) {
+        long bytes = NODE_BYTES;
+        if (node.getLabel() != null) {
+            bytes += node.getLabel().length() << 1;
+        }
+        if (node.getValue() != null) {
+            bytes += 8 + ((long) node.getPath().length() << 1);
+        }
+        PathTrie.Node<V>[] children = node.getChildren();
+        if (children != null) {
+            int count = 0;
+            for (PathTrie.Node<V> c : children) {
+                if (c != null) {
+                    count++;
+                    bytes += measure(c);
+                }
+            }
+            bytes += 4 + (capacity(count) << 2);
+        }
+        PathTrie.Node<V>[] constrained = node.getConstrained();
+        if (constrained != null) {
+            bytes += 4 + (constrained.length << 3);
+            for (PathTrie.Node<V> c : constrained) {
+                bytes += measure(c);
+            }
+        }
+        if (node.getWildcard() != null) {
+            bytes += measure(node.getWildcard());
+        }
+        if (node.getTail() != null) {
+            bytes += measure(node.getTail());
+        }
+        return bytes;
+    }
+
+    /**
+     * 子节点表的容量，负载因子不超过0.5。
+     */
+    private static int capacity(int count) {
+        return Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1;
+    }
+
+    /**
+     * 查找指定路径区间[0, end)最终匹配且有相关联值的值序号；不包含该路径的关联关系则返回-1。
+     * @param path 指定路径的字符序列。
+     * @param end 路径的结束位置。
+     * @return 最终匹配的值序号；不包含该路径的关联关系则返回-1。
+     */
+    int find(CharSequence path, int end) {
+        if (end == 1 && pathSeparator == path.charAt(0)) {
+            return buffer.getInt(SLOT);
+        }
+        int pos = skipSeparators(path, 0, end);
+        if (pos == end) {
+            return -1;
+        }
+        return match(0, path, pos, end);
+    }
+
+    /**
+     * 自指定节点起深度匹配路径的剩余部分，匹配顺序同{@link PathTrie}。
+     */
+    private int match(int node, CharSequence path, int pos, int end) {
+        pos = skipSeparators(path, pos, end);
+        if (pos == end) {
+            return buffer.getInt(node + SLOT);
+        }
+        int segmentEnd = indexOfSeparator(path, pos, end);
+        int child = findChild(node, path, pos, segmentEnd);
+        if (child != 0) {
+            int next = matchLabel(child, path, segmentEnd, end);
+            if (next != -1) {
+                int res = match(child, path, next, end);
+                if (res != -1) {
+                    return res;
+                }
+            }
+        }
+        int constrained = buffer.getInt(node + CONSTRAINED);
+        if (constrained != 0) {
+            int count = buffer.getInt(constrained);
+            // 约束匹配原路径的大小写
+            CharSequence raw = PathNormalizer.original(path);
+            for (int i = 0, p = constrained + 4; i < count; i++, p += 8) {
+                if (matchers[buffer.getInt(p + 4)].matches(raw, pos, segmentEnd)) {
+                    int res = match(buffer.getInt(p), path, segmentEnd, end);
+                    if (res != -1) {
+                        return res;
+                    }
+                }
+            }
+        }
+        int wildcard = buffer.getInt(node + WILDCARD);
+        if (wildcard != 0) {
+            int res = match(wildcard, path, segmentEnd, end);
+            if (res != -1) {
+                return res;
+            }
+        }
+        // 剩余路径至少包含一个路径片段
+        int tail = buffer.getInt(node + TAIL);
+        return tail == 0 ? -1 : buffer.getInt(tail + SLOT);
+    }
+
+    /**
+     * 查找首个路径片段匹配的子节点，不存在则返回0。
+     */
+    private int findChild(int node, CharSequence path, int from, int to) {
+        int tab = buffer.getInt(node + CHILDREN);
+        if (tab == 0) {
+            return 0;
+        }
+        int h = PathTrie.hash(path, from, to);
+        int len = to - from;
+        int mask = buffer.getInt(tab) - 1;
+        for (int i = spread(h) & mask;; i = (i + 1) & mask) {
+            int n = buffer.getInt(tab + 4 + (i << 2));
+            if (n == 0) {
+                return 0;
+            }
+            if (buffer.getInt(n + FIRST_HASH) == h && buffer.getInt(n + FIRST_LENGTH) == len
+                    && regionMatches(buffer.getInt(n + LABEL), path, from, len)) {
+                return n;
+            }
+        }
+    }
+
+    private boolean regionMatches(int label, CharSequence path, int from, int len) {
+        for (int i = 0; i < len; i++) {
+            if (buffer.getChar(label + (i << 1)) != path.charAt(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 匹配首个路径片段之后的剩余label，输入路径中连续的分隔符视为一个。
+     * @return 匹配后的位置（路径结束或分隔符处），不匹配返回-1。
+     */
+    private int matchLabel(int node, CharSequence path, int pos, int end) {
+        int label = buffer.getInt(node + LABEL);
+        int len = buffer.getInt(node + LABEL_LENGTH);
+        for (int i = buffer.getInt(node + FIRST_LENGTH); i < len; i++) {
+            char c = buffer.getChar(label + (i << 1));
+            if (pos == end) {
+                return -1;
+            }
+            if (c == pathSeparator) {
+                if (path.charAt(pos) != pathSeparator) {
+                    return -1;
+                }
+                pos = skipSeparators(path, pos, end);
+            }
+            else if (path.charAt(pos++) != c) {
+                return -1;
+            }
+        }
+        return pos == end || path.charAt(pos) == pathSeparator ? pos : -1;
+    }
+
+    private int skipSeparators(CharSequence path, int pos, int end) {
+        while (pos < end && path.charAt(pos) == pathSeparator) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private int indexOfSeparator(CharSequence path, int pos, int end) {
+        while (pos < end && path.charAt(pos) != pathSeparator) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 获取指定路径相关联的值，并填充路径中匹配的键值映射；如果不包含该路径的关联关系，则返回 null。
+     * @param path 指定路径的字符序列。
+     * @param matchParameters 路径中匹配的键值映射，可为 null。
+     * @return 指定路径相关联的值；如果不包含该路径的关联关系，则返回 null。
+     */
+    V get(CharSequence path, Map<String, String> matchParameters) {
+        int end = path.length();
+        int slot = find(path, end);
+        if (slot == -1) {
+            return null;
+        }
+        if (matchParameters != null && indexKeys[slot] != null) {
+            PathParameters.fill(indexKeys[slot], path, end, pathSeparator, matchParameters);
+        }
+        return getValue(slot);
+    }
+
+    /**
+     * 返回值序号相关联的值。
+     * @param slot 值序号。
+     * @return 值序号相关联的值。
+     */
+    @SuppressWarnings("unchecked")
+    V getValue(int slot) {
+        return (V) values[slot];
+    }
+
+    /**
+     * 返回值序号的匹配索引及键名数组，不含匹配路径则返回 null。
+     * @param slot 值序号。
+     * @return 匹配索引及键名数组。
+     */
+    IndexKey[] getIndexKeys(int slot) {
+        return indexKeys[slot];
+    }
+
+    /**
+     * 返回值序号相关联的全路径，由缓冲区中的字符创建。
+     * @param slot 值序号。
+     * @return 全路径。
+     */
+    String getPath(int slot) {
+        int p = pathTable + (slot << 3);
+        int pos = buffer.getInt(p);
+        char[] chars = new char[buffer.getInt(p + 4)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = buffer.getChar(pos + (i << 1));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 返回有相关联值的路径数目。
+     * @return 有相关联值的路径数目。
+     */
+    int size() {
+        return values.length;
+    }
+
+    /**
+     * 返回缓冲区占用的直接内存字节数。
+     * @return 直接内存字节数。
+     */
+    int memorySize() {
+        return buffer.capacity();
+    }
+
+    /**
+     * 返回所有路径与其相关联值的集合，顺序与路径树快照的深度优先遍历一致。
+     * @return 路径与其相关联值的集合。
+     */
+    List<Map.Entry<String, V>> entries() {
+        List<Map.Entry<String, V>> list = new ArrayList<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            list.add(new AbstractMap.SimpleImmutableEntry<>(getPath(i), getValue(i)));
+        }
+        return list;
+    }
+
+    @Override
+    public String toString() {
+        return "DirectPathTable{" + "size=" + values.length + ", memorySize=" + buffer.capacity() + '}';
+    }
+
+    /**
+     * 按预先计算的字节数一次分配直接内存，直接写入节点，不经堆内缓冲区复制。
+     */
+    private static final class Builder<V> {
+
+        /**
+         * 按预先计算的字节数分配的直接内存缓冲区
+         */
+        private final ByteBuffer buf;
+
+        private final List<Object> values;
+
+        private final List<IndexKey[]> indexKeys;
+
+        private final List<String> paths;
+
+        private final List<SegmentMatcher> matchers = new ArrayList<>();
+
+        /**
+         * 相同结构的匹配索引及键名数组
+         */
+        private final Map<String, IndexKey[]> sharedKeys = new HashMap<>();
+
+        /**
+         * 相同约束的匹配器序号
+         */
+        private final Map<String, Integer> matcherIndexes = new HashMap<>();
+
+        Builder(int size, int bytes) {
+            buf = ByteBuffer.allocateDirect(bytes);
+            values = new ArrayList<>(size);
+            indexKeys = new ArrayList<>(size);
+            paths = new ArrayList<>(size);
+        }
+
+        /**
+         * 分配指定字节数的空间，返回其起始位置。
+         */
+        private int allocate(int bytes) {
+            int pos = buf.position();
+            buf.position(pos + bytes);
+            return pos;
+        }
+
+        private int putChars(String str) {
+            int pos = allocate(str.length() << 1);
+            for (int i = 0; i < str.length(); i++) {
+                buf.putChar(pos + (i << 1), str.charAt(i));
+            }
+            return pos;
+        }
+
+        /**
+         * 写入节点及其所有子节点，值序号按{@link PathTrie.Snapshot#entries()}的遍历顺序分配。
+         * @return 节点的偏移量。
+         */
+        int write(PathTrie.Node<V> node) {
+            int off = allocate(NODE_BYTES);
+            String label = node.getLabel();
+            if (label != null) {
+                buf.putInt(off + LABEL, putChars(label));
+                buf.putInt(off + LABEL_LENGTH, label.length());
+                buf.putInt(off + FIRST_LENGTH, node.getFirstLength());
+                buf.putInt(off + FIRST_HASH, node.getFirstHash());
+            }
+            int slot = -1;
+            if (node.getValue() != null) {
+                slot = values.size();
+                values.add(node.getValue());
+                indexKeys.add(share(node.getIndexKeys()));
+                paths.add(node.getPath());
+            }
+            buf.putInt(off + SLOT, slot);
+            PathTrie.Node<V>[] children = node.getChildren();
+            if (children != null) {
+                List<PathTrie.Node<V>> list = new ArrayList<>();
+                for (PathTrie.Node<V> c : children) {
+                    if (c != null) {
+                        list.add(c);
+                    }
+                }
+                int capacity = capacity(list.size());
+                int tab = allocate(4 + (capacity << 2));
+                buf.putInt(tab, capacity);
+                buf.putInt(off + CHILDREN, tab);
+                int mask = capacity - 1;
+                for (PathTrie.Node<V> c : list) {
+                    int child = write(c);
+                    int i = spread(buf.getInt(child + FIRST_HASH)) & mask;
+                    while (buf.getInt(tab + 4 + (i << 2)) != 0) {
+                        i = (i + 1) & mask;
+                    }
+                    buf.putInt(tab + 4 + (i << 2), child);
+                }
+            }
+            PathTrie.Node<V>[] constrained = node.getConstrained();
+            if (constrained != null) {
+                int tab = allocate(4 + (constrained.length << 3));
+                buf.putInt(tab, constrained.length);
+                buf.putInt(off + CONSTRAINED, tab);
+                for (int i = 0; i < constrained.length; i++) {
+                    SegmentMatcher matcher = constrained[i].getMatcher();
+                    Integer mi = matcherIndexes.get(matcher.getConstraint());
+                    if (mi == null) {
+                        mi = matchers.size();
+                        matchers.add(matcher);
+                        matcherIndexes.put(matcher.getConstraint(), mi);
+                    }
+                    int child = write(constrained[i]);
+                    buf.putInt(tab + 4 + (i << 3), child);
+                    buf.putInt(tab + 8 + (i << 3), mi);
+                }
+            }
+            if (node.getWildcard() != null) {
+                int child = write(node.getWildcard());
+                buf.putInt(off + WILDCARD, child);
+            }
+            if (node.getTail() != null) {
+                int child = write(node.getTail());
+                buf.putInt(off + TAIL, child);
+            }
+            return off;
+        }
+
+        /**
+         * 相同结构（索引、键名及是否路径尾匹配）的匹配索引及键名数组共享同一实例。
+         */
+        private IndexKey[] share(IndexKey[] keys) {
+            if (keys == null) {
+                return null;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (IndexKey k : keys) {
+                sb.append(k.index).append(k.tail ? '+' : ':').append(k.matchKey).append('/');
+            }
+            IndexKey[] exist = sharedKeys.putIfAbsent(sb.toString(), keys);
+            return exist == null ? keys : exist;
+        }
+
+        DirectPathTable<V> finish(char pathSeparator) {
+            int pathTable = allocate(paths.size() << 3);
+            for (int i = 0; i < paths.size(); i++) {
+                String path = paths.get(i);
+                int pos = putChars(path);
+                buf.putInt(pathTable + (i << 3), pos);
+                buf.putInt(pathTable + (i << 3) + 4, path.length());
+            }
+            buf.clear();
+            return new DirectPathTable<>(pathSeparator, buf, pathTable, values.toArray(),
+                    indexKeys.toArray(new IndexKey[0][]), matchers.toArray(new SegmentMatcher[0]));
+        }
+
+    }
+
+}
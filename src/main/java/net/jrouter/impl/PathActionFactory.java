@@ -20,7 +20,9 @@ package net.jrouter.impl;
 import lombok.Getter;
 import net.jrouter.*;
 import net.jrouter.annotation.*;
+import net.jrouter.impl.PathTree.IndexKey;
 import net.jrouter.util.AntPathMatcher;
+import net.jrouter.util.AsciiCharSequence;
 import net.jrouter.util.CollectionUtil;
 import net.jrouter.util.MethodUtil;
 import net.jrouter.util.StringUtil;
@@ -31,7 +33,11 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 
 /**
  * 基于调用{@code String}类型路径{@link Action}的{@link ActionFactory}实现类，以'/'作为路径的分隔符。
@@ -41,10 +47,15 @@ import java.util.*;
  * {@link Action}对象根据其{@link Action#scope()}属性判断是否单例。
  * </p>
  * <p>
- * PathActionFactory中的{@link Action}、{@link Interceptor}拦截器、{@link InterceptorStack}拦截栈、
+ * PathActionFactory中的{@link Interceptor}拦截器、{@link InterceptorStack}拦截栈、
  * {@link ResultType}结果类型、{@link Result}结果对象及的集合在初始化时加载完成，
  * 之后任何情况下PathActionFactory不再执行集合的修改和删除操作。对返回集合进行的修改和删除需自行保证其线程安全性。
  * </p>
+ * <p>
+ * {@link Action}的路径映射以不可变快照发布，运行时可通过{@link #addAction(PathActionProxy...)}及{@link #removeAction(String)}
+ * 添加或删除Action：修改操作之间互斥并原子替换快照，调用Action时不加锁且始终在同一快照上查询；
+ * 原快照的{@link #actionCache}缓存随快照版本号的变更一并失效。
+ * </p>
  */
 public class PathActionFactory extends AbstractActionFactory<String> {
 
@@ -99,6 +110,11 @@ public class PathActionFactory extends AbstractActionFactory<String> {
             return new Parameter[0];
         }
 
+        @Override
+        public int[] routeKeys() {
+            return new int[0];
+        }
+
         @Override
         public Class<? extends Annotation> annotationType() {
             return Action.class;
@@ -130,10 +146,111 @@ public class PathActionFactory extends AbstractActionFactory<String> {
     @lombok.Getter
     private final int actionCacheNumber;
 
+    /**
+     * 参数匹配Action的{@link #actionCache}缓存类型，默认为"lru"（同步的访问顺序LRU缓存，每次命中均加锁）；
+     * "clock"为无锁的CLOCK淘汰缓存，命中时不加锁且不修改共享的结构，适用于多核高并发的调用。
+     *
+     * @see net.jrouter.util.LRUMap
+     * @see net.jrouter.util.ClockMap
+     */
+    @lombok.Getter
+    private final String actionCacheType;
+
+    /**
+     * 参数匹配Action的{@link #actionCache}缓存是否使用TinyLFU接纳策略，默认为false。
+     * 缓存已满时新路径的估计访问频率高于将被淘汰的路径才被缓存，避免大量一次性的参数路径淘汰经常访问的路径。
+     *
+     * @see net.jrouter.util.FrequencySketch
+     */
+    @lombok.Getter
+    private final boolean actionCacheAdmission;
+
+    /**
+     * 近期未匹配任何Action的路径的缓存（负缓存）最大数目，默认为0（不缓存）；缓存的路径再次调用时不查询路径映射。
+     * 缓存类型同{@link #actionCacheType}，随Action的添加、删除一并失效；字符序列形式的路径不使用负缓存。
+     */
+    @lombok.Getter
+    private final int notFoundCacheNumber;
+
+    /**
+     * 路径未匹配Action时抛出的{@link NotFoundException}是否不记录栈轨迹，默认为false。
+     * 启用时负缓存中的路径再次调用时亦创建新的不记录栈轨迹的异常，不共享异常对象。
+     */
+    @lombok.Getter
+    private final boolean stacklessNotFound;
+
+    /**
+     * 每个调用线程独享的直接映射路径缓存的槽数目（向上取整为2的幂），默认为0（不使用）。
+     * 线程缓存先于{@link #actionCache}查询，以路径映射快照的版本号及缓存的清除次数判定失效，
+     * 同一线程重复调用相同路径时不访问共享的缓存；线程缓存的命中不计入{@link #getActionCacheStats()}。
+     */
+    @lombok.Getter
+    private final int threadActionCacheSize;
+
+    /**
+     * 是否将Action路径编译为路径片段的确定性自动机查询，默认为false（路径树的深度回溯查找）。
+     *
+     * @see RouteAutomaton
+     */
+    @lombok.Getter
+    private final boolean compiledRouting;
+
+    /**
+     * 是否将Action路径的节点及字符转存至堆外（直接内存）的路径表查询，默认为false。
+     * 路径表于首次调用Action时构建，此后不可再添加或删除Action（清除后除外），适用于启动时一次性注册的大量路径；
+     * 启用时不使用确定性自动机。
+     *
+     * @see DirectPathTable
+     */
+    @lombok.Getter
+    private final boolean directRouting;
+
+    /**
+     * 是否以路径预过滤器（首个路径片段及路径片段数目的布隆过滤器）在查询路径映射前排除无法匹配的路径，默认为false。
+     *
+     * @see RouteFilter
+     */
+    @lombok.Getter
+    private final boolean routeFilter;
+
+    /**
+     * 路径预过滤器排除的路径数目
+     */
+    private final LongAdder routeFilterRejects = new LongAdder();
+
+    /**
+     * 路径预过滤器判定可能匹配、但查询路径映射后未匹配的路径数目
+     */
+    private final LongAdder routeFilterFalsePositives = new LongAdder();
+
+    /**
+     * 调用路径是否合并连续的路径分隔符，默认为false。
+     *
+     * @see PathNormalizer
+     */
+    @lombok.Getter
+    private final boolean collapseSeparators;
+
+    /**
+     * 调用路径是否去除结尾的路径分隔符，默认为false。
+     *
+     * @see PathNormalizer
+     */
+    @lombok.Getter
+    private final boolean trimTrailingSeparator;
+
+    /**
+     * Action路径是否忽略大小写，默认为false；忽略大小写时仅确切路径片段及后缀不区分大小写，路径参数值保留调用路径的大小写。
+     *
+     * @see PathNormalizer
+     */
+    @lombok.Getter
+    private final boolean caseInsensitive;
+
     /**
      * 默认拦截栈名称。作用于初始化Action时的配置，如若配置全路径匹配的{@link InterceptorStack#include()}亦相当于取代此配置项。
      *
-     * @see #createActionProxy(Method, Object)
+     * @see #createActionProxy(Method, Object, SegmentDictionary)
      */
     @lombok.Getter
     private final String defaultInterceptorStack;
@@ -163,6 +280,28 @@ public class PathActionFactory extends AbstractActionFactory<String> {
      */
     private final ActionCache actionCache;
 
+    /**
+     * 每个调用线程独享的路径缓存，不使用时为 null；{@link #clear()}时替换，释放各线程原有的缓存。
+     */
+    private volatile ThreadLocal<ThreadActionCache> threadActionCache;
+
+    /**
+     * {@link #actionCache}的清除次数，线程缓存据此失效
+     */
+    private final AtomicInteger actionCacheEpoch = new AtomicInteger();
+
+    /**
+     * 调用路径及Action路径的规范化处理。
+     */
+    private final PathNormalizer pathNormalizer;
+
+    /**
+     * 相同路径以路由键区分的多个Action，按路由键的确切值数目降序排列；写时复制，仅在添加或删除Action时替换。
+     * 以规范化后的Action路径及各Action的原路径为键，调用时由Action的原路径直接获取，无须再规范化路径。
+     * @see Action#routeKeys()
+     */
+    private volatile Map<String, PathActionProxy[]> routeKeyActions = Collections.emptyMap();
+
     ////////////////////////////////////////////////////////////////////////////////////////////////////
     /**
      * default object handler
@@ -181,15 +320,61 @@ public class PathActionFactory extends AbstractActionFactory<String> {
         this.pathMatcher = new AntPathMatcher(String.valueOf(this.pathSeparator));
         this.extension = properties.extension;
         this.actionCacheNumber = properties.actionCacheNumber;
+        this.actionCacheType = properties.actionCacheType;
+        this.actionCacheAdmission = properties.actionCacheAdmission;
+        this.notFoundCacheNumber = properties.notFoundCacheNumber;
+        this.stacklessNotFound = properties.stacklessNotFound;
+        this.threadActionCacheSize = properties.threadActionCacheSize;
+        this.compiledRouting = properties.compiledRouting;
+        this.directRouting = properties.directRouting;
+        this.routeFilter = properties.routeFilter;
+        this.collapseSeparators = properties.collapseSeparators;
+        this.trimTrailingSeparator = properties.trimTrailingSeparator;
+        this.caseInsensitive = properties.caseInsensitive;
         this.defaultInterceptorStack = properties.defaultInterceptorStack;
         this.defaultResultType = properties.defaultResultType;
         // initiate
-        pathActions = new PathTreeMap<>(pathSeparator);
-        actionCache = new ActionCache(new java.util.concurrent.ConcurrentHashMap<>(),
-                Collections.synchronizedMap(new net.jrouter.util.LRUMap<>(actionCacheNumber)));
+        pathActions = new PathTreeMap<>(pathSeparator, compiledRouting, directRouting, routeFilter);
+        pathNormalizer = new PathNormalizer(pathSeparator, extension, collapseSeparators, trimTrailingSeparator,
+                caseInsensitive);
+        // 转存至堆外时确切路径不建立堆内索引，全路径的缓存亦限制数目，避免每个路径均在堆内保留缓存对象
+        actionCache = new ActionCache(
+                directRouting ? createCache(actionCacheType, actionCacheNumber, actionCacheAdmission)
+                        : new CacheTier<>(new java.util.concurrent.ConcurrentHashMap<>(), () -> 0L),
+                createCache(actionCacheType, actionCacheNumber, actionCacheAdmission),
+                notFoundCacheNumber > 0 ? createCache(actionCacheType, notFoundCacheNumber, actionCacheAdmission)
+                        : new CacheTier<>(Collections.emptyMap(), () -> 0L));
+        threadActionCache = newThreadActionCache();
         invokeAwareInterfaces(this.pathGenerator);
     }
 
+    /**
+     * 创建指定类型的带统计计数的路径与缓存对象的映射。
+     * @param <V> 缓存对象的类型。
+     * @param type 缓存类型："lru"或"clock"。
+     * @param maxEntries 最大缓存数目。
+     * @param admission 是否使用TinyLFU接纳策略。
+     * @return 带统计计数的路径与缓存对象的映射。
+     */
+    private static <V extends CacheEntry> CacheTier<V> createCache(String type, int maxEntries,
+            boolean admission) {
+        net.jrouter.util.FrequencySketch sketch = admission ? new net.jrouter.util.FrequencySketch(maxEntries) : null;
+        if ("lru".equalsIgnoreCase(type)) {
+            net.jrouter.util.LRUMap<String, V> lru = new net.jrouter.util.LRUMap<>(128, maxEntries, sketch);
+            Map<String, V> map = Collections.synchronizedMap(lru);
+            return new CacheTier<>(map, () -> {
+                synchronized (map) {
+                    return lru.getEvictionCount();
+                }
+            });
+        }
+        if ("clock".equalsIgnoreCase(type)) {
+            net.jrouter.util.ClockMap<String, V> clock = new net.jrouter.util.ClockMap<>(128, maxEntries, sketch);
+            return new CacheTier<>(clock, clock::getEvictionCount);
+        }
+        throw new IllegalArgumentException("Unknown actionCacheType : " + type);
+    }
+
     /**
      * 根据指定的键值映射构造初始化数据的PathActionFactory对象。
      * @param properties 指定的初始化数据键值映射。
@@ -221,29 +406,122 @@ public class PathActionFactory extends AbstractActionFactory<String> {
         if (LOG.isDebugEnabled()) {
             LOG.debug("Start invoking Action [{}]; Parameters {} ", path, java.util.Arrays.toString(params));
         }
-        // remove the extension
-        // 当后缀为单个字符时，按路径最后出现分割符的位置截断路径后缀；当后缀为非空字符串时，如果路径以后缀结尾，截断后缀。
-        if (StringUtil.isNotEmpty(extension)) {
-            int len = extension.length();
-            // extension为特定的标记字符，则截去标记字符后的部分
-            if (len == 1 && !Character.isLetterOrDigit(extension.charAt(0))) {
-                int index = path.lastIndexOf(extension.charAt(0));
-                if (index != -1) {
-                    path = path.substring(0, index);
-                }
-            }
-            else // extension为特定的后缀字符串
-            if (path.endsWith(extension)) {
-                // 如果extension前一位非字母或数字
-                if (!Character.isLetterOrDigit(path.charAt(path.length() - len - 1))) {
-                    len++;
-                }
-                path = path.substring(0, path.length() - len);
-            }
+        // remove the extension and normalize
+        path = pathNormalizer.normalize(path);
+        // create ActionInvocation
+        return invoke(createActionInvocation(path, params), path, params);
+    }
+
+    /**
+     * 通过路径及路由键调用相应的Action，可传递Action方法相应的参数。仅以路径查询路径映射及缓存，
+     * 路径匹配后再选取路由键满足{@link Action#routeKeys()}的Action，调用时无需将路由键拼接至路径。
+     * @param routeKeys 调用时的路由键（如HTTP方法、虚拟主机的序号）。
+     * @param path Action的映射路径。
+     * @param params Action的调用参数。
+     * @return 调用后的结果。
+     * @throws JRouterException 如果发生调用错误。
+     * @see Action#routeKeys()
+     */
+    public <T> T invokeAction(int[] routeKeys, String path, Object... params) throws JRouterException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Start invoking Action [{}] with route keys {}; Parameters {} ", path,
+                    java.util.Arrays.toString(routeKeys), java.util.Arrays.toString(params));
         }
+        // remove the extension and normalize
+        path = pathNormalizer.normalize(path);
+        return invoke(createActionInvocation(routeKeys, path, params), path, params);
+    }
 
-        // create ActionInvocation
-        ActionInvocation<String> invocation = createActionInvocation(path, params);
+    /**
+     * 通过字符序列形式的路径调用相应的Action，可传递Action方法相应的参数。
+     * 直接在字符序列上截断后缀、查询路径，不创建路径字符串；非确切路径不使用{@link #actionCache}缓存。
+     * 仅在读取{@link ActionInvocation#getActionPath()}或路径的参数值时创建相应的字符串。
+     * @param path Action的映射路径，Action调用期间其内容不可修改。
+     * @param params Action的调用参数。
+     * @return 调用后的结果。
+     * @throws JRouterException 如果发生调用错误。
+     * @see #invokeAction(String, Object...)
+     */
+    public <T> T invokeAction(CharSequence path, Object... params) throws JRouterException {
+        // 需改写路径时转换为字符串
+        if (path instanceof String || pathNormalizer.isRewriting()) {
+            return invokeAction(path.toString(), params);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Start invoking Action [{}]; Parameters {} ", path, java.util.Arrays.toString(params));
+        }
+        int end = pathNormalizer.indexOfExtension(path);
+        return invoke(createActionInvocation(path, end, params), path, params);
+    }
+
+    /**
+     * 通过{@code ByteBuffer}中ASCII编码的路径片段调用相应的Action，不复制缓冲区的内容。
+     * @param buffer 包含路径的缓冲区，Action调用期间其内容不可修改。
+     * @param offset 路径在缓冲区中的绝对起始位置。
+     * @param length 路径的字节长度。
+     * @param params Action的调用参数。
+     * @return 调用后的结果。
+     * @throws JRouterException 如果发生调用错误。
+     * @see #invokeAction(CharSequence, Object...)
+     */
+    public <T> T invokeAction(ByteBuffer buffer, int offset, int length, Object... params) throws JRouterException {
+        return invokeAction(new AsciiCharSequence(buffer, offset, length), params);
+    }
+
+    /**
+     * 通过路径的整数编号调用相应的Action，可传递Action方法相应的参数。编号由{@link #getRouteId(String)}或
+     * {@link #getRouteTable()}获取，由散列表直接定位Action；仅确切路径（不含'*'、'**'或'{key}'）的Action有编号，无路径参数。
+     * @param routeId Action路径的整数编号。
+     * @param params Action的调用参数。
+     * @return 调用后的结果。
+     * @throws JRouterException 如果发生调用错误。
+     * @see #getRouteTable()
+     */
+    public <T> T invokeAction(int routeId, Object... params) throws JRouterException {
+        PathActionProxy ap = pathActions.snapshot().routeIds().get(routeId);
+        if (ap == null) {
+            throw newNotFoundException("No such Action id : " + routeId);
+        }
+        ap = selectAction(ap, null, ap.getPath());
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Start invoking Action [{}] by id [{}]; Parameters {} ", ap.getPath(), routeId,
+                    java.util.Arrays.toString(params));
+        }
+        // scope action
+        PathActionInvocation ai = new PathActionInvocation(ap.getPath(), this, ap.getInstance(), params);
+        ai.setPathParameters(Collections.emptyMap());
+        return invoke(ai, ap.getPath(), params);
+    }
+
+    /**
+     * 返回确切路径Action的整数编号。编号为路径的32位FNV-1a散列值，在Action删除前保持不变；
+     * 与已有编号冲突的路径以附加序号重新编号，此时重启后按相同顺序添加Action则编号不变。
+     * @param actionPath Action的确切路径（不含'*'、'**'或'{key}'）。
+     * @return Action路径的整数编号。
+     * @throws NotFoundException 如果不存在该路径的Action或路径含匹配路径。
+     */
+    public int getRouteId(String actionPath) throws NotFoundException {
+        try {
+            return pathActions.snapshot().routeIds().getId(pathNormalizer.normalizeActionPath(actionPath));
+        }
+        catch (NoSuchElementException e) {
+            throw new NotFoundException("No such Action : " + actionPath);
+        }
+    }
+
+    /**
+     * 返回所有确切路径Action的整数编号与路径的映射（按路径排序），可导出至客户端以编号代替路径调用Action。
+     * @return 整数编号与Action路径的映射。
+     * @see #invokeAction(int, Object...)
+     */
+    public Map<Integer, String> getRouteTable() {
+        return Collections.unmodifiableMap(pathActions.snapshot().routeIds().toMap());
+    }
+
+    /**
+     * 调用Action并处理其结果。
+     */
+    <T> T invoke(ActionInvocation<String> invocation, CharSequence path, Object... params) {
         // invoke
         Object res = null;
         try {
@@ -272,42 +550,329 @@ public class PathActionFactory extends AbstractActionFactory<String> {
      * @return Action调用时的上下文对象。
      */
     protected ActionInvocation<String> createActionInvocation(String path, Object... params) {
-        // cache
-        ActionCacheEntry ace = null;
-        if (actionCacheNumber > 0) {
-            ace = actionCache.get(path);
-        }
-        // Action代理对象
-        PathActionProxy ap = null;
+        return createActionInvocation(null, path, params);
+    }
+
+    /**
+     * 创建Action调用时的上下文对象，路径匹配后再比较路由键。
+     * @param routeKeys 调用时的路由键，可为 null。
+     * @param path Action的映射路径。
+     * @param params Action的调用参数。
+     * @return Action调用时的上下文对象。
+     */
+    private ActionInvocation<String> createActionInvocation(int[] routeKeys, String path, Object... params) {
+        // 当前路径映射的快照
+        PathTrie.Snapshot<PathActionProxy> snapshot = pathActions.snapshot();
+        // Action代理对象，确切路径直接由索引获取且无需缓存
+        PathActionProxy ap = getStatic(snapshot, path);
         // 路径的参数匹配映射
         Map<String, String> matchParameters = null;
 
-        // get from cache
-        if (ace != null) {
+        if (ap != null) {
+            matchParameters = Collections.emptyMap();
+        }
+        else {
+            ActionCacheEntry ace = lookup(snapshot, path);
             ap = ace.actionProxy;
             matchParameters = ace.matchParameters;
         }
+        ap = selectAction(ap, routeKeys, path);
+
+        // scope action
+        ap = ap.getInstance();
+        // create PathActionInvocation
+        PathActionInvocation ai = new PathActionInvocation(path, this, ap, params);
+        // setActionPathParameters
+        ai.setPathParameters(matchParameters);
+        return ai;
+    }
+
+    /**
+     * 由确切路径的索引获取Action，忽略大小写时以转换为小写的路径查询。
+     * @param snapshot 路径映射的快照。
+     * @param path Action的映射路径（不含后缀）。
+     * @return 确切路径的Action，不存在则返回 null。
+     */
+    private PathActionProxy getStatic(PathTrie.Snapshot<PathActionProxy> snapshot, String path) {
+        CharSequence key = pathNormalizer.fold(path);
+        return key == path ? snapshot.staticIndex().get(path) : snapshot.staticIndex().get(key, key.length());
+    }
+
+    /**
+     * 在路径映射的快照中查询非确切路径的Action，优先读取{@link #actionCache}缓存，未缓存则查询后写入缓存。
+     * @param snapshot 路径映射的快照。
+     * @param path Action的映射路径（不含后缀）。
+     * @return Action的缓存对象。
+     * @throws NotFoundException 如果路径未映射任何Action。
+     */
+    private ActionCacheEntry lookup(PathTrie.Snapshot<PathActionProxy> snapshot, String path) {
+        // thread cache
+        ThreadActionCache local = null;
+        ThreadLocal<ThreadActionCache> threadLocal = threadActionCache;
+        if (threadLocal != null) {
+            local = threadLocal.get();
+            ActionCacheEntry ace = local.get(path, snapshot.getVersion(), actionCacheEpoch.get());
+            if (ace != null) {
+                return ace;
+            }
+        }
+        // cache
+        ActionCacheEntry ace = null;
+        if (actionCacheNumber > 0) {
+            ace = actionCache.get(path, snapshot.getVersion());
+        }
+        if (ace != null) {
+            if (local != null) {
+                local.put(path, ace);
+            }
+            return ace;
+        }
+        // 近期未匹配的路径
+        if (notFoundCacheNumber > 0) {
+            NotFoundEntry nfe = actionCache.getNotFound(path, snapshot.getVersion());
+            if (nfe != null) {
+                throw newNotFoundException(nfe.message);
+            }
+        }
+        // 忽略大小写时以小写的视图查询，路径参数取自原路径
+        CharSequence key = pathNormalizer.fold(path);
+        // 无法匹配的路径不查询路径映射亦不写入缓存（含负缓存）
+        if (routeFilter && !filter(snapshot, key, path.length())) {
+            throw newNotFoundException("No such Action : " + path);
+        }
+        PathActionProxy ap;
+        IndexKey[] indexKeys;
+        if (snapshot.isDirect()) {
+            DirectPathTable<PathActionProxy> table = snapshot.table();
+            int slot = table.find(key, path.length());
+            if (slot == -1) {
+                countFalsePositive();
+                throw notFound(snapshot, path);
+            }
+            ap = table.getValue(slot);
+            indexKeys = table.getIndexKeys(slot);
+        }
         else {
-            // initiate matchParameters
-            matchParameters = new HashMap<>(2);
-            // get Action and fill matchParameters
-            ap = pathActions.get(path, matchParameters);
+            PathTrie.Node<PathActionProxy> node = snapshot.find(key, path.length());
+            if (node == null) {
+                countFalsePositive();
+                throw notFound(snapshot, path);
+            }
+            ap = node.getValue();
+            indexKeys = node.getIndexKeys();
+        }
+        // 匹配参数仅记录索引，读取时才截取路径片段
+        Map<String, String> matchParameters = Collections.emptyMap();
+        if (indexKeys != null) {
+            matchParameters = new PathParameters(path, path.length(), pathSeparator, indexKeys);
+        }
+        ace = new ActionCacheEntry(ap, matchParameters, snapshot.getVersion());
+        // put in cache, ignore multi-thread issue here
+        putActionCache(path, ace);
+        if (local != null) {
+            local.put(path, ace);
+        }
+        return ace;
+    }
+
+    /**
+     * 创建路径未匹配任何Action的异常，并写入负缓存。
+     * @param snapshot 路径映射的快照。
+     * @param path Action的映射路径。
+     * @return 路径未匹配任何Action的异常。
+     */
+    private NotFoundException notFound(PathTrie.Snapshot<PathActionProxy> snapshot, String path) {
+        String message = "No such Action : " + path;
+        if (notFoundCacheNumber > 0) {
+            actionCache.putNotFound(path, new NotFoundEntry(message, snapshot.getVersion()));
+        }
+        return newNotFoundException(message);
+    }
+
+    /**
+     * 创建调用时未找到Action的异常，{@link #stacklessNotFound}为true时不记录栈轨迹。
+     * @param message 详细消息。
+     * @return 未找到Action的异常。
+     */
+    private NotFoundException newNotFoundException(String message) {
+        return stacklessNotFound ? new NotFoundException(message, false) : new NotFoundException(message);
+    }
+
+    /**
+     * 以路径预过滤器判断路径区间[0, end)是否可能匹配，排除的路径计入{@link #getRouteFilterRejects()}。
+     * @param snapshot 路径映射的快照。
+     * @param path Action的映射路径。
+     * @param end 路径的结束位置。
+     * @return 可能匹配返回{@code true}。
+     */
+    private boolean filter(PathTrie.Snapshot<PathActionProxy> snapshot, CharSequence path, int end) {
+        if (snapshot.routeFilter().mightMatch(path, end)) {
+            return true;
+        }
+        routeFilterRejects.increment();
+        return false;
+    }
 
-            if (ap == null) {
-                throw new NotFoundException("No such Action : " + path);
+    /**
+     * 启用路径预过滤器时，记录一次预过滤器误判的路径。
+     */
+    private void countFalsePositive() {
+        if (routeFilter) {
+            routeFilterFalsePositives.increment();
+        }
+    }
+
+    /**
+     * 批量解析多个路径映射的Action及路径的参数匹配映射，所有路径均在同一路径映射快照上查询，重复的路径仅解析一次。
+     * 解析结果可经{@link #invokeAction(ResolvedAction, Object...)}直接调用，不再查询路径映射。
+     * @param paths Action的映射路径。
+     * @return 与路径顺序一致的解析结果。
+     * @throws NotFoundException 如果任一路径未映射Action。
+     */
+    public ResolvedAction[] resolveAll(String... paths) throws NotFoundException {
+        PathTrie.Snapshot<PathActionProxy> snapshot = pathActions.snapshot();
+        ResolvedAction[] resolved = new ResolvedAction[paths.length];
+        // 批量请求中的重复路径
+        Map<String, ResolvedAction> resolvedPaths = paths.length > 1 ? new HashMap<>(paths.length * 2) : null;
+        for (int i = 0; i < paths.length; i++) {
+            String path = paths[i];
+            path = pathNormalizer.normalize(path);
+            ResolvedAction ra = resolvedPaths == null ? null : resolvedPaths.get(path);
+            if (ra == null) {
+                ra = resolve(snapshot, path);
+                if (resolvedPaths != null) {
+                    resolvedPaths.put(path, ra);
+                }
             }
+            resolved[i] = ra;
+        }
+        return resolved;
+    }
 
-            ace = new ActionCacheEntry(ap,
-                    matchParameters.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(matchParameters));
-            // put in cache, ignore multi-thread issue here
-            putActionCache(path, ace);
+    /**
+     * 在路径映射的快照中解析路径映射的Action及路径的参数匹配映射。
+     * @param snapshot 路径映射的快照。
+     * @param path Action的映射路径（不含后缀）。
+     * @return 解析结果。
+     * @throws NotFoundException 如果路径未映射任何Action。
+     */
+    private ResolvedAction resolve(PathTrie.Snapshot<PathActionProxy> snapshot, String path) {
+        PathActionProxy ap = getStatic(snapshot, path);
+        if (ap != null) {
+            return new ResolvedAction(path, selectAction(ap, null, path), Collections.emptyMap(),
+                    snapshot.getVersion());
         }
+        ActionCacheEntry ace = lookup(snapshot, path);
+        return new ResolvedAction(path, selectAction(ace.actionProxy, null, path), ace.matchParameters,
+                snapshot.getVersion());
+    }
+
+    /**
+     * 在当前路径映射的快照中解析路径（不含后缀）映射的Action。
+     * @param path Action的映射路径（不含后缀）。
+     * @return 解析结果。
+     * @throws NotFoundException 如果路径未映射任何Action。
+     */
+    ResolvedAction resolve(String path) {
+        return resolve(pathActions.snapshot(), path);
+    }
+
+    /**
+     * 返回当前路径映射快照的版本号，添加或删除Action后变更。
+     * @return 路径映射快照的版本号。
+     */
+    long getRouteVersion() {
+        return pathActions.snapshot().getVersion();
+    }
 
+    /**
+     * 解析路径映射的Action并返回其可重用的调用句柄。句柄持有已解析的Action代理对象、路径参数及拦截器集合，
+     * 调用时不再截断后缀、读取缓存及查询路径映射；添加或删除Action后，句柄于下次调用时重新解析路径。
+     * @param path Action的映射路径。
+     * @return Action的调用句柄，线程安全。
+     * @throws NotFoundException 如果路径未映射任何Action。
+     * @see ActionHandle#invoke(Object...)
+     */
+    public ActionHandle handle(String path) throws NotFoundException {
+        path = pathNormalizer.normalize(path);
+        return new ActionHandle(this, resolve(path));
+    }
+
+    /**
+     * 调用已解析的Action，可传递Action方法相应的参数。不再截断后缀、读取缓存及查询路径映射，
+     * 解析后删除或替换的Action仍按解析时的Action代理对象调用。
+     * @param resolved 已解析的Action路径。
+     * @param params Action的调用参数。
+     * @return 调用后的结果。
+     * @throws JRouterException 如果发生调用错误。
+     * @see #resolveAll(String...)
+     */
+    public <T> T invokeAction(ResolvedAction resolved, Object... params) throws JRouterException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Start invoking resolved Action [{}]; Parameters {} ", resolved.getPath(),
+                    java.util.Arrays.toString(params));
+        }
+        // scope action
+        PathActionProxy ap = resolved.getActionProxy().getInstance();
+        PathActionInvocation ai = new PathActionInvocation(resolved.getPath(), this, ap, params);
+        ai.setPathParameters(resolved.getPathParameters());
+        return invoke(ai, resolved.getPath(), params);
+    }
+
+    /**
+     * 由字符序列区间[0, end)形式的路径创建Action调用时的上下文对象，不使用{@link #actionCache}缓存。
+     * @param path Action的映射路径。
+     * @param end 路径的结束位置（不含后缀）。
+     * @param params Action的调用参数。
+     * @return Action调用时的上下文对象。
+     */
+    private ActionInvocation<String> createActionInvocation(CharSequence path, int end, Object... params) {
+        CharSequence realPath = path;
+        // 忽略大小写时以小写的视图查询，路径参数取自原路径
+        CharSequence key = pathNormalizer.fold(path);
+        // 路径的参数匹配映射
+        Map<String, String> matchParameters = Collections.emptyMap();
+        PathTrie.Snapshot<PathActionProxy> snapshot = pathActions.snapshot();
+        PathActionProxy ap = snapshot.staticIndex().get(key, end);
+        if (ap != null) {
+            // 确切路径即为Action的路径
+            realPath = ap.getPath();
+        }
+        else {
+            if (routeFilter && !filter(snapshot, key, end)) {
+                throw newNotFoundException("No such Action : " + path.subSequence(0, end));
+            }
+            IndexKey[] indexKeys;
+            if (snapshot.isDirect()) {
+                DirectPathTable<PathActionProxy> table = snapshot.table();
+                int slot = table.find(key, end);
+                if (slot == -1) {
+                    countFalsePositive();
+                    throw newNotFoundException("No such Action : " + path.subSequence(0, end));
+                }
+                ap = table.getValue(slot);
+                indexKeys = table.getIndexKeys(slot);
+            }
+            else {
+                PathTrie.Node<PathActionProxy> node = snapshot.find(key, end);
+                if (node == null) {
+                    countFalsePositive();
+                    throw newNotFoundException("No such Action : " + path.subSequence(0, end));
+                }
+                ap = node.getValue();
+                indexKeys = node.getIndexKeys();
+            }
+            if (indexKeys != null) {
+                matchParameters = new PathParameters(path, end, pathSeparator, indexKeys);
+            }
+            if (end != path.length()) {
+                realPath = path.subSequence(0, end);
+            }
+        }
+        ap = selectAction(ap, null, realPath);
         // scope action
         ap = ap.getInstance();
-        // create PathActionInvocation
-        PathActionInvocation ai = new PathActionInvocation(path, this, ap, params);
-        // setActionPathParameters
+        PathActionInvocation ai = new PathActionInvocation(realPath, this, ap, params);
         ai.setPathParameters(matchParameters);
         return ai;
     }
@@ -338,6 +903,15 @@ public class PathActionFactory extends AbstractActionFactory<String> {
         return res;
     }
 
+    /**
+     * 创建每个调用线程独享的路径缓存。
+     * @return 线程的路径缓存；{@link #threadActionCacheSize}不大于0则返回 null。
+     */
+    private ThreadLocal<ThreadActionCache> newThreadActionCache() {
+        return threadActionCacheSize > 0 ? ThreadLocal.withInitial(() -> new ThreadActionCache(threadActionCacheSize))
+                : null;
+    }
+
     /**
      * 添加Action的路径及代理对象至缓存。
      * @param path Action的路径。
@@ -360,6 +934,7 @@ public class PathActionFactory extends AbstractActionFactory<String> {
      * 清除Action的路径映射缓存。
      */
     public void clearActionCache() {
+        actionCacheEpoch.incrementAndGet();
         actionCache.clear();
     }
 
@@ -368,54 +943,186 @@ public class PathActionFactory extends AbstractActionFactory<String> {
     @Override
     public void clear() {
         LOG.info("Clearing JRouter ActionFactory : {}", this);
+        actionCacheEpoch.incrementAndGet();
+        // 不再引用原ThreadLocal，各线程中原有的缓存随之回收
+        threadActionCache = newThreadActionCache();
         actionCache.clear();
         pathActions.clear();
+        routeKeyActions = Collections.emptyMap();
         super.clear();
         Injector.clear();
     }
 
     /**
-     * 添加Action。
+     * 添加Action。可在运行时调用，与调用Action并发执行；添加后原有的{@link #actionCache}缓存失效。
+     * 所有Action一次性添加至路径树并仅发布一次新的快照，结果与逐个添加一致；
+     * 重复的路径及路由键于发布前校验，校验失败时不发布任何Action。
      * @param aps Action代理对象集合。
+     * @throws JRouterException 如果路径及路由键与已有或同批次的Action重复。
+     * @see PathTrie#putAll(List, List, java.util.function.BiConsumer)
      */
     public void addAction(PathActionProxy... aps) {
-        for (PathActionProxy ap : aps) {
-            String aPath = ap.getPath();
-
-            if (StringUtil.isBlank(aPath)) {
-                throw new IllegalArgumentException("Null path of Action : " + ap.getMethodInfo());
+        synchronized (pathActions) {
+            List<String> paths = new ArrayList<>(aps.length);
+            List<PathActionProxy> exists = new ArrayList<>(aps.length);
+            boolean empty = pathActions.isEmpty();
+            for (PathActionProxy ap : aps) {
+                if (StringUtil.isBlank(ap.getPath())) {
+                    throw new IllegalArgumentException("Null path of Action : " + ap.getMethodInfo());
+                }
+                String aPath = pathNormalizer.normalizeActionPath(ap.getPath());
+                paths.add(aPath);
+                // 可能存在模糊匹配 或者 完全相等的路径；堆外路径表查询后只读，添加时不查询
+                exists.add(empty || directRouting ? null : pathActions.get(aPath));
             }
-            // 可能存在模糊匹配 或者 完全相等的路径
-            PathActionProxy exist = pathActions.get(aPath);
+            // 发布前校验并合并路由键，校验失败时不发布新的快照
+            Map<String, PathActionProxy[]> keyed = new HashMap<>(routeKeyActions);
             // 模糊匹配添加新值，完全相等的路径则特换原路径的值
-            pathActions.put(aPath, ap);
-            // 添加或替换后查询新路径的值
-            PathActionProxy newAction = pathActions.get(aPath);
-
-            if (exist != null) {
-                // 新增与原有完全相等的路径
-                if (exist.getPath().equals(newAction.getPath())) {
-                    throw new JRouterException("Duplicate path Action [" + aPath + "] : " + ap.getMethodInfo()
-                            + " override " + exist.getMethodInfo());
-                } // 新增与原有相同的匹配路径，考虑匹配级别是否相同???
-                  // TODO
-                  // else if (0 == PathTree.compareMatchedPath(newAction.getPath(),
-                  // exist.getPath())) {
-                  // throw new JRouterException("Duplicate matched path Action [" +
-                  // aPath + "] : "
-                  // + ap.getMethodInfo() + " override "
-                  // + exist.getMethodInfo());
-                  // }
-                  // 原有路径模糊匹配，继续添加新路径；或反之
-                else if (LOG.isWarnEnabled()) {
-                    LOG.warn("Exist matched path [{}] : {}, add [{}] : {}", exist.getPath(), exist.getMethodInfo(),
-                            aPath, ap.getMethodInfo());
+            List<PathActionProxy> replaced = pathActions.putAll(paths, Arrays.asList(aps),
+                    (old, ap) -> checkAction(keyed, old, ap));
+            routeKeyActions = keyed;
+            for (int i = 0; i < aps.length; i++) {
+                addAction(aps[i], paths.get(i), exists.get(i), replaced.get(i));
+            }
+        }
+        actionCache.clear();
+    }
+
+    /**
+     * 校验添加至路径树的单个Action：与被替换的Action路径完全相等时，路由键不同则合并至路由键映射，否则为重复的Action。
+     * @param keyed 待发布的路由键映射。
+     * @param replaced 被替换的原路径的Action。
+     * @param ap 新增的Action。
+     * @throws JRouterException 如果路径及路由键均与被替换的Action重复。
+     */
+    private void checkAction(Map<String, PathActionProxy[]> keyed, PathActionProxy replaced, PathActionProxy ap) {
+        // 带约束的匹配路径可能不匹配其自身，以替换的值判断是否为完全相等的路径
+        if (replaced != null) {
+            String aPath = pathNormalizer.normalizeActionPath(ap.getPath());
+            if (pathNormalizer.normalizeActionPath(replaced.getPath()).equals(aPath)
+                    && !addRouteKeyAction(keyed, replaced, ap)) {
+                throw new JRouterException("Duplicate path Action [" + aPath + "] : " + ap.getMethodInfo()
+                        + " override " + replaced.getMethodInfo());
+            }
+        }
+    }
+
+    /**
+     * 记录已添加至路径树的单个Action的日志，由调用者持有{@link #pathActions}的锁。
+     * @param ap Action代理对象。
+     * @param aPath Action的路径。
+     * @param exist 添加前可能匹配的Action。
+     * @param replaced 被替换的原路径的Action。
+     */
+    private void addAction(PathActionProxy ap, String aPath, PathActionProxy exist, PathActionProxy replaced) {
+        if (replaced != null) {
+            // 新增与原有完全相等的路径，路由键不同则并存
+            if (pathNormalizer.normalizeActionPath(replaced.getPath()).equals(aPath)) {
+                if (LOG.isInfoEnabled()) {
+                    LOG.info("Add Action [{}] with route keys {} at : {}", aPath, Arrays.toString(ap.getRouteKeys()),
+                            ap.getMethodInfo());
+                }
+            }
+            else if (LOG.isWarnEnabled()) {
+                LOG.warn("Exist matched path [{}] : {}, add [{}] : {}", replaced.getPath(),
+                        replaced.getMethodInfo(), aPath, ap.getMethodInfo());
+            }
+        }
+        // 原有路径模糊匹配，继续添加新路径；或反之
+        else if (exist != null) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("Exist matched path [{}] : {}, add [{}] : {}", exist.getPath(), exist.getMethodInfo(),
+                        aPath, ap.getMethodInfo());
+            }
+        }
+        else if (LOG.isInfoEnabled()) {
+            LOG.info("Add Action [{}] at : {}", aPath, ap.getMethodInfo());
+        }
+    }
+
+    /**
+     * 添加与原有Action路径相同、路由键不同的Action至待发布的路由键映射。
+     * @param keyed 待发布的路由键映射。
+     * @param exist 原有路径相同的Action。
+     * @param ap 新增的Action。
+     * @return 路由键与已有的Action均不同则返回{@code true}。
+     */
+    private boolean addRouteKeyAction(Map<String, PathActionProxy[]> keyed, PathActionProxy exist,
+            PathActionProxy ap) {
+        String aPath = pathNormalizer.normalizeActionPath(ap.getPath());
+        PathActionProxy[] aps = keyed.get(aPath);
+        if (aps == null) {
+            aps = new PathActionProxy[] { exist };
+        }
+        int[] keys = ap.getRouteKeys();
+        for (PathActionProxy a : aps) {
+            if (Arrays.equals(a.getRouteKeys(), keys)) {
+                return false;
+            }
+        }
+        aps = Arrays.copyOf(aps, aps.length + 1);
+        aps[aps.length - 1] = ap;
+        // 稳定排序，确切值数目相同时按添加顺序
+        Arrays.sort(aps, (a1, a2) -> a2.getRouteKeySpecificity() - a1.getRouteKeySpecificity());
+        keyed.put(aPath, aps);
+        for (PathActionProxy a : aps) {
+            keyed.put(a.getPath(), aps);
+        }
+        return true;
+    }
+
+    /**
+     * 选取路由键匹配的Action。
+     * @param ap 路径匹配的Action。
+     * @param routeKeys 调用时的路由键，可为 null。
+     * @param path 调用的路径。
+     * @return 路由键匹配的Action。
+     * @throws NotFoundException 如果路径相同的Action均不满足路由键。
+     */
+    private PathActionProxy selectAction(PathActionProxy ap, int[] routeKeys, CharSequence path) {
+        Map<String, PathActionProxy[]> keyed = routeKeyActions;
+        if (!keyed.isEmpty()) {
+            PathActionProxy[] aps = keyed.get(ap.getPath());
+            if (aps != null) {
+                for (PathActionProxy a : aps) {
+                    if (a.matchRouteKeys(routeKeys)) {
+                        return a;
+                    }
                 }
+                throw newNotFoundException(
+                        "No such Action : " + path + " with route keys " + Arrays.toString(routeKeys));
             }
-            else if (LOG.isInfoEnabled()) {
-                LOG.info("Add Action [{}] at : {}", aPath, ap.getMethodInfo());
+        }
+        if (ap.matchRouteKeys(routeKeys)) {
+            return ap;
+        }
+        throw newNotFoundException("No such Action : " + path + " with route keys " + Arrays.toString(routeKeys));
+    }
+
+    /**
+     * 删除指定路径的Action，路径中的'*'与'{key}'等同；路径相同、路由键不同的Action一并删除。
+     * 可在运行时调用，与调用Action并发执行；删除后原有的{@link #actionCache}缓存失效。
+     * @param path Action的路径。
+     * @return 删除的Action代理对象，如果不存在则返回 null。
+     */
+    public PathActionProxy removeAction(String path) {
+        PathActionProxy ap;
+        synchronized (pathActions) {
+            path = pathNormalizer.normalizeActionPath(path);
+            ap = pathActions.remove(path);
+            if (ap != null && routeKeyActions.containsKey(path)) {
+                Map<String, PathActionProxy[]> map = new HashMap<>(routeKeyActions);
+                for (PathActionProxy a : map.remove(path)) {
+                    map.remove(a.getPath());
+                }
+                routeKeyActions = map;
             }
         }
+        if (ap != null) {
+            actionCache.clear();
+            LOG.info("Remove Action [{}] at : {}", path, ap.getMethodInfo());
+        }
+        return ap;
     }
 
     ////////////////////////////////////////////////////////////////////////////////////////////////////
@@ -433,6 +1140,9 @@ public class PathActionFactory extends AbstractActionFactory<String> {
         Object invoker = isCls ? null : obj;
         // declared methods
         Method[] ms = cls.getDeclaredMethods();
+        List<PathActionProxy> aps = new ArrayList<>(ms.length);
+        // 同一类中命名空间相同的Action共享同一命名空间字符串实例
+        SegmentDictionary namespaces = new SegmentDictionary();
         for (Method m : ms) {
             if (m.isAnnotationPresent(Ignore.class)) {
                 if (LOG.isInfoEnabled()) {
@@ -451,7 +1161,7 @@ public class PathActionFactory extends AbstractActionFactory<String> {
                 try {
                     // static method
                     if (Modifier.isStatic(mod)) {
-                        addAction(createActionProxy(m, null));
+                        Collections.addAll(aps, createActionProxy(m, null, namespaces));
                     }
                     else {
                         if (isCls && invoker == null) {
@@ -459,7 +1169,7 @@ public class PathActionFactory extends AbstractActionFactory<String> {
                             invokeAwareInterfaces(invoker);
                         }
                         // the same object
-                        addAction(createActionProxy(m, invoker));
+                        Collections.addAll(aps, createActionProxy(m, invoker, namespaces));
                     }
                 }
                 catch (IllegalAccessException | InvocationTargetException e) {
@@ -467,18 +1177,23 @@ public class PathActionFactory extends AbstractActionFactory<String> {
                 }
             }
         }
+        // 同一类的Action一次性添加
+        if (!aps.isEmpty()) {
+            addAction(aps.toArray(new PathActionProxy[0]));
+        }
     }
 
     /**
      * 创建Action代理对象。
      * @param method 指定的方法。
      * @param obj 方法所在的对象。
+     * @param namespaces 同一类中命名空间的字典。
      * @return Action代理对象。
      */
-    private PathActionProxy[] createActionProxy(final Method method, final Object obj)
-            throws IllegalAccessException, InvocationTargetException {
+    private PathActionProxy[] createActionProxy(final Method method, final Object obj,
+            SegmentDictionary namespaces) throws IllegalAccessException, InvocationTargetException {
         Namespace ns = getActionFilter().getNamespace(obj, method);
-        String namespace = buildNamespace(this.pathSeparator, ns);
+        String namespace = namespaces.intern(buildNamespace(this.pathSeparator, ns));
         // use ActionFilter first
         Action action = getActionFilter().getAction(obj, method);
         // 如果Action为null
@@ -667,6 +1382,22 @@ public class PathActionFactory extends AbstractActionFactory<String> {
         return pathActions;
     }
 
+    /**
+     * 返回所有Action路径与其代理对象集合的映射，包括路径相同、路由键不同的Action（按路由键的匹配顺序）；
+     * {@link #getActions()}中每个路径仅包含路径树中的一个代理对象。
+     * @return Action路径与其代理对象集合的只读映射。
+     */
+    public Map<String, List<PathActionProxy>> getAllActions() {
+        Map<String, PathActionProxy[]> keyed = routeKeyActions;
+        Map<String, List<PathActionProxy>> all = new LinkedHashMap<>();
+        for (Map.Entry<String, PathActionProxy> e : pathActions.entrySet()) {
+            PathActionProxy[] aps = keyed.isEmpty() ? null : keyed.get(e.getValue().getPath());
+            all.put(e.getKey(), aps == null ? Collections.singletonList(e.getValue())
+                    : Collections.unmodifiableList(Arrays.asList(aps)));
+        }
+        return Collections.unmodifiableMap(all);
+    }
+
     /**
      * 返回缓存的Action路径与其代理对象的映射。
      * @return 缓存的Action路径与其代理对象的映射。
@@ -675,6 +1406,33 @@ public class PathActionFactory extends AbstractActionFactory<String> {
         return (Map) actionCache.toMap();
     }
 
+    /**
+     * 返回各路径缓存的命中、未命中、淘汰、写入次数及当前缓存数目的统计快照。
+     * @return 路径缓存的统计快照。
+     * @see #getActionCache()
+     */
+    public ActionCacheStats getActionCacheStats() {
+        return actionCache.stats();
+    }
+
+    /**
+     * 返回路径预过滤器排除的路径数目。
+     * @return 路径预过滤器排除的路径数目。
+     * @see #isRouteFilter()
+     */
+    public long getRouteFilterRejects() {
+        return routeFilterRejects.sum();
+    }
+
+    /**
+     * 返回路径预过滤器判定可能匹配、但查询路径映射后未匹配的路径数目。
+     * @return 路径预过滤器误判的路径数目。
+     * @see #isRouteFilter()
+     */
+    public long getRouteFilterFalsePositives() {
+        return routeFilterFalsePositives.sum();
+    }
+
     /**
      * 提供特定字符串结果的处理；默认解析冒号':'结果。 默认提供"type:location"形式的字符串解析；以第一个':'划分。
      *
@@ -913,6 +1671,61 @@ public class PathActionFactory extends AbstractActionFactory<String> {
          */
         private int actionCacheNumber = 10_000;
 
+        /**
+         * @see PathActionFactory#actionCacheType
+         */
+        private String actionCacheType = "lru";
+
+        /**
+         * @see PathActionFactory#actionCacheAdmission
+         */
+        private boolean actionCacheAdmission = false;
+
+        /**
+         * @see PathActionFactory#notFoundCacheNumber
+         */
+        private int notFoundCacheNumber = 0;
+
+        /**
+         * @see PathActionFactory#stacklessNotFound
+         */
+        private boolean stacklessNotFound = false;
+
+        /**
+         * @see PathActionFactory#threadActionCacheSize
+         */
+        private int threadActionCacheSize = 0;
+
+        /**
+         * @see PathActionFactory#compiledRouting
+         */
+        private boolean compiledRouting = false;
+
+        /**
+         * @see PathActionFactory#directRouting
+         */
+        private boolean directRouting = false;
+
+        /**
+         * @see PathActionFactory#routeFilter
+         */
+        private boolean routeFilter = false;
+
+        /**
+         * @see PathActionFactory#collapseSeparators
+         */
+        private boolean collapseSeparators = false;
+
+        /**
+         * @see PathActionFactory#trimTrailingSeparator
+         */
+        private boolean trimTrailingSeparator = false;
+
+        /**
+         * @see PathActionFactory#caseInsensitive
+         */
+        private boolean caseInsensitive = false;
+
         /**
          * @see PathActionFactory#defaultInterceptorStack
          */
@@ -977,6 +1790,50 @@ public class PathActionFactory extends AbstractActionFactory<String> {
                     this.actionCacheNumber = Integer.parseInt(strValue);
                     LOG.info("Set actionCacheNumber : {}", this.actionCacheNumber);
                 }
+                else if ("actionCacheType".equalsIgnoreCase(name)) {
+                    this.actionCacheType = strValue;
+                    LOG.info("Set actionCacheType : {}", this.actionCacheType);
+                }
+                else if ("actionCacheAdmission".equalsIgnoreCase(name)) {
+                    this.actionCacheAdmission = Boolean.parseBoolean(strValue);
+                    LOG.info("Set actionCacheAdmission : {}", this.actionCacheAdmission);
+                }
+                else if ("notFoundCacheNumber".equalsIgnoreCase(name)) {
+                    this.notFoundCacheNumber = Integer.parseInt(strValue);
+                    LOG.info("Set notFoundCacheNumber : {}", this.notFoundCacheNumber);
+                }
+                else if ("stacklessNotFound".equalsIgnoreCase(name)) {
+                    this.stacklessNotFound = Boolean.parseBoolean(strValue);
+                    LOG.info("Set stacklessNotFound : {}", this.stacklessNotFound);
+                }
+                else if ("threadActionCacheSize".equalsIgnoreCase(name)) {
+                    this.threadActionCacheSize = Integer.parseInt(strValue);
+                    LOG.info("Set threadActionCacheSize : {}", this.threadActionCacheSize);
+                }
+                else if ("compiledRouting".equalsIgnoreCase(name)) {
+                    this.compiledRouting = Boolean.parseBoolean(strValue);
+                    LOG.info("Set compiledRouting : {}", this.compiledRouting);
+                }
+                else if ("directRouting".equalsIgnoreCase(name)) {
+                    this.directRouting = Boolean.parseBoolean(strValue);
+                    LOG.info("Set directRouting : {}", this.directRouting);
+                }
+                else if ("routeFilter".equalsIgnoreCase(name)) {
+                    this.routeFilter = Boolean.parseBoolean(strValue);
+                    LOG.info("Set routeFilter : {}", this.routeFilter);
+                }
+                else if ("collapseSeparators".equalsIgnoreCase(name)) {
+                    this.collapseSeparators = Boolean.parseBoolean(strValue);
+                    LOG.info("Set collapseSeparators : {}", this.collapseSeparators);
+                }
+                else if ("trimTrailingSeparator".equalsIgnoreCase(name)) {
+                    this.trimTrailingSeparator = Boolean.parseBoolean(strValue);
+                    LOG.info("Set trimTrailingSeparator : {}", this.trimTrailingSeparator);
+                }
+                else if ("caseInsensitive".equalsIgnoreCase(name)) {
+                    this.caseInsensitive = Boolean.parseBoolean(strValue);
+                    LOG.info("Set caseInsensitive : {}", this.caseInsensitive);
+                }
             }
             return this;
         }
@@ -1110,63 +1967,89 @@ public class PathActionFactory extends AbstractActionFactory<String> {
         /**
          * 固定路径Action路径与缓存对象的映射。
          */
-        private final Map<String, ActionCacheEntry> fullPathActionCache;
+        private final CacheTier<ActionCacheEntry> fullPathActionCache;
 
         /**
          * 参数匹配Action路径与缓存对象的映射。
          */
-        private final Map<String, ActionCacheEntry> matchedPathActionCache;
+        private final CacheTier<ActionCacheEntry> matchedPathActionCache;
+
+        /**
+         * 未匹配任何Action的路径与缓存对象的映射。
+         */
+        private final CacheTier<NotFoundEntry> notFoundPathCache;
 
         /**
          * 构造缓存。
          * @param fullPathActionCache 固定路径Action路径与缓存对象的映射。
          * @param matchedPathActionCache 参数匹配Action路径与缓存对象的映射。
+         * @param notFoundPathCache 未匹配任何Action的路径与缓存对象的映射。
          */
-        ActionCache(Map<String, ActionCacheEntry> fullPathActionCache,
-                Map<String, ActionCacheEntry> matchedPathActionCache) {
+        ActionCache(CacheTier<ActionCacheEntry> fullPathActionCache,
+                CacheTier<ActionCacheEntry> matchedPathActionCache, CacheTier<NotFoundEntry> notFoundPathCache) {
             this.fullPathActionCache = fullPathActionCache;
             this.matchedPathActionCache = matchedPathActionCache;
+            this.notFoundPathCache = notFoundPathCache;
         }
 
         /**
          * 获取Action代理对象。
          * @param path Action路径。
-         * @return Action缓存对象。
+         * @param version 当前路径映射快照的版本号。
+         * @return Action缓存对象，如果没有或已失效则返回 null。
          */
-        ActionCacheEntry get(String path) {
-            ActionCacheEntry cache = fullPathActionCache.get(path);
+        ActionCacheEntry get(String path, long version) {
+            ActionCacheEntry cache = fullPathActionCache.get(path, version);
             if (cache != null) {
                 return cache;
             }
-            return matchedPathActionCache.get(path);
+            return matchedPathActionCache.get(path, version);
         }
 
         /**
          * 添加固定路径Action缓存。
          * @param path Action路径。
          * @param cache Action缓存对象。
-         * @return 以前与Action路径关联的缓存对象，如果没有Action路径的映射关系，则返回 null。
          */
-        ActionCacheEntry putFullPathAction(String path, ActionCacheEntry cache) {
-            return fullPathActionCache.put(path, cache);
+        void putFullPathAction(String path, ActionCacheEntry cache) {
+            fullPathActionCache.put(path, cache);
         }
 
         /**
          * 添加参数匹配Action缓存。
          * @param path Action路径。
          * @param cache Action缓存对象。
-         * @return 以前与Action路径关联的缓存对象，如果没有Action路径的映射关系，则返回 null。
          */
-        ActionCacheEntry putMatchedPathAction(String path, ActionCacheEntry cache) {
-            return matchedPathActionCache.put(path, cache);
+        void putMatchedPathAction(String path, ActionCacheEntry cache) {
+            matchedPathActionCache.put(path, cache);
+        }
+
+        /**
+         * 获取未匹配任何Action的路径的缓存对象。
+         * @param path 路径。
+         * @param version 当前路径映射快照的版本号。
+         * @return 未匹配路径的缓存对象，如果没有或已失效则返回 null。
+         */
+        NotFoundEntry getNotFound(String path, long version) {
+            return notFoundPathCache.get(path, version);
+        }
+
+        /**
+         * 添加未匹配任何Action的路径的缓存。
+         * @param path 路径。
+         * @param cache 未匹配路径的缓存对象。
+         */
+        void putNotFound(String path, NotFoundEntry cache) {
+            notFoundPathCache.put(path, cache);
         }
 
         /**
          * 清空缓存。
          */
         void clear() {
-            fullPathActionCache.clear();
-            matchedPathActionCache.clear();
+            fullPathActionCache.map.clear();
+            matchedPathActionCache.map.clear();
+            notFoundPathCache.map.clear();
         }
 
         /**
@@ -1174,17 +2057,154 @@ public class PathActionFactory extends AbstractActionFactory<String> {
          * @return 缓存的Map视图。
          */
         Map<String, ActionCacheEntry> toMap() {
-            Map<String, ActionCacheEntry> cache = new LinkedHashMap<>(matchedPathActionCache);
-            cache.putAll(fullPathActionCache);
+            Map<String, ActionCacheEntry> cache = new LinkedHashMap<>(matchedPathActionCache.map);
+            cache.putAll(fullPathActionCache.map);
             return cache;
         }
 
+        /**
+         * 返回缓存的统计快照。
+         * @return 缓存的统计快照。
+         */
+        ActionCacheStats stats() {
+            return new ActionCacheStats(fullPathActionCache.stats(), matchedPathActionCache.stats(),
+                    notFoundPathCache.stats());
+        }
+
+    }
+
+    /**
+     * 调用线程独享的直接映射路径缓存，路径的散列值决定其唯一的槽，冲突时覆盖；仅由所属线程访问，无需同步。
+     * 路径映射快照的版本号或缓存的清除次数变更时整体失效。
+     */
+    private static final class ThreadActionCache {
+
+        private final String[] paths;
+
+        private final ActionCacheEntry[] entries;
+
+        private final int mask;
+
+        /**
+         * 缓存对象所属路径映射快照的版本号
+         */
+        private long version = -1;
+
+        /**
+         * 缓存对象所属的缓存清除次数
+         */
+        private int epoch = 0;
+
+        ThreadActionCache(int size) {
+            int n = size >= 1 << 30 ? 1 << 30 : Integer.highestOneBit(Math.max(size, 2) - 1) << 1;
+            this.paths = new String[n];
+            this.entries = new ActionCacheEntry[n];
+            this.mask = n - 1;
+        }
+
+        /**
+         * 获取路径的缓存对象，版本号或清除次数不一致时清空缓存。
+         */
+        ActionCacheEntry get(String path, long version, int epoch) {
+            if (this.version != version || this.epoch != epoch) {
+                Arrays.fill(paths, null);
+                Arrays.fill(entries, null);
+                this.version = version;
+                this.epoch = epoch;
+                return null;
+            }
+            int i = path.hashCode() & mask;
+            String p = paths[i];
+            return p == path || path.equals(p) ? entries[i] : null;
+        }
+
+        /**
+         * 添加当前版本号的缓存对象。
+         */
+        void put(String path, ActionCacheEntry ace) {
+            if (ace.version == version) {
+                int i = path.hashCode() & mask;
+                paths[i] = path;
+                entries[i] = ace;
+            }
+        }
+
+    }
+
+    /**
+     * 带统计计数的单个缓存，计数以{@link LongAdder}累加，可在高并发下常开。
+     * @param <V> 缓存对象的类型。
+     */
+    private static class CacheTier<V extends CacheEntry> {
+
+        /**
+         * 路径与缓存对象的映射
+         */
+        private final Map<String, V> map;
+
+        /**
+         * 映射中淘汰的条目数目
+         */
+        private final LongSupplier evictions;
+
+        private final LongAdder hits = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+
+        private final LongAdder inserts = new LongAdder();
+
+        /**
+         * 构造带统计计数的缓存。
+         * @param map 路径与缓存对象的映射。
+         * @param evictions 映射中淘汰的条目数目。
+         */
+        CacheTier(Map<String, V> map, LongSupplier evictions) {
+            this.map = map;
+            this.evictions = evictions;
+        }
+
+        /**
+         * 获取当前快照版本的缓存对象并计数。
+         */
+        V get(String path, long version) {
+            V cache = map.get(path);
+            // ignore the entries of the old snapshot
+            if (cache != null && cache.version == version) {
+                hits.increment();
+                return cache;
+            }
+            misses.increment();
+            return null;
+        }
+
+        void put(String path, V cache) {
+            map.put(path, cache);
+            inserts.increment();
+        }
+
+        ActionCacheStats.Tier stats() {
+            return new ActionCacheStats.Tier(hits.sum(), misses.sum(), evictions.getAsLong(), inserts.sum(),
+                    map.size());
+        }
+
+    }
+
+    /**
+     * 记录路径映射快照版本号的缓存对象。
+     */
+    private abstract static class CacheEntry {
+
+        /**
+         * 创建缓存时路径映射快照的版本号
+         */
+        long version;
+
     }
 
     /**
      * 缓存对象。
      */
-    private static class ActionCacheEntry {
+    private static class ActionCacheEntry extends CacheEntry {
 
         /**
          * Action的代理对象。
@@ -1206,10 +2226,29 @@ public class PathActionFactory extends AbstractActionFactory<String> {
          * 构造一个指定Action的代理对象和Action路径的参数匹配映射的缓存对象。
          * @param actionProxy Action的代理对象。
          * @param matchParameters Action路径的参数匹配映射。
+         * @param version 路径映射快照的版本号。
          */
-        ActionCacheEntry(PathActionProxy actionProxy, Map<String, String> matchParameters) {
+        ActionCacheEntry(PathActionProxy actionProxy, Map<String, String> matchParameters, long version) {
             this.actionProxy = actionProxy;
             this.matchParameters = matchParameters;
+            this.version = version;
+        }
+
+    }
+
+    /**
+     * 未匹配任何Action的路径的缓存对象。
+     */
+    private static class NotFoundEntry extends CacheEntry {
+
+        /**
+         * 路径未匹配时异常的详细消息。
+         */
+        final String message;
+
+        NotFoundEntry(String message, long version) {
+            this.message = message;
+            this.version = version;
         }
 
     }
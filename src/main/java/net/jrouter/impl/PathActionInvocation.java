@@ -62,10 +62,9 @@ public class PathActionInvocation implements ActionInvocation<String> {
     private final List<InterceptorProxy> interceptors;
 
     /**
-     * Aciton调用的真实路径
+     * Aciton调用的真实路径，非字符串的字符序列于首次获取时转换为字符串
      */
-    @lombok.Getter
-    private final String actionPath;
+    private CharSequence actionPath;
 
     /**
      * 方法原始调用的参数
@@ -129,12 +128,37 @@ public class PathActionInvocation implements ActionInvocation<String> {
      */
     public PathActionInvocation(String realPath, ActionFactory<String> actionFactory, PathActionProxy actionProxy,
             Object... originalParams) {
+        this((CharSequence) realPath, actionFactory, actionProxy, originalParams);
+    }
+
+    /**
+     * 构造一个Action运行时上下文的代理类，Action调用的真实路径为字符序列，于首次获取时才创建字符串。
+     * @param realPath Actino不含绑定参数的真实路径。
+     * @param actionFactory Action工厂对象。
+     * @param actionProxy Action代理对象。
+     * @param originalParams Action代理对象中方法调用的原始参数。
+     */
+    PathActionInvocation(CharSequence realPath, ActionFactory<String> actionFactory, PathActionProxy actionProxy,
+            Object... originalParams) {
+        this(realPath, actionFactory, actionProxy, actionProxy.getInterceptorProxies(), originalParams);
+    }
+
+    /**
+     * 构造一个Action运行时上下文的代理类，使用指定的拦截器集合（如{@link ActionHandle}中的拦截器快照）。
+     * @param realPath Actino不含绑定参数的真实路径。
+     * @param actionFactory Action工厂对象。
+     * @param actionProxy Action代理对象。
+     * @param interceptors 调用的拦截器集合。
+     * @param originalParams Action代理对象中方法调用的原始参数。
+     */
+    PathActionInvocation(CharSequence realPath, ActionFactory<String> actionFactory, PathActionProxy actionProxy,
+            List<InterceptorProxy> interceptors, Object... originalParams) {
         this.actionPath = realPath;
         this.actionFactory = actionFactory;
         this.actionProxy = actionProxy;
         this.originalParameters = originalParams;
         this.convertParameters = new Object[] { this };
-        this.interceptors = actionProxy.getInterceptorProxies();
+        this.interceptors = interceptors;
     }
 
     @Override
@@ -184,6 +208,15 @@ public class PathActionInvocation implements ActionInvocation<String> {
         return originalParameters;
     }
 
+    @Override
+    public String getActionPath() {
+        CharSequence path = actionPath;
+        if (!(path instanceof String)) {
+            actionPath = path = path.toString();
+        }
+        return (String) path;
+    }
+
     /**
      * 结果对象的实现。
      */
@@ -63,6 +63,11 @@ public final class PathActionProxy extends DefaultProxy implements ActionProxy<S
     @lombok.Getter
     private final Action action;
 
+    /**
+     * Action的路由键
+     */
+    private final int[] routeKeys;
+
     /**
      * Action初始化参数的键/值映射。
      */
@@ -99,6 +104,45 @@ public final class PathActionProxy extends DefaultProxy implements ActionProxy<S
         this.namespace = namespace;
         this.path = path;
         this.action = action;
+        this.routeKeys = action == null ? new int[0] : action.routeKeys().clone();
+    }
+
+    /**
+     * 判断调用时的路由键是否满足Action的路由键。
+     * @param keys 调用时的路由键，可为 null。
+     * @return 满足Action的路由键返回{@code true}。
+     * @see Action#routeKeys()
+     */
+    boolean matchRouteKeys(int[] keys) {
+        for (int i = 0; i < routeKeys.length; i++) {
+            int k = routeKeys[i];
+            if (k != Action.ANY_ROUTE_KEY && (keys == null || i >= keys.length || keys[i] != k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 返回Action的路由键中非{@link Action#ANY_ROUTE_KEY}的数目，数目多者优先匹配。
+     * @return Action路由键的确切值数目。
+     */
+    int getRouteKeySpecificity() {
+        int n = 0;
+        for (int k : routeKeys) {
+            if (k != Action.ANY_ROUTE_KEY) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * 返回Action的路由键。
+     * @return Action的路由键。
+     */
+    public int[] getRouteKeys() {
+        return routeKeys.clone();
     }
 
     /**
@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import net.jrouter.util.StringUtil;
+
+/**
+ * 调用路径的规范化处理，依据配置预先确定处理步骤：截断后缀、合并连续的路径分隔符及去除结尾的路径分隔符。
+ * 单次扫描路径，无需改写时不复制路径，否则至多创建一个新的字符串；规范化后的路径同时用于缓存及路径映射的查询。
+ *
+ * <p>
+ * 忽略大小写时Action路径在添加时将'{...}'形式以外的路径片段转换为小写，调用路径保留原有的大小写（后缀不区分大小写），
+ * 仅在查询路径映射时以{@link #fold(CharSequence)}转换为小写的视图比较确切路径片段；
+ * 匹配路径片段的约束及路径参数值取自原调用路径。
+ * </p>
+ */
+final class PathNormalizer {
+
+    /**
+     * 路径分隔符
+     */
+    private final char pathSeparator;
+
+    /**
+     * 路径后缀，为空则不截断
+     */
+    private final String extension;
+
+    /**
+     * 后缀是否为单个非字母或数字的标记字符
+     */
+    private final boolean extensionMark;
+
+    /**
+     * 是否合并连续的路径分隔符
+     */
+    private final boolean collapseSeparators;
+
+    /**
+     * 是否去除结尾的路径分隔符
+     */
+    private final boolean trimTrailingSeparator;
+
+    /**
+     * 是否忽略大小写
+     */
+    private final boolean caseInsensitive;
+
+    /**
+     * 是否需要改写截断后缀后的路径（合并或去除路径分隔符）
+     */
+    private final boolean rewriting;
+
+    PathNormalizer(char pathSeparator, String extension, boolean collapseSeparators, boolean trimTrailingSeparator,
+            boolean caseInsensitive) {
+        this.pathSeparator = pathSeparator;
+        this.extension = StringUtil.isEmpty(extension) ? null : extension;
+        this.extensionMark = this.extension != null && extension.length() == 1
+                && !Character.isLetterOrDigit(extension.charAt(0));
+        this.collapseSeparators = collapseSeparators;
+        this.trimTrailingSeparator = trimTrailingSeparator;
+        this.caseInsensitive = caseInsensitive;
+        this.rewriting = collapseSeparators || trimTrailingSeparator;
+    }
+
+    /**
+     * 是否需要改写截断后缀后的路径（合并或去除路径分隔符）。
+     * @return 需要改写路径返回{@code true}。
+     */
+    boolean isRewriting() {
+        return rewriting;
+    }
+
+    /**
+     * 返回截断后缀后路径的结束位置，无后缀则返回路径的长度。
+     * 当后缀为单个字符时，按路径最后出现分割符的位置截断路径后缀；当后缀为非空字符串时，如果路径以后缀结尾，截断后缀。
+     * 忽略大小写时后缀字符串不区分大小写。
+     * @param path 调用路径。
+     * @return 截断后缀后路径的结束位置。
+     */
+    int indexOfExtension(CharSequence path) {
+        int end = path.length();
+        if (extension != null) {
+            int len = extension.length();
+            // extension为特定的标记字符，则截去标记字符后的部分
+            if (extensionMark) {
+                char ch = extension.charAt(0);
+                for (int i = end - 1; i >= 0; i--) {
+                    if (path.charAt(i) == ch) {
+                        return i;
+                    }
+                }
+            }
+            else // extension为特定的后缀字符串
+            if (end > len && endsWith(path, end, extension, caseInsensitive)) {
+                // 如果extension前一位非字母或数字
+                if (!Character.isLetterOrDigit(path.charAt(end - len - 1))) {
+                    len++;
+                }
+                return end - len;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * 判断字符序列区间[0, end)是否以指定的后缀结尾。
+     */
+    private static boolean endsWith(CharSequence path, int end, String suffix, boolean ignoreCase) {
+        int offset = end - suffix.length();
+        for (int i = suffix.length() - 1; i >= 0; i--) {
+            char c = path.charAt(offset + i);
+            char s = suffix.charAt(i);
+            if (c != s && !(ignoreCase && Character.toLowerCase(c) == Character.toLowerCase(s))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 规范化调用路径，无需改写时返回原路径或其截断后缀的子串。
+     * @param path 调用路径。
+     * @return 规范化后的路径。
+     */
+    String normalize(String path) {
+        int end = indexOfExtension(path);
+        if (rewriting) {
+            if (trimTrailingSeparator) {
+                // 保留根路径
+                while (end > 1 && path.charAt(end - 1) == pathSeparator) {
+                    end--;
+                }
+            }
+            // 首个需改写的位置
+            int i = 0;
+            for (; i < end; i++) {
+                if (collapseSeparators && path.charAt(i) == pathSeparator && i + 1 < end
+                        && path.charAt(i + 1) == pathSeparator) {
+                    break;
+                }
+            }
+            if (i < end) {
+                char[] chars = new char[end];
+                path.getChars(0, i, chars, 0);
+                int n = i;
+                for (; i < end; i++) {
+                    char c = path.charAt(i);
+                    if (collapseSeparators && c == pathSeparator && n > 0 && chars[n - 1] == pathSeparator) {
+                        continue;
+                    }
+                    chars[n++] = c;
+                }
+                return new String(chars, 0, n);
+            }
+        }
+        return end == path.length() ? path : path.substring(0, end);
+    }
+
+    /**
+     * 返回用于查询路径映射的路径：忽略大小写且路径含大写字符时返回按字符转换为小写的视图（不复制路径），否则返回原路径。
+     * @param path 规范化后的调用路径。
+     * @return 用于查询路径映射的路径。
+     * @see #original(CharSequence)
+     */
+    CharSequence fold(CharSequence path) {
+        if (caseInsensitive) {
+            for (int i = 0, len = path.length(); i < len; i++) {
+                char c = path.charAt(i);
+                if (Character.toLowerCase(c) != c) {
+                    return new FoldedPath(path);
+                }
+            }
+        }
+        return path;
+    }
+
+    /**
+     * 返回{@link #fold(CharSequence)}转换前的原路径，匹配路径片段的约束时使用。
+     * @param path 查询路径映射的路径。
+     * @return 原路径。
+     */
+    static CharSequence original(CharSequence path) {
+        return path instanceof FoldedPath ? ((FoldedPath) path).path : path;
+    }
+
+    /**
+     * 规范化添加的Action路径：忽略大小写时将'{...}'形式以外的路径片段转换为小写，与调用路径的规范化方式一致。
+     * @param actionPath Action路径。
+     * @return 规范化后的Action路径。
+     */
+    String normalizeActionPath(String actionPath) {
+        if (!caseInsensitive) {
+            return actionPath;
+        }
+        StringBuilder sb = new StringBuilder(actionPath.length());
+        int begin = 0;
+        int len = actionPath.length();
+        while (begin < len) {
+            int end = actionPath.indexOf(pathSeparator, begin);
+            if (end == -1) {
+                end = len;
+            }
+            String segment = actionPath.substring(begin, end);
+            if (!PathTree.isMatchKay(segment)) {
+                segment = toLowerCase(segment);
+            }
+            sb.append(segment);
+            if (end < len) {
+                sb.append(pathSeparator);
+            }
+            begin = end + 1;
+        }
+        return sb.toString();
+    }
+
+    private static String toLowerCase(String str) {
+        char[] chars = str.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 按字符转换为小写的路径视图。
+     */
+    private static final class FoldedPath implements CharSequence {
+
+        /**
+         * 原路径
+         */
+        private final CharSequence path;
+
+        FoldedPath(CharSequence path) {
+            this.path = path;
+        }
+
+        @Override
+        public int length() {
+            return path.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return Character.toLowerCase(path.charAt(index));
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new FoldedPath(path.subSequence(start, end));
+        }
+
+        @Override
+        public String toString() {
+            return toLowerCase(path.toString());
+        }
+
+    }
+
+}
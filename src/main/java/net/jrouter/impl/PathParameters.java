@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import net.jrouter.impl.PathTree.IndexKey;
+
+import java.util.*;
+
+/**
+ * 延迟创建的Action路径的参数匹配映射（不可修改）。引用原路径及匹配节点的索引/键名数组，首次读取时才创建参数值的字符串。
+ *
+ * <p>
+ * 原路径为可变的字符序列（如{@code ByteBuffer}视图）时，其参数值仅在Action调用期间读取有效。
+ * </p>
+ */
+final class PathParameters extends AbstractMap<String, String> {
+
+    /**
+     * 原路径
+     */
+    private final CharSequence path;
+
+    /**
+     * 路径的结束位置（不含后缀）
+     */
+    private final int end;
+
+    /**
+     * 路径分隔符
+     */
+    private final char pathSeparator;
+
+    /**
+     * 匹配节点的索引/键名数组
+     */
+    private final IndexKey[] indexKeys;
+
+    /**
+     * 匹配片段在原路径中的起止位置，依次为各索引/键名的[begin, end)
+     */
+    private volatile int[] offsets;
+
+    /**
+     * 已创建的参数映射
+     */
+    private volatile Map<String, String> parameters;
+
+    /**
+     * 构造一个指定路径及匹配索引/键名数组的参数映射。
+     * @param path 原路径。
+     * @param end 路径的结束位置。
+     * @param pathSeparator 路径分隔符。
+     * @param indexKeys 匹配节点的索引/键名数组，非空且索引升序。
+     */
+    PathParameters(CharSequence path, int end, char pathSeparator, IndexKey[] indexKeys) {
+        this.path = path;
+        this.end = end;
+        this.pathSeparator = pathSeparator;
+        this.indexKeys = indexKeys;
+    }
+
+    /**
+     * 按索引将路径片段填充进键值映射。
+     * @param indexKeys 匹配节点的索引/键名数组，索引升序。
+     * @param path 原路径。
+     * @param end 路径的结束位置。
+     * @param sep 路径分隔符。
+     * @param matchParameters 路径中匹配的键值映射。
+     */
+    static void fill(IndexKey[] indexKeys, CharSequence path, int end, char sep, Map<String, String> matchParameters) {
+        int[] offsets = offsets(indexKeys, path, end, sep);
+        for (int i = 0; i < indexKeys.length; i++) {
+            matchParameters.put(indexKeys[i].matchKey, segment(path, offsets, i));
+        }
+    }
+
+    /**
+     * 单次扫描路径，计算各索引对应的路径片段在原路径中的起止位置。
+     */
+    private static int[] offsets(IndexKey[] indexKeys, CharSequence path, int end, char sep) {
+        int[] offsets = new int[indexKeys.length << 1];
+        int pos = skipSeparators(path, 0, end, sep);
+        int index = 0;
+        for (int i = 0; i < indexKeys.length; i++) {
+            while (index < indexKeys[i].index) {
+                pos = skipSeparators(path, indexOfSeparator(path, pos, end, sep), end, sep);
+                index++;
+            }
+            offsets[i << 1] = pos;
+            if (indexKeys[i].tail) {
+                // 剩余路径，去除结尾的分隔符
+                int e = end;
+                while (e > pos && path.charAt(e - 1) == sep) {
+                    e--;
+                }
+                offsets[(i << 1) + 1] = e;
+            }
+            else {
+                offsets[(i << 1) + 1] = indexOfSeparator(path, pos, end, sep);
+            }
+        }
+        return offsets;
+    }
+
+    private static String segment(CharSequence path, int[] offsets, int i) {
+        return path.subSequence(offsets[i << 1], offsets[(i << 1) + 1]).toString();
+    }
+
+    private static int skipSeparators(CharSequence path, int pos, int end, char sep) {
+        while (pos < end && path.charAt(pos) == sep) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int indexOfSeparator(CharSequence path, int pos, int end, char sep) {
+        while (pos < end && path.charAt(pos) != sep) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private int[] offsets() {
+        int[] arr = offsets;
+        if (arr == null) {
+            offsets = arr = offsets(indexKeys, path, end, pathSeparator);
+        }
+        return arr;
+    }
+
+    private Map<String, String> materialize() {
+        Map<String, String> map = parameters;
+        if (map == null) {
+            int[] arr = offsets();
+            map = new HashMap<>(indexKeys.length * 2);
+            for (int i = 0; i < indexKeys.length; i++) {
+                map.put(indexKeys[i].matchKey, segment(path, arr, i));
+            }
+            parameters = map = Collections.unmodifiableMap(map);
+        }
+        return map;
+    }
+
+    @Override
+    public String get(Object key) {
+        Map<String, String> map = parameters;
+        if (map != null) {
+            return map.get(key);
+        }
+        // 重名的键以最后的路径片段为准
+        for (int i = indexKeys.length - 1; i >= 0; i--) {
+            if (indexKeys[i].matchKey.equals(key)) {
+                return segment(path, offsets(), i);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        for (IndexKey ik : indexKeys) {
+            if (ik.matchKey.equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return indexKeys.length == 0;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return materialize().entrySet();
+    }
+
+}
@@ -23,8 +23,14 @@ import java.io.Serializable;
 import java.util.*;
 
 /**
- * 适配{@code Map}接口的树结构路径。包含了一个树结构路径和一个含相关联值的最终路径的{@code Set}集合。
+ * 适配{@code Map}接口的树结构路径。包含了一个以不可变快照发布的压缩基数树结构路径，
+ * 映射的视图由当前快照中含相关联值的最终路径生成。
  *
+ * <p>
+ * 查询不加锁且可与添加、删除操作并发；视图及查询结果均基于调用时的快照。
+ * </p>
+ *
+ * @see PathTrie
  * @param <V> 与路径相关联值的类型。
  */
 class PathTreeMap<V> extends AbstractMap<String, V> implements Serializable {
@@ -34,7 +40,7 @@ class PathTreeMap<V> extends AbstractMap<String, V> implements Serializable {
     /**
      * 树结构路径
      */
-    private final PathTree<V> tree;
+    private final PathTrie<V> tree;
 
     /**
      * entrySet views for adapting for the Map interface
@@ -46,56 +52,159 @@ class PathTreeMap<V> extends AbstractMap<String, V> implements Serializable {
      * @param separator 指定的路径分割符。
      */
     public PathTreeMap(char separator) {
-        super();
-        tree = new PathTree<>(separator);
-        entrySet = new HashSet<>();
+        this(separator, false);
     }
 
     /**
-     * 添加指定的全路径与其相关联的值至视图。
-     * @param fullPath 指定的全路径。
-     * @param value 与路径相关联的值。
+     * 构造一个指定路径分割符及是否以确定性自动机查询路径的映射路径和关联值的映射。
+     * @param separator 指定的路径分割符。
+     * @param compiled 是否以确定性自动机查询路径。
+     * @see RouteAutomaton
+     */
+    public PathTreeMap(char separator, boolean compiled) {
+        this(separator, compiled, false);
+    }
+
+    /**
+     * 构造一个指定路径分割符、是否以确定性自动机查询路径及是否转存至堆外路径表的映射路径和关联值的映射。
+     * @param separator 指定的路径分割符。
+     * @param compiled 是否以确定性自动机查询路径。
+     * @param direct 是否将路径树快照转存至堆外的路径表查询，转存至堆外时不使用确定性自动机。
+     * @see DirectPathTable
+     */
+    public PathTreeMap(char separator, boolean compiled, boolean direct) {
+        this(separator, compiled, direct, false);
+    }
+
+    /**
+     * 构造一个指定路径分割符、是否以确定性自动机查询路径、是否转存至堆外路径表及是否创建路径预过滤器的映射路径和关联值的映射。
+     * @param separator 指定的路径分割符。
+     * @param compiled 是否以确定性自动机查询路径。
+     * @param direct 是否将路径树快照转存至堆外的路径表查询，转存至堆外时不使用确定性自动机。
+     * @param filtered 是否于发布快照前创建路径的预过滤器。
+     * @see RouteFilter
      */
-    private void addEntrySet(String fullPath, V value) {
-        entrySet.add(new SimpleImmutableEntry<>(fullPath, value));
+    public PathTreeMap(char separator, boolean compiled, boolean direct, boolean filtered) {
+        super();
+        tree = new PathTrie<>(separator, compiled, direct, filtered);
     }
 
+    /**
+     * 删除与指定路径相关联的值；路径中的'*'与'{key}'等同。
+     * @param key 指定的全路径。
+     * @return 以前与路径相关联的值，如果没有则返回 null。
+     */
     @Override
     public V remove(Object key) {
-        throw new UnsupportedOperationException();
+        return tree.remove(key.toString());
     }
 
     @Override
     public V put(String fullPath, V value) {
-        V res = tree.put(fullPath, value);
-        // if add new to addEntrySet
-        if (res == null) {
-            addEntrySet(fullPath, value);
+        return tree.put(fullPath, value);
+    }
+
+    /**
+     * 批量添加映射中的路径与其相关联的值，仅发布一次新的快照。
+     * @param m 路径与其相关联的值的映射。
+     * @see PathTrie#putAll(List, List)
+     */
+    @Override
+    public void putAll(Map<? extends String, ? extends V> m) {
+        List<String> paths = new ArrayList<>(m.size());
+        List<V> values = new ArrayList<>(m.size());
+        for (Map.Entry<? extends String, ? extends V> e : m.entrySet()) {
+            paths.add(e.getKey());
+            values.add(e.getValue());
         }
-        return res;
+        tree.putAll(paths, values);
     }
 
     /**
-     * @see PathTree#get(String, Map)
+     * @see PathTrie#putAll(List, List)
      */
-    public V get(String fullPath, Map<String, String> matchParameters) {
+    List<V> putAll(List<String> fullPaths, List<V> values) {
+        return tree.putAll(fullPaths, values);
+    }
+
+    /**
+     * @see PathTrie#putAll(List, List, java.util.function.BiConsumer)
+     */
+    List<V> putAll(List<String> fullPaths, List<V> values, java.util.function.BiConsumer<V, V> check) {
+        return tree.putAll(fullPaths, values, check);
+    }
+
+    /**
+     * 返回当前路径树的快照，同一快照上的多次查询结果一致。
+     * @return 当前路径树的快照。
+     */
+    PathTrie.Snapshot<V> snapshot() {
+        return tree.snapshot();
+    }
+
+    /**
+     * 获取与指定路径完全相等的确切路径（不含'*'或'{key}'）相关联的值；单次散列查询，不查询树结构路径。
+     * 转存至堆外路径表时不建立确切路径的索引，始终返回 null。
+     * @param fullPath 指定的全路径。
+     * @return 确切路径相关联的值；如果不存在则返回 null。
+     * @see StaticPathIndex
+     */
+    public V getStatic(String fullPath) {
+        return tree.snapshot().staticIndex().get(fullPath);
+    }
+
+    /**
+     * 获取与字符序列区间[0, end)完全相等的确切路径相关联的值。
+     * @param fullPath 路径的字符序列。
+     * @param end 路径的结束位置。
+     * @return 确切路径相关联的值；如果不存在则返回 null。
+     * @see #getStatic(String)
+     */
+    public V getStatic(CharSequence fullPath, int end) {
+        return tree.snapshot().staticIndex().get(fullPath, end);
+    }
+
+    /**
+     * @see PathTrie#get(CharSequence, Map)
+     */
+    public V get(CharSequence fullPath, Map<String, String> matchParameters) {
         return tree.get(fullPath, matchParameters);
     }
 
     @Override
     public V get(Object fullPath) {
-        return tree.get(fullPath.toString(), null);
+        return tree.get(fullPath.toString());
+    }
+
+    @Override
+    public int size() {
+        return tree.snapshot().size();
     }
 
     @Override
     public void clear() {
-        entrySet.clear();
         tree.clear();
     }
 
     @Override
     public Set<Entry<String, V>> entrySet() {
-        return entrySet;
+        Set<Entry<String, V>> es = entrySet;
+        if (es == null) {
+            entrySet = es = new AbstractSet<Entry<String, V>>() {
+
+                @Override
+                public Iterator<Entry<String, V>> iterator() {
+                    return Collections.unmodifiableList(tree.snapshot().entries()).iterator();
+                }
+
+                @Override
+                public int size() {
+                    return tree.snapshot().size();
+                }
+
+            };
+        }
+        return es;
     }
 
 }
@@ -120,11 +229,9 @@ class PathTree<V> implements Serializable {
     private static final long serialVersionUID = 1L;
 
     /**
-     * 路径尾匹配
-     * @deprecated
+     * 路径尾匹配标识，匹配其后的一个或多个路径片段，须为路径的最后一个片段；仅{@link PathTrie}支持，本类视其为确切路径。
      */
-    @Deprecated
-    private static final String LAST_MATCH = "**";
+    public static final String LAST_MATCH = "**";
 
     /**
      * 路径分割符
@@ -172,7 +279,7 @@ class PathTree<V> implements Serializable {
      * @param path 路径字符串。
      * @return 路径的非完全匹配名称，完全字符串则返回 null。
      */
-    private static String getMatchKey(String path) {
+    static String getMatchKey(String path) {
         int len = path.length();
 
         // at least 2 chars
@@ -200,7 +307,7 @@ class PathTree<V> implements Serializable {
      * @return 路径包含键匹配返回true，否则返回false。
      * @see #getMatchKey(java.lang.String)
      */
-    private static boolean isMatchKay(String path) {
+    static boolean isMatchKay(String path) {
         int len = path.length();
         // at least 2 chars
         if (len <= 2) {
@@ -645,33 +752,49 @@ class PathTree<V> implements Serializable {
     /**
      * 索引/值类。记录了节点匹配符在路径数组中的索引位置及匹配的键名。
      */
-    private static class IndexKey implements Serializable {
+    static class IndexKey implements Serializable {
 
         private static final long serialVersionUID = 1L;
 
         /**
-         * Path array index, no more than 32.
+         * Path array index.
          */
-        private byte index = -1;
+        final int index;
 
         /**
          * 匹配的键名。
          */
-        private final String matchKey;
+        final String matchKey;
+
+        /**
+         * 是否为路径尾匹配，其值为索引位置起的剩余路径。
+         */
+        final boolean tail;
 
         /**
          * 构造一个指定索引号和键名的类。
          * @param index 指定的索引号。
          * @param matchKey 指定的键名。
          */
-        public IndexKey(byte index, String matchKey) {
+        IndexKey(int index, String matchKey) {
+            this(index, matchKey, false);
+        }
+
+        /**
+         * 构造一个指定索引号、键名及是否为路径尾匹配的类。
+         * @param index 指定的索引号。
+         * @param matchKey 指定的键名。
+         * @param tail 是否为路径尾匹配。
+         */
+        IndexKey(int index, String matchKey, boolean tail) {
             this.index = index;
             this.matchKey = matchKey;
+            this.tail = tail;
         }
 
         @Override
         public String toString() {
-            return "IndexKey{" + "index=" + index + ", matchKey=" + matchKey + '}';
+            return "IndexKey{" + "index=" + index + ", matchKey=" + matchKey + ", tail=" + tail + '}';
         }
 
     }
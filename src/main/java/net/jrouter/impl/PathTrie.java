@@ -0,0 +1,1564 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import lombok.Getter;
+import net.jrouter.impl.PathTree.IndexKey;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * 压缩基数树（radix trie）存储的映射路径与其关联值，与{@link PathTree}的匹配规则一致：
+ * 同一层级确切的路径优先于'*'或'{key}'形式的匹配路径。
+ * 另支持"{key:constraint}"形式带约束的匹配路径（参见{@link SegmentMatcher}），
+ * 同一层级的优先级为：确切路径 &gt; 带约束的匹配路径（按添加顺序） &gt; '*'或'{key}'。
+ * 路径的最后一个片段可为"**"或"{key:**}"形式的路径尾匹配，匹配其后的一个或多个路径片段，优先级最低，
+ * 其剩余路径作为单个参数值（键名为"**"或key），不拆分路径片段。
+ *
+ * <p>
+ * 连续的确切路径合并存储于同一节点（如"/aa/b1/c1"），子节点以首个路径片段的散列值开放寻址存储；
+ * 查询时直接在输入的字符序列上逐字符匹配并按"确切优先"深度回溯，
+ * 不拆分路径、不创建中间集合，除结果外不分配任何对象。
+ * </p>
+ * <p>
+ * 路径树以不可变的{@link Snapshot}快照发布：添加或删除路径时仅复制自根节点至修改处的节点，
+ * 修改完成后以volatile写原子替换快照。查询不加锁，始终在同一快照上完成；修改操作之间互斥。
+ * </p>
+ *
+ * @param <V> 与路径相关联值的类型。
+ */
+class PathTrie<V> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 路径分割符
+     */
+    @Getter
+    private final char pathSeparator;
+
+    /**
+     * 是否以确定性自动机查询路径
+     */
+    @Getter
+    private final boolean compiled;
+
+    /**
+     * 是否将路径树快照转存至堆外的路径表查询
+     */
+    @Getter
+    private final boolean direct;
+
+    /**
+     * 是否于发布快照前创建路径的预过滤器
+     */
+    @Getter
+    private final boolean filtered;
+
+    /**
+     * 当前路径树的快照
+     */
+    private volatile Snapshot<V> snapshot;
+
+    /**
+     * 批量添加的计数，由写锁保护
+     */
+    private int batch;
+
+    /**
+     * 批量添加时节点标签及键名的字典，相同内容的字符串仅保留一个实例；仅在批量添加期间存在，转存至堆外时不使用
+     */
+    private transient SegmentDictionary segments;
+
+    /**
+     * 确切路径编号的登记表，由写锁保护
+     */
+    private RouteIdTable.Registry routeIds = new RouteIdTable.Registry();
+
+    /**
+     * 构造一个默认路径分割符'/'的路径树。
+     */
+    PathTrie() {
+        this(PathTree.PATH_SEPARATOR);
+    }
+
+    /**
+     * 构造一个指定路径分割符的路径树。
+     * @param pathSeparator 指定的路径分割符。
+     */
+    PathTrie(char pathSeparator) {
+        this(pathSeparator, false);
+    }
+
+    /**
+     * 构造一个指定路径分割符及是否以确定性自动机查询路径的路径树。
+     * @param pathSeparator 指定的路径分割符。
+     * @param compiled 是否以确定性自动机查询路径。
+     * @see RouteAutomaton
+     */
+    PathTrie(char pathSeparator, boolean compiled) {
+        this(pathSeparator, compiled, false);
+    }
+
+    /**
+     * 构造一个指定路径分割符、是否以确定性自动机查询路径及是否转存至堆外路径表的路径树；转存至堆外时不使用确定性自动机，
+     * 且首次查询创建路径表后路径树只读。
+     * @param pathSeparator 指定的路径分割符。
+     * @param compiled 是否以确定性自动机查询路径。
+     * @param direct 是否将路径树快照转存至堆外的路径表查询。
+     * @see DirectPathTable
+     */
+    PathTrie(char pathSeparator, boolean compiled, boolean direct) {
+        this(pathSeparator, compiled, direct, false);
+    }
+
+    /**
+     * 构造一个指定路径分割符、是否以确定性自动机查询路径、是否转存至堆外路径表及是否创建路径预过滤器的路径树。
+     * @param pathSeparator 指定的路径分割符。
+     * @param compiled 是否以确定性自动机查询路径。
+     * @param direct 是否将路径树快照转存至堆外的路径表查询。
+     * @param filtered 是否于发布快照前创建路径的预过滤器。
+     * @see RouteFilter
+     */
+    PathTrie(char pathSeparator, boolean compiled, boolean direct, boolean filtered) {
+        this.pathSeparator = pathSeparator;
+        this.compiled = compiled && !direct;
+        this.direct = direct;
+        this.filtered = filtered;
+        this.snapshot = new Snapshot<>(new Node<>(null, pathSeparator), 0, 0, pathSeparator, this.compiled, direct,
+                Collections.emptyMap());
+        this.snapshot.prepare(filtered);
+    }
+
+    /**
+     * 返回当前路径树的快照。
+     * @return 当前路径树的快照。
+     */
+    Snapshot<V> snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 判断路径片段是否为匹配路径（'*'、'**'或包含键匹配）。
+     * @param segment 路径片段。
+     * @return 是否为匹配路径。
+     */
+    private static boolean isVariable(String segment) {
+        return PathTree.SINGLE_MATCH.equals(segment) || PathTree.LAST_MATCH.equals(segment)
+                || PathTree.isMatchKay(segment);
+    }
+
+    /**
+     * 判断路径片段是否为路径尾匹配（'**'或'{key:**}'）。
+     * @param segment 路径片段。
+     * @return 是否为路径尾匹配。
+     */
+    private static boolean isTail(String segment) {
+        // 不含'**'的路径片段无须解析约束
+        return PathTree.LAST_MATCH.equals(segment) || (segment.contains(PathTree.LAST_MATCH)
+                && PathTree.LAST_MATCH.equals(SegmentMatcher.getConstraint(segment)));
+    }
+
+    /**
+     * 计算字符区间与{@link String#hashCode()}一致的散列值。
+     */
+    static int hash(CharSequence cs, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + cs.charAt(i);
+        }
+        return h;
+    }
+
+    /**
+     * 判断是否为根路径。
+     */
+    private boolean isRoot(CharSequence fullPath) {
+        return fullPath.length() == 1 && pathSeparator == fullPath.charAt(0);
+    }
+
+    /**
+     * 添加路径与其相关联的值，并返回原有路径的值；如果原有路径已存在值则覆盖并返回原有的值，不存在则返回 null。
+     * @param fullPath 指定的相关路径。
+     * @param value 与路径相关联的值。
+     * @return 以前与路径相关联的值，如果没有则返回 null。
+     * @throws NullPointerException 如果路径相关联的值为 null。
+     * @throws IllegalStateException 如果转存至堆外的路径树已创建路径表（只读）。
+     */
+    public synchronized V put(String fullPath, V value) {
+        if (value == null) {
+            throw new NullPointerException();// NOPMD
+        }
+        Snapshot<V> current = snapshot;
+        Node<V> newRoot = writableRoot(current).copy();
+        String[] paths = splitPath(fullPath);
+        Node<V> node = insert(newRoot, fullPath, paths, 0);
+        V old = node.value;
+        String oldPath = node.path;
+        assign(node, fullPath, paths, value);
+        register(oldPath, fullPath);
+        publish(newRoot, old == null ? current.size + 1 : current.size);
+        return old;
+    }
+
+    /**
+     * 批量添加路径与其相关联的值，并按添加顺序返回每个路径原有的值（包括同批次中先添加的值）；仅发布一次新的快照。
+     *
+     * <p>
+     * 路径按添加顺序插入同一棵新建的路径树，原快照中的节点至多复制一次，本批次新建及复制的节点以批次标记识别并直接修改，
+     * 避免逐个添加时每次复制根节点及途经节点（子节点众多时逐个添加的耗时随路径数目平方增长）。
+     * 结果与按添加顺序逐个调用{@link #put(String, Object)}一致；子节点以散列表存储，无须预先排序路径。
+     * </p>
+     * @param fullPaths 路径集合。
+     * @param values 与路径按序对应的值集合。
+     * @return 按添加顺序排列的每个路径原有的值，如果没有则为 null。
+     * @throws NullPointerException 如果路径相关联的值为 null。
+     * @throws IllegalArgumentException 如果路径与值的数目不一致或路径不合法，此时不发布新的快照。
+     * @throws IllegalStateException 如果转存至堆外的路径树已创建路径表（只读）。
+     */
+    public List<V> putAll(List<String> fullPaths, List<V> values) {
+        return putAll(fullPaths, values, null);
+    }
+
+    /**
+     * 批量添加路径与其相关联的值，每个路径添加前以其原有的值（包括同批次中先添加的值）及新值校验；
+     * 校验抛出异常时不发布新的快照，原快照及编号不变。
+     * @param fullPaths 路径集合。
+     * @param values 与路径按序对应的值集合。
+     * @param check 以原有的值（没有则为 null）及新值校验的回调，可为 null。
+     * @return 按添加顺序排列的每个路径原有的值，如果没有则为 null。
+     * @throws NullPointerException 如果路径相关联的值为 null。
+     * @throws IllegalArgumentException 如果路径与值的数目不一致或路径不合法，此时不发布新的快照。
+     * @throws IllegalStateException 如果转存至堆外的路径树已创建路径表（只读）。
+     * @see #putAll(List, List)
+     */
+    public synchronized List<V> putAll(List<String> fullPaths, List<V> values, BiConsumer<V, V> check) {
+        int n = fullPaths.size();
+        if (values.size() != n) {
+            throw new IllegalArgumentException("Paths and values size not matched : " + n + " != " + values.size());
+        }
+        String[][] paths = new String[n][];
+        for (int i = 0; i < n; i++) {
+            if (values.get(i) == null) {
+                throw new NullPointerException();// NOPMD
+            }
+            paths[i] = splitPath(fullPaths.get(i));
+        }
+        // 路径片段的字典仅用于本批次，添加完成后即释放，不随路径树的修改而增长
+        segments = direct ? null : new SegmentDictionary();
+        try {
+            Snapshot<V> current = snapshot;
+            // 本批次的标记，0 保留为逐个添加时的标记
+            int stamp = ++batch == 0 ? ++batch : batch;
+            Node<V> newRoot = own(writableRoot(current).copy(), stamp);
+            List<V> olds = new ArrayList<>(Collections.nCopies(n, null));
+            // 原有的路径，全部添加成功后再登记编号
+            String[] oldPaths = new String[n];
+            int size = current.size;
+            for (int i = 0; i < n; i++) {
+                Node<V> node = insert(newRoot, fullPaths.get(i), paths[i], stamp);
+                V old = node.value;
+                if (check != null) {
+                    check.accept(old, values.get(i));
+                }
+                if (old == null) {
+                    size++;
+                }
+                olds.set(i, old);
+                oldPaths[i] = node.path;
+                assign(node, fullPaths.get(i), paths[i], values.get(i));
+            }
+            for (int i = 0; i < n; i++) {
+                register(oldPaths[i], fullPaths.get(i));
+            }
+            publish(newRoot, size);
+            return olds;
+        }
+        finally {
+            segments = null;
+        }
+    }
+
+    /**
+     * 返回待修改快照的根节点。转存至堆外的快照创建路径表后释放其节点，路径树只读，不再由路径表重建节点。
+     * @throws IllegalStateException 如果快照的节点已转存至堆外的路径表。
+     */
+    private Node<V> writableRoot(Snapshot<V> current) {
+        Node<V> root = current.root;
+        if (root == null) {
+            throw new IllegalStateException(
+                    "Direct PathTrie is read-only after its path table is built, clear it before adding or removing paths");
+        }
+        return root;
+    }
+
+    /**
+     * 拆分待添加的路径，根路径返回空数组。
+     * @throws IllegalArgumentException 如果路径不含任何路径片段。
+     */
+    private String[] splitPath(String fullPath) {
+        if (isRoot(fullPath)) {
+            return new String[0];
+        }
+        String[] paths = split(fullPath);
+        if (paths.length == 0) {
+            throw new IllegalArgumentException("Null path : " + fullPath);
+        }
+        return paths;
+    }
+
+    /**
+     * 于新的根节点下添加路径的节点，并返回路径对应的节点（可直接修改）。
+     * @param newRoot 已复制的根节点。
+     * @param fullPath 指定的相关路径。
+     * @param paths 拆分后的路径。
+     * @param stamp 批量添加的标记，新建及复制的节点以此标记为可直接修改；为 0 则途经的节点均复制。
+     * @return 路径对应的节点。
+     * @throws IllegalArgumentException 如果路径不合法。
+     */
+    private Node<V> insert(Node<V> newRoot, String fullPath, String[] paths, int stamp) {
+        Node<V> cur = newRoot;
+        int len = paths.length;
+        int i = 0;
+        while (i < len) {
+            String segment = paths[i];
+            // '**' or {key:**}
+            if (isTail(segment)) {
+                if (i != len - 1) {
+                    throw new IllegalArgumentException("Tail match must be the last segment : " + fullPath);
+                }
+                Node<V> tail = cur.getTail();
+                cur = cur.setTail(tail == null ? own(new Node<>(null, pathSeparator), stamp) : mutable(tail, stamp));
+                i++;
+                continue;
+            }
+            // '*' or {key} or {key:constraint}
+            if (isVariable(segment)) {
+                String constraint = SegmentMatcher.getConstraint(segment);
+                Node<V> child = cur.getVariable(constraint);
+                Node<V> next = child == null ? own(newVariable(constraint), stamp) : mutable(child, stamp);
+                cur = next == child ? child : cur.setVariable(child, next);
+                i++;
+                continue;
+            }
+            Node<V> child = cur.getChild(segment);
+            if (child == null) {
+                // 合并连续的确切路径为同一节点
+                int j = i + 1;
+                while (j < len && !isVariable(paths[j])) {
+                    j++;
+                }
+                child = own(new Node<>(intern(join(paths, i, j)), pathSeparator), stamp);
+                cur.putChild(child);
+                cur = child;
+                i = j;
+                continue;
+            }
+            Node<V> copy = mutable(child, stamp);
+            if (copy != child) {
+                cur.replaceChild(child, copy);
+                child = copy;
+            }
+            String[] labels = split(child.label);
+            int k = 1;
+            while (k < labels.length && i + k < len && labels[k].equals(paths[i + k])) {
+                k++;
+            }
+            // 部分匹配，拆分原节点
+            if (k < labels.length) {
+                Node<V> head = own(new Node<>(intern(join(labels, 0, k)), pathSeparator), stamp);
+                cur.replaceChild(child, head);
+                child.setLabel(intern(join(labels, k, labels.length)), pathSeparator);
+                head.putChild(child);
+                child = head;
+            }
+            cur = child;
+            i += k;
+        }
+        return cur;
+    }
+
+    /**
+     * 设置节点相关联的路径与值。
+     */
+    private void assign(Node<V> node, String fullPath, String[] paths, V value) {
+        node.value = value;
+        node.path = fullPath;
+        node.indexKeys = createIndexKeys(paths);
+    }
+
+    /**
+     * 登记确切路径的编号：路径字符串改变时释放原路径的编号，并为新路径分配编号；已登记路径的编号不变。
+     * @param oldPath 节点原有的路径，没有则为 null。
+     * @param fullPath 新添加的路径。
+     */
+    private void register(String oldPath, String fullPath) {
+        if (fullPath.equals(oldPath)) {
+            return;
+        }
+        if (oldPath != null && StaticPathIndex.isStaticPath(oldPath, pathSeparator)) {
+            routeIds.remove(oldPath);
+        }
+        if (StaticPathIndex.isStaticPath(fullPath, pathSeparator)) {
+            routeIds.add(fullPath);
+        }
+    }
+
+    /**
+     * 以批量添加的标记标记新建的节点。
+     */
+    private static <V> Node<V> own(Node<V> node, int stamp) {
+        node.batch = stamp;
+        return node;
+    }
+
+    /**
+     * 返回可直接修改的节点：已有本批次的标记则返回其自身，否则返回其复制的节点。
+     */
+    private static <V> Node<V> mutable(Node<V> node, int stamp) {
+        if (stamp != 0 && node.batch == stamp) {
+            return node;
+        }
+        return own(node.copy(), stamp);
+    }
+
+    /**
+     * 删除与指定路径（'*'与'{key}'等同）相关联的值，并返回原有的值；不存在则返回 null。
+     * 删除后沿复制的路径向上清理节点：删除不含值且无子节点的节点，不含值且仅含一个确切路径子节点的确切路径节点与其子节点合并。
+     * @param fullPath 指定的相关路径。
+     * @return 以前与路径相关联的值，如果没有则返回 null。
+     * @throws IllegalStateException 如果转存至堆外的路径树已创建路径表（只读）。
+     */
+    public synchronized V remove(String fullPath) {
+        Snapshot<V> current = snapshot;
+        String[] paths = isRoot(fullPath) ? new String[0] : split(fullPath);
+        Node<V> root = writableRoot(current);
+        if (locate(root, paths, null) == null) {
+            return null;
+        }
+        Node<V> newRoot = root.copy();
+        List<Node<V>> trail = new ArrayList<>(paths.length + 1);
+        trail.add(newRoot);
+        Node<V> cur = locate(newRoot, paths, trail);
+        V old = cur.value;
+        if (StaticPathIndex.isStaticPath(cur.path, pathSeparator)) {
+            routeIds.remove(cur.path);
+        }
+        cur.value = null;
+        cur.path = null;
+        cur.indexKeys = null;
+        prune(trail);
+        publish(newRoot, current.size - 1);
+        return old;
+    }
+
+    /**
+     * 自指定节点起按添加时的路径片段定位有相关联值的节点。
+     * @param node 起始节点。
+     * @param paths 拆分后的路径。
+     * @param trail 不为 null 则复制途经的子节点（起始节点须已为复制的节点）并按序添加至此集合。
+     * @return 有相关联值的节点，不存在则返回 null。
+     */
+    private Node<V> locate(Node<V> node, String[] paths, List<Node<V>> trail) {
+        boolean copy = trail != null;
+        int i = 0;
+        while (node != null && i < paths.length) {
+            Node<V> next;
+            int k = 1;
+            if (isTail(paths[i])) {
+                next = node.getTail();
+                if (copy) {
+                    next = node.setTail(next.copy());
+                }
+            }
+            else if (isVariable(paths[i])) {
+                next = node.getVariable(SegmentMatcher.getConstraint(paths[i]));
+                if (copy) {
+                    next = node.setVariable(next, next.copy());
+                }
+            }
+            else {
+                next = node.getChild(paths[i]);
+                if (next == null) {
+                    return null;
+                }
+                String[] labels = split(next.label);
+                while (k < labels.length && i + k < paths.length && labels[k].equals(paths[i + k])) {
+                    k++;
+                }
+                if (k < labels.length) {
+                    return null;
+                }
+                if (copy) {
+                    Node<V> c = next.copy();
+                    node.replaceChild(next, c);
+                    next = c;
+                }
+            }
+            if (copy) {
+                trail.add(next);
+            }
+            node = next;
+            i += k;
+        }
+        return node == null || node.value == null ? null : node;
+    }
+
+    /**
+     * 自删除值的节点起沿复制的节点向上清理，保持路径树的压缩：删除不含值且无子节点的节点；
+     * 不含值且仅含一个确切路径子节点的确切路径节点，以合并标签后的子节点替换。
+     * @param trail 自根节点起复制的节点，最后一个为删除值的节点。
+     */
+    private void prune(List<Node<V>> trail) {
+        for (int i = trail.size() - 1; i > 0; i--) {
+            Node<V> node = trail.get(i);
+            if (node.value != null) {
+                return;
+            }
+            Node<V> parent = trail.get(i - 1);
+            if (node.isLeaf()) {
+                parent.removeChild(node);
+                continue;
+            }
+            Node<V> only = node.onlyChild();
+            if (node.label != null && only != null) {
+                Node<V> merged = only.copy();
+                merged.setLabel(intern(node.label + pathSeparator + only.label), pathSeparator);
+                parent.replaceChild(node, merged);
+            }
+            return;
+        }
+    }
+
+    /**
+     * 创建匹配路径的节点，带约束的节点编译其约束。
+     */
+    private Node<V> newVariable(String constraint) {
+        Node<V> node = new Node<>(null, pathSeparator);
+        if (constraint != null) {
+            node.matcher = SegmentMatcher.compile(constraint);
+        }
+        return node;
+    }
+
+    /**
+     * 发布新的路径树快照，查询所需的索引于发布前由写线程创建。
+     */
+    private void publish(Node<V> newRoot, int size) {
+        Snapshot<V> next = new Snapshot<>(newRoot, size, snapshot.version + 1, pathSeparator, compiled, direct,
+                routeIds.renumbered());
+        next.prepare(filtered);
+        snapshot = next;
+    }
+
+    /**
+     * 获取指定路径相关联的值；如果不包含该路径的关联关系，则返回 null。
+     * @param fullPath 指定路径的名称。
+     * @return 指定路径相关联的值；如果不包含该路径的关联关系，则返回 null。
+     */
+    public V get(CharSequence fullPath) {
+        return get(fullPath, null);
+    }
+
+    /**
+     * 获取指定路径相关联的值；如果不包含该路径的关联关系，则返回 null。
+     * @param fullPath 指定路径的名称。
+     * @param matchParameters 路径中匹配的键值映射。
+     * @return 指定路径相关联的值；如果不包含该路径的关联关系，则返回 null。
+     */
+    public V get(CharSequence fullPath, Map<String, String> matchParameters) {
+        Snapshot<V> current = snapshot;
+        if (current.direct) {
+            return current.table().get(fullPath, matchParameters);
+        }
+        int end = fullPath.length();
+        Node<V> matcher = current.find(fullPath, end);
+        if (matcher == null) {
+            return null;
+        }
+        if (matchParameters != null && matcher.indexKeys != null) {
+            PathParameters.fill(matcher.indexKeys, fullPath, end, pathSeparator, matchParameters);
+        }
+        return matcher.value;
+    }
+
+    /**
+     * 在当前快照中查找指定路径区间[0, end)最终匹配且有相关联值的节点；如果不包含该路径的关联关系，则返回 null。
+     * @param fullPath 指定路径的字符序列。
+     * @param end 路径的结束位置。
+     * @return 最终匹配的节点；如果不包含该路径的关联关系，则返回 null。
+     * @see Snapshot#find(CharSequence, int)
+     */
+    Node<V> find(CharSequence fullPath, int end) {
+        return snapshot.find(fullPath, end);
+    }
+
+    /**
+     * 跳过连续的路径分隔符。
+     */
+    private static int skipSeparators(CharSequence path, int pos, int end, char sep) {
+        while (pos < end && path.charAt(pos) == sep) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * 查找路径分隔符的位置，不存在则返回结束位置。
+     */
+    private static int indexOfSeparator(CharSequence path, int pos, int end, char sep) {
+        while (pos < end && path.charAt(pos) != sep) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * 构建叶子节点的索引/值数组，处理连续'*'路径（如果有）为*,*1,*2...；键名取自路径片段字典。
+     */
+    private IndexKey[] createIndexKeys(String[] paths) {
+        List<IndexKey> keys = new ArrayList<>(paths.length);
+        int matchIndex = 1;
+        for (int i = 0; i < paths.length; i++) {
+            if (isTail(paths[i])) {
+                String key = PathTree.LAST_MATCH.equals(paths[i]) ? PathTree.LAST_MATCH
+                        : SegmentMatcher.getKeyName(PathTree.getMatchKey(paths[i]));
+                keys.add(new IndexKey(i, intern(key), true));
+            }
+            else if (PathTree.SINGLE_MATCH.equals(paths[i])) {
+                keys.add(new IndexKey(i,
+                        matchIndex == 1 ? PathTree.SINGLE_MATCH : intern(PathTree.SINGLE_MATCH + matchIndex)));
+                matchIndex++;
+            }
+            else {
+                String key = PathTree.getMatchKey(paths[i]);
+                if (key != null) {
+                    keys.add(new IndexKey(i, intern(SegmentMatcher.getKeyName(key))));
+                }
+            }
+        }
+        return keys.isEmpty() ? null : keys.toArray(new IndexKey[0]);
+    }
+
+    /**
+     * 以路径分隔符拆分字符串，排除了"连续分割符"。
+     */
+    private String[] split(String str) {
+        List<String> list = new ArrayList<>(5);
+        int len = str.length();
+        int pos = skipSeparators(str, 0, len, pathSeparator);
+        while (pos < len) {
+            int end = indexOfSeparator(str, pos, len, pathSeparator);
+            list.add(str.substring(pos, end));
+            pos = skipSeparators(str, end, len, pathSeparator);
+        }
+        return list.toArray(new String[0]);
+    }
+
+    /**
+     * 以路径分隔符连接指定区间的路径。
+     */
+    private String join(String[] paths, int from, int to) {
+        if (to - from == 1) {
+            return paths[from];
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                sb.append(pathSeparator);
+            }
+            sb.append(paths[i]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 批量添加时由路径片段字典返回相同内容的字符串实例，其他情况返回原字符串。
+     */
+    private String intern(String str) {
+        return segments == null ? str : segments.intern(str);
+    }
+
+    /**
+     * 以路径与其相关联值的集合重建路径树，返回其根节点。
+     */
+    private static <V> Node<V> rebuild(List<Map.Entry<String, V>> entries, char pathSeparator) {
+        PathTrie<V> trie = new PathTrie<>(pathSeparator);
+        for (Map.Entry<String, V> e : entries) {
+            trie.put(e.getKey(), e.getValue());
+        }
+        return trie.snapshot.root;
+    }
+
+    /**
+     * 清除所有路径与其相关联值的映射关系。
+     */
+    public synchronized void clear() {
+        routeIds = new RouteIdTable.Registry();
+        publish(new Node<>(null, pathSeparator), 0);
+    }
+
+    /**
+     * 路径树不可变的快照，包含根节点、路径数目及版本号；确切路径的索引、路径编号表、确定性自动机及预过滤器于发布前创建。
+     * 转存至堆外的快照于首次查询时创建堆外路径表并释放其节点，此后路径树只读，清除后方可再添加或删除路径。
+     *
+     * @param <V> 与路径相关联值的类型。
+     */
+    static final class Snapshot<V> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 根节点，转存至堆外后为 null
+         */
+        private volatile Node<V> root;
+
+        /**
+         * 有相关联值的路径数目
+         */
+        private final int size;
+
+        /**
+         * 快照的版本号，每次修改递增
+         */
+        private final long version;
+
+        /**
+         * 路径分割符
+         */
+        private final char pathSeparator;
+
+        /**
+         * 是否以确定性自动机查询路径
+         */
+        private final boolean compiled;
+
+        /**
+         * 是否转存至堆外的路径表查询
+         */
+        private final boolean direct;
+
+        /**
+         * 堆外的路径表
+         */
+        private transient volatile DirectPathTable<V> table;
+
+        /**
+         * 确切路径的散列索引
+         */
+        private transient volatile StaticPathIndex<V> staticIndex;
+
+        /**
+         * 路径片段的确定性自动机
+         */
+        private transient volatile RouteAutomaton<V> automaton;
+
+        /**
+         * 路径的整数编号表
+         */
+        private transient volatile RouteIdTable<V> routeIds;
+
+        /**
+         * 重新编号的路径及其序号
+         */
+        private final Map<String, Integer> renumbered;
+
+        /**
+         * 路径的预过滤器
+         */
+        private transient volatile RouteFilter routeFilter;
+
+        private Snapshot(Node<V> root, int size, long version, char pathSeparator, boolean compiled,
+                boolean direct, Map<String, Integer> renumbered) {
+            this.root = root;
+            this.size = size;
+            this.version = version;
+            this.pathSeparator = pathSeparator;
+            this.compiled = compiled;
+            this.direct = direct;
+            this.renumbered = renumbered;
+        }
+
+        /**
+         * 返回根节点；节点已转存至堆外则由路径表重建，仅用于序列化等非查询的场景，修改路径时不重建。
+         * @return 根节点。
+         */
+        Node<V> getRoot() {
+            Node<V> r = root;
+            // 路径表先于释放节点设置
+            return r == null ? rebuild(table.entries(), pathSeparator) : r;
+        }
+
+        /**
+         * 是否转存至堆外的路径表查询。
+         * @return 转存至堆外则返回{@code true}。
+         */
+        boolean isDirect() {
+            return direct;
+        }
+
+        /**
+         * 返回堆外的路径表，不存在则创建并释放快照的节点。
+         * @return 堆外的路径表。
+         */
+        DirectPathTable<V> table() {
+            DirectPathTable<V> t = table;
+            if (t == null) {
+                synchronized (this) {
+                    t = table;
+                    if (t == null) {
+                        t = DirectPathTable.build(root, size, pathSeparator);
+                        table = t;
+                        if (direct) {
+                            root = null;
+                        }
+                    }
+                }
+            }
+            return t;
+        }
+
+        /**
+         * 创建查询所需的确切路径索引、路径编号表、确定性自动机及预过滤器，于发布快照前调用；堆外的路径表仍于首次查询时创建。
+         * @param filter 是否创建路径的预过滤器。
+         */
+        void prepare(boolean filter) {
+            staticIndex();
+            routeIds();
+            if (compiled) {
+                automaton();
+            }
+            if (filter) {
+                routeFilter();
+            }
+        }
+
+        /**
+         * 返回路径片段的确定性自动机，不存在（如反序列化后）则创建。
+         * @return 路径片段的确定性自动机。
+         */
+        RouteAutomaton<V> automaton() {
+            RouteAutomaton<V> a = automaton;
+            if (a == null) {
+                synchronized (this) {
+                    a = automaton;
+                    if (a == null) {
+                        a = new RouteAutomaton<>(this, pathSeparator, RouteAutomaton.DEFAULT_MAX_STATES);
+                        automaton = a;
+                    }
+                }
+            }
+            return a;
+        }
+
+        /**
+         * 返回快照的版本号。
+         * @return 快照的版本号。
+         */
+        long getVersion() {
+            return version;
+        }
+
+        /**
+         * 返回有相关联值的路径数目。
+         * @return 有相关联值的路径数目。
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * 返回确切路径的索引，不存在（如反序列化后）则创建。
+         * @return 确切路径的索引。
+         */
+        StaticPathIndex<V> staticIndex() {
+            StaticPathIndex<V> index = staticIndex;
+            if (index == null) {
+                synchronized (this) {
+                    index = staticIndex;
+                    if (index == null) {
+                        // 转存至堆外时确切路径亦由路径表查询，不在堆内建立索引
+                        index = StaticPathIndex.build(direct ? Collections.emptyList() : entries(), pathSeparator);
+                        staticIndex = index;
+                    }
+                }
+            }
+            return index;
+        }
+
+        /**
+         * 返回路径的整数编号表，不存在（如反序列化后）则创建。
+         * @return 路径的整数编号表。
+         */
+        RouteIdTable<V> routeIds() {
+            RouteIdTable<V> table = routeIds;
+            if (table == null) {
+                synchronized (this) {
+                    table = routeIds;
+                    if (table == null) {
+                        table = RouteIdTable.build(entries(), renumbered, pathSeparator);
+                        routeIds = table;
+                    }
+                }
+            }
+            return table;
+        }
+
+        /**
+         * 返回路径的预过滤器，未于发布前创建则于首次调用时创建。
+         * @return 路径的预过滤器。
+         */
+        RouteFilter routeFilter() {
+            RouteFilter filter = routeFilter;
+            if (filter == null) {
+                synchronized (this) {
+                    filter = routeFilter;
+                    if (filter == null) {
+                        List<String> paths = new ArrayList<>(size);
+                        for (Map.Entry<String, V> e : entries()) {
+                            paths.add(e.getKey());
+                        }
+                        filter = RouteFilter.build(paths, size, pathSeparator);
+                        routeFilter = filter;
+                    }
+                }
+            }
+            return filter;
+        }
+
+        /**
+         * 返回快照中所有路径与其相关联值的只读集合，按深度优先遍历。
+         * @return 路径与其相关联值的集合。
+         */
+        List<Map.Entry<String, V>> entries() {
+            Node<V> r = root;
+            // 转存至堆外前仍由节点遍历，不提前创建路径表
+            if (r == null) {
+                return table().entries();
+            }
+            List<Map.Entry<String, V>> list = new ArrayList<>(size);
+            collect(r, list);
+            return list;
+        }
+
+        private static <V> void collect(Node<V> node, List<Map.Entry<String, V>> list) {
+            if (node.value != null) {
+                list.add(new AbstractMap.SimpleImmutableEntry<>(node.path, node.value));
+            }
+            if (node.children != null) {
+                for (Node<V> child : node.children) {
+                    if (child != null) {
+                        collect(child, list);
+                    }
+                }
+            }
+            Branches<V> b = node.branches;
+            if (b != null) {
+                if (b.constrained != null) {
+                    for (Node<V> child : b.constrained) {
+                        collect(child, list);
+                    }
+                }
+                if (b.wildcard != null) {
+                    collect(b.wildcard, list);
+                }
+                if (b.tail != null) {
+                    collect(b.tail, list);
+                }
+            }
+        }
+
+        /**
+         * 查找指定路径区间[0, end)最终匹配且有相关联值的节点；如果不包含该路径的关联关系，则返回 null。
+         * 以确定性自动机查询路径时，由{@link RouteAutomaton}查找；转存至堆外的快照由{@link #table()}查找。
+         * @param fullPath 指定路径的字符序列。
+         * @param end 路径的结束位置。
+         * @return 最终匹配的节点；如果不包含该路径的关联关系，则返回 null。
+         * @throws UnsupportedOperationException 如果快照已转存至堆外。
+         */
+        Node<V> find(CharSequence fullPath, int end) {
+            if (direct) {
+                throw new UnsupportedOperationException("Direct snapshot has no nodes, use table() instead.");
+            }
+            return compiled ? automaton().find(fullPath, end) : search(fullPath, end);
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            // 序列化时包含节点
+            if (root == null) {
+                root = getRoot();
+            }
+            out.defaultWriteObject();
+        }
+
+        /**
+         * 以深度回溯查找指定路径区间[0, end)最终匹配且有相关联值的节点；如果不包含该路径的关联关系，则返回 null。
+         * @param fullPath 指定路径的字符序列。
+         * @param end 路径的结束位置。
+         * @return 最终匹配的节点；如果不包含该路径的关联关系，则返回 null。
+         */
+        Node<V> search(CharSequence fullPath, int end) {
+            if (end == 1 && pathSeparator == fullPath.charAt(0)) {
+                return root.value == null ? null : root;
+            }
+            int pos = skipSeparators(fullPath, 0, end, pathSeparator);
+            if (pos == end) {
+                return null;
+            }
+            return match(root, fullPath, pos, end);
+        }
+
+        /**
+         * 自指定节点起深度匹配路径的剩余部分；同一层级确切路径优先于带约束的匹配路径，再优先于无约束的匹配路径，
+         * 无约束时等同于{@link PathTree}选取路径代码最大的节点。
+         * @param node 已匹配的节点。
+         * @param path 全路径。
+         * @param pos 剩余路径的起始位置。
+         * @param end 路径的结束位置。
+         * @return 最终匹配且有相关联值的节点，无匹配则返回 null。
+         */
+        private Node<V> match(Node<V> node, CharSequence path, int pos, int end) {
+            pos = skipSeparators(path, pos, end, pathSeparator);
+            if (pos == end) {
+                return node.value == null ? null : node;
+            }
+            int segmentEnd = indexOfSeparator(path, pos, end, pathSeparator);
+            Node<V> child = node.findChild(path, pos, segmentEnd);
+            if (child != null) {
+                int next = child.matchLabel(path, segmentEnd, end, pathSeparator);
+                if (next != -1) {
+                    Node<V> res = match(child, path, next, end);
+                    if (res != null) {
+                        return res;
+                    }
+                }
+            }
+            Branches<V> b = node.branches;
+            if (b == null) {
+                return null;
+            }
+            if (b.constrained != null) {
+                // 约束匹配原路径的大小写
+                CharSequence raw = PathNormalizer.original(path);
+                for (Node<V> c : b.constrained) {
+                    if (c.matcher.matches(raw, pos, segmentEnd)) {
+                        Node<V> res = match(c, path, segmentEnd, end);
+                        if (res != null) {
+                            return res;
+                        }
+                    }
+                }
+            }
+            if (b.wildcard != null) {
+                Node<V> res = match(b.wildcard, path, segmentEnd, end);
+                if (res != null) {
+                    return res;
+                }
+            }
+            // 剩余路径至少包含一个路径片段
+            if (b.tail != null && b.tail.value != null) {
+                return b.tail;
+            }
+            return null;
+        }
+
+    }
+
+    /**
+     * 节点，记载了节点的（压缩）路径、相关联的值、子节点等信息。
+     */
+    static final class Node<V> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 以数组顺序存储确切路径子节点的最大数目，超出则以开放寻址的散列表存储
+         */
+        static final int MAX_ARRAY_CHILDREN = 8;
+
+        /**
+         * 一个或多个以路径分隔符连接的确切路径；根节点及匹配节点为 null
+         */
+        private String label;
+
+        /**
+         * 首个路径片段的长度
+         */
+        private int firstLength;
+
+        /**
+         * 首个路径片段的散列值
+         */
+        private int firstHash;
+
+        /**
+         * 确切路径的子节点：不超过{@link #MAX_ARRAY_CHILDREN}个时为无空元素的数组，顺序查找；
+         * 更多时以首个路径片段开放寻址存储（长度大于{@link #MAX_ARRAY_CHILDREN}）
+         */
+        private Node<V>[] children;
+
+        /**
+         * 确切路径子节点的数目
+         */
+        private int size;
+
+        /**
+         * 匹配子节点，不含匹配子节点为 null
+         */
+        private Branches<V> branches;
+
+        /**
+         * 带约束的匹配节点的路径片段匹配器，其他节点为 null
+         */
+        private SegmentMatcher matcher;
+
+        /**
+         * 节点路径相关联的值
+         */
+        private V value;
+
+        /**
+         * 节点路径的匹配索引及键名数组，不含相关联值的节点为 null
+         */
+        private IndexKey[] indexKeys;
+
+        /**
+         * 最后添加的与节点相关联的全路径，不含相关联值的节点为 null
+         */
+        private String path;
+
+        /**
+         * 创建或复制节点的批量添加的标记，逐个添加的节点为 0
+         */
+        private int batch;
+
+        private Node(String label, char separator) {
+            setLabel(label, separator);
+        }
+
+        /**
+         * 浅复制节点，子节点数组复制后可独立修改；匹配子节点不可变，由复制的节点共享。
+         */
+        private Node<V> copy() {
+            Node<V> n = new Node<>(null, ' ');
+            n.label = label;
+            n.firstLength = firstLength;
+            n.firstHash = firstHash;
+            n.children = children == null ? null : children.clone();
+            n.size = size;
+            n.branches = branches;
+            n.matcher = matcher;
+            n.value = value;
+            n.indexKeys = indexKeys;
+            n.path = path;
+            return n;
+        }
+
+        /**
+         * 返回节点路径相关联的值。
+         * @return 节点路径相关联的值。
+         */
+        V getValue() {
+            return value;
+        }
+
+        /**
+         * 返回节点路径的匹配索引及键名数组，不含匹配路径则返回 null。
+         * @return 节点路径的匹配索引及键名数组。
+         */
+        IndexKey[] getIndexKeys() {
+            return indexKeys;
+        }
+
+        /**
+         * 返回节点的（压缩）确切路径，根节点及匹配节点返回 null。
+         * @return 节点的确切路径。
+         */
+        String getLabel() {
+            return label;
+        }
+
+        /**
+         * 返回首个路径片段的长度。
+         * @return 首个路径片段的长度。
+         */
+        int getFirstLength() {
+            return firstLength;
+        }
+
+        /**
+         * 返回首个路径片段的散列值。
+         * @return 首个路径片段的散列值。
+         */
+        int getFirstHash() {
+            return firstHash;
+        }
+
+        /**
+         * 返回最后添加的与节点相关联的全路径，不含相关联值的节点为 null。
+         * @return 与节点相关联的全路径。
+         */
+        String getPath() {
+            return path;
+        }
+
+        /**
+         * 返回确切路径子节点的数组或散列表，可能包含 null 元素；无子节点则返回 null。
+         * @return 确切路径子节点的数组或散列表。
+         */
+        Node<V>[] getChildren() {
+            return children;
+        }
+
+        /**
+         * 返回'*'或'{key}'的匹配子节点。
+         * @return '*'或'{key}'的匹配子节点。
+         */
+        Node<V> getWildcard() {
+            return branches == null ? null : branches.wildcard;
+        }
+
+        /**
+         * 返回带约束的匹配子节点数组，按添加顺序排列。
+         * @return 带约束的匹配子节点数组。
+         */
+        Node<V>[] getConstrained() {
+            return branches == null ? null : branches.constrained;
+        }
+
+        /**
+         * 返回'**'的路径尾匹配子节点。
+         * @return 路径尾匹配子节点。
+         */
+        Node<V> getTail() {
+            return branches == null ? null : branches.tail;
+        }
+
+        /**
+         * 设置匹配子节点，均为 null 则不含匹配子节点。
+         */
+        private void setBranches(Node<V> wildcard, Node<V>[] constrained, Node<V> tail) {
+            branches = wildcard == null && constrained == null && tail == null ? null
+                    : new Branches<>(wildcard, constrained, tail);
+        }
+
+        /**
+         * 设置'**'的路径尾匹配子节点。
+         * @return 新的路径尾匹配子节点。
+         */
+        private Node<V> setTail(Node<V> tail) {
+            setBranches(getWildcard(), getConstrained(), tail);
+            return tail;
+        }
+
+        /**
+         * 返回带约束的匹配节点的路径片段匹配器。
+         * @return 路径片段匹配器。
+         */
+        SegmentMatcher getMatcher() {
+            return matcher;
+        }
+
+        private void setLabel(String label, char separator) {
+            this.label = label;
+            if (label != null) {
+                int idx = label.indexOf(separator);
+                this.firstLength = idx == -1 ? label.length() : idx;
+                this.firstHash = hash(label, 0, firstLength);
+            }
+        }
+
+        /**
+         * 查找首个路径片段匹配的子节点。
+         */
+        Node<V> findChild(CharSequence path, int from, int to) {
+            Node<V>[] tab = children;
+            if (tab == null) {
+                return null;
+            }
+            int h = hash(path, from, to);
+            int len = to - from;
+            if (tab.length <= MAX_ARRAY_CHILDREN) {
+                for (Node<V> n : tab) {
+                    if (n.firstHash == h && n.firstLength == len && regionMatches(n.label, path, from, len)) {
+                        return n;
+                    }
+                }
+                return null;
+            }
+            int mask = tab.length - 1;
+            for (int i = spread(h) & mask;; i = (i + 1) & mask) {
+                Node<V> n = tab[i];
+                if (n == null) {
+                    return null;
+                }
+                if (n.firstHash == h && n.firstLength == len && regionMatches(n.label, path, from, len)) {
+                    return n;
+                }
+            }
+        }
+
+        private static boolean regionMatches(String label, CharSequence path, int from, int len) {
+            for (int i = 0; i < len; i++) {
+                if (label.charAt(i) != path.charAt(from + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 匹配首个路径片段之后的剩余label，输入路径中连续的分隔符视为一个。
+         * @return 匹配后的位置（路径结束或分隔符处），不匹配返回-1。
+         */
+        private int matchLabel(CharSequence path, int pos, int end, char sep) {
+            String lb = label;
+            int len = lb.length();
+            for (int i = firstLength; i < len; i++) {
+                char c = lb.charAt(i);
+                if (pos == end) {
+                    return -1;
+                }
+                if (c == sep) {
+                    if (path.charAt(pos) != sep) {
+                        return -1;
+                    }
+                    while (pos < end && path.charAt(pos) == sep) {
+                        pos++;
+                    }
+                }
+                else if (path.charAt(pos++) != c) {
+                    return -1;
+                }
+            }
+            return pos == end || path.charAt(pos) == sep ? pos : -1;
+        }
+
+        /**
+         * 获取指定约束的匹配子节点，约束为 null 则返回'*'节点。
+         */
+        private Node<V> getVariable(String constraint) {
+            if (constraint == null) {
+                return getWildcard();
+            }
+            Node<V>[] constrained = getConstrained();
+            if (constrained != null) {
+                for (Node<V> n : constrained) {
+                    if (n.matcher.getConstraint().equals(constraint)) {
+                        return n;
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 以新的匹配子节点替换原子节点（原子节点为 null 则添加），带约束的子节点数组复制后修改。
+         * @return 新的匹配子节点。
+         */
+        private Node<V> setVariable(Node<V> old, Node<V> child) {
+            Node<V>[] constrained = getConstrained();
+            if (child.matcher == null) {
+                setBranches(child, constrained, getTail());
+                return child;
+            }
+            Node<V>[] arr;
+            if (old == null) {
+                arr = constrained == null ? newNodes(1) : Arrays.copyOf(constrained, constrained.length + 1);
+                arr[arr.length - 1] = child;
+            }
+            else {
+                arr = constrained.clone();
+                for (int i = 0; i < arr.length; i++) {
+                    if (arr[i] == old) {
+                        arr[i] = child;
+                    }
+                }
+            }
+            setBranches(getWildcard(), arr, getTail());
+            return child;
+        }
+
+        private Node<V> getChild(String segment) {
+            return findChild(segment, 0, segment.length());
+        }
+
+        private void putChild(Node<V> child) {
+            if (size < MAX_ARRAY_CHILDREN) {
+                Node<V>[] arr = children == null ? newNodes(1) : Arrays.copyOf(children, size + 1);
+                arr[size++] = child;
+                children = arr;
+                return;
+            }
+            if ((size + 1) * 2 > children.length) {
+                Node<V>[] old = children;
+                // 由数组转为散列表时容量为32
+                children = newNodes(old.length <= MAX_ARRAY_CHILDREN ? MAX_ARRAY_CHILDREN << 2 : old.length << 1);
+                for (Node<V> n : old) {
+                    if (n != null) {
+                        insert(children, n);
+                    }
+                }
+            }
+            insert(children, child);
+            size++;
+        }
+
+        /**
+         * 以首个路径片段相同的新节点替换原子节点。
+         */
+        private void replaceChild(Node<V> old, Node<V> child) {
+            Node<V>[] tab = children;
+            if (tab.length <= MAX_ARRAY_CHILDREN) {
+                for (int i = 0; i < tab.length; i++) {
+                    if (tab[i] == old) {
+                        tab[i] = child;
+                        return;
+                    }
+                }
+            }
+            int mask = tab.length - 1;
+            for (int i = spread(child.firstHash) & mask;; i = (i + 1) & mask) {
+                if (tab[i] == old) {
+                    tab[i] = child;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 删除子节点（确切路径、匹配、带约束的匹配或路径尾匹配子节点），子节点数组复制后修改。
+         */
+        private void removeChild(Node<V> child) {
+            Node<V> wildcard = getWildcard();
+            Node<V>[] constrained = getConstrained();
+            Node<V> tail = getTail();
+            if (wildcard == child) {
+                setBranches(null, constrained, tail);
+            }
+            else if (tail == child) {
+                setBranches(wildcard, constrained, null);
+            }
+            else if (child.matcher != null) {
+                List<Node<V>> list = new ArrayList<>(Arrays.asList(constrained));
+                list.remove(child);
+                setBranches(wildcard, list.isEmpty() ? null : list.toArray(newNodes(list.size())), tail);
+            }
+            else {
+                Node<V>[] old = children;
+                // 子节点数目不超过数组存储的最大数目时转为数组存储
+                boolean table = size - 1 > MAX_ARRAY_CHILDREN;
+                children = table ? newNodes(old.length) : null;
+                size = 0;
+                for (Node<V> n : old) {
+                    if (n != null && n != child) {
+                        if (table) {
+                            insert(children, n);
+                            size++;
+                        }
+                        else {
+                            putChild(n);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * 判断节点是否不含任何子节点。
+         */
+        private boolean isLeaf() {
+            return size == 0 && branches == null;
+        }
+
+        /**
+         * 返回唯一的确切路径子节点；不含匹配子节点且仅含一个确切路径子节点时返回该子节点，否则返回 null。
+         */
+        private Node<V> onlyChild() {
+            return size == 1 && branches == null ? children[0] : null;
+        }
+
+        private static <V> void insert(Node<V>[] tab, Node<V> child) {
+            int mask = tab.length - 1;
+            int i = spread(child.firstHash) & mask;
+            while (tab[i] != null) {
+                i = (i + 1) & mask;
+            }
+            tab[i] = child;
+        }
+
+        private static int spread(int h) {
+            return h ^ (h >>> 16);
+        }
+
+        /**
+         * 创建指定长度的节点数组。
+         * @param <V> 与路径相关联值的类型。
+         * @param length 数组的长度。
+         * @return 节点数组。
+         */
+        @SuppressWarnings("unchecked")
+        static <V> Node<V>[] newNodes(int length) {
+            return (Node<V>[]) new Node<?>[length];
+        }
+
+        @Override
+        public String toString() {
+            return "Node{" + "label=" + label + ", matcher=" + matcher + ", value=" + value + ", size=" + size
+                    + ", wildcard=" + getWildcard() + '}';
+        }
+
+    }
+
+    /**
+     * 节点的匹配子节点，不可变，修改节点的匹配子节点时创建新的实例；多数节点不含匹配子节点，不单独占用节点的字段。
+     *
+     * @param <V> 与路径相关联值的类型。
+     */
+    static final class Branches<V> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * '*'或'{key}'的匹配子节点
+         */
+        private final Node<V> wildcard;
+
+        /**
+         * '{key:constraint}'带约束的匹配子节点，按添加顺序匹配
+         */
+        private final Node<V>[] constrained;
+
+        /**
+         * '**'的路径尾匹配子节点
+         */
+        private final Node<V> tail;
+
+        private Branches(Node<V> wildcard, Node<V>[] constrained, Node<V> tail) {
+            this.wildcard = wildcard;
+            this.constrained = constrained;
+            this.tail = tail;
+        }
+
+    }
+
+}
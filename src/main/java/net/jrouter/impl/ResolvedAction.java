@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * 已解析的Action路径，包含路径映射的Action代理对象及路径的参数匹配映射（不可变）。
+ * 由{@link PathActionFactory#resolveAll(String...)}批量解析，
+ * 经{@link PathActionFactory#invokeAction(ResolvedAction, Object...)}调用时不再查询路径映射。
+ *
+ * @see PathActionFactory#resolveAll(String...)
+ */
+@Getter
+public final class ResolvedAction {
+
+    /**
+     * Action的调用路径（不含后缀）
+     */
+    private final String path;
+
+    /**
+     * 路径映射的Action代理对象
+     */
+    private final PathActionProxy actionProxy;
+
+    /**
+     * Action路径的参数匹配映射
+     */
+    private final Map<String, String> pathParameters;
+
+    /**
+     * 解析时路径映射快照的版本号
+     */
+    private final long version;
+
+    ResolvedAction(String path, PathActionProxy actionProxy, Map<String, String> pathParameters, long version) {
+        this.path = path;
+        this.actionProxy = actionProxy;
+        this.pathParameters = pathParameters;
+        this.version = version;
+    }
+
+    @Override
+    public String toString() {
+        return "ResolvedAction{" + path + " -> " + actionProxy.getPath() + ", " + pathParameters + "}";
+    }
+
+}
@@ -0,0 +1,502 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import net.jrouter.impl.PathTrie.Node;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 由路径树快照构建的路径片段确定性自动机（DFA）。每个状态为路径树中同时存活的匹配位置的集合，
+ * 并预先计算了路径在此结束时的最终匹配节点；查询时逐路径片段单次转移，无回溯、无候选集合。
+ *
+ * <p>
+ * 状态及转移于首次经过时创建（子集构造），之后只读并可被多线程并发访问。
+ * 状态的转移以确切路径片段及带约束匹配器的匹配结果（位掩码）区分；
+ * 状态数目超出上限或单个状态的带约束匹配器过多时，相应的查询回退至路径树的深度回溯查找。
+ * </p>
+ * <p>
+ * 最终匹配节点取路径树先序（确切路径 &gt; 带约束的匹配路径 &gt; '*' &gt; '**'）序号最小者，
+ * 与{@link PathTrie.Snapshot#search(CharSequence, int)}的深度回溯结果一致。
+ * </p>
+ *
+ * @param <V> 与路径相关联值的类型。
+ */
+final class RouteAutomaton<V> {
+
+    /**
+     * 默认的最大状态数目
+     */
+    static final int DEFAULT_MAX_STATES = 4096;
+
+    /**
+     * 单个状态可区分的带约束匹配器的最大数目
+     */
+    private static final int MAX_MATCHERS = 6;
+
+    /**
+     * 路径树快照，超出上限时回退查询
+     */
+    private final PathTrie.Snapshot<V> snapshot;
+
+    /**
+     * 路径分割符
+     */
+    private final char pathSeparator;
+
+    /**
+     * 最大状态数目
+     */
+    private final int maxStates;
+
+    /**
+     * 节点的先序序号
+     */
+    private final Map<Node<V>, Integer> ordinals = new IdentityHashMap<>();
+
+    /**
+     * 以先序序号索引的节点
+     */
+    private final List<Node<V>> nodes = new ArrayList<>();
+
+    /**
+     * 节点（压缩）确切路径拆分后的路径片段
+     */
+    private final Map<Node<V>, String[]> segments = new IdentityHashMap<>();
+
+    /**
+     * 路径尾匹配节点
+     */
+    private final Set<Node<V>> tails = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * 匹配位置集合与状态的映射
+     */
+    private final ConcurrentHashMap<Positions, State<V>> states = new ConcurrentHashMap<>();
+
+    /**
+     * 不含任何匹配位置的状态
+     */
+    private final State<V> dead;
+
+    /**
+     * 初始状态
+     */
+    private final State<V> start;
+
+    /**
+     * 由路径树快照构建自动机，仅创建初始状态。
+     * @param snapshot 路径树快照。
+     * @param pathSeparator 路径分隔符。
+     * @param maxStates 最大状态数目。
+     */
+    RouteAutomaton(PathTrie.Snapshot<V> snapshot, char pathSeparator, int maxStates) {
+        this.snapshot = snapshot;
+        this.pathSeparator = pathSeparator;
+        this.maxStates = maxStates;
+        index(snapshot.getRoot());
+        this.dead = state(new Positions(new long[0]), Node.newNodes(0), new int[0]);
+        Node<V> root = snapshot.getRoot();
+        Node<V>[] roots = Node.newNodes(1);
+        roots[0] = root;
+        this.start = state(new Positions(new long[] { position(root, 0) }), roots, new int[] { 0 });
+    }
+
+    /**
+     * 先序遍历路径树，记录节点的序号、路径片段及路径尾匹配节点。
+     */
+    private void index(Node<V> root) {
+        Deque<Node<V>> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node<V> n = stack.pop();
+            ordinals.put(n, nodes.size());
+            nodes.add(n);
+            segments.put(n, split(n.getLabel()));
+            // 逆序入栈：确切 > 带约束 > '*' > '**'
+            if (n.getTail() != null) {
+                tails.add(n.getTail());
+                stack.push(n.getTail());
+            }
+            if (n.getWildcard() != null) {
+                stack.push(n.getWildcard());
+            }
+            Node<V>[] constrained = n.getConstrained();
+            if (constrained != null) {
+                for (int i = constrained.length - 1; i >= 0; i--) {
+                    stack.push(constrained[i]);
+                }
+            }
+            Node<V>[] children = n.getChildren();
+            if (children != null) {
+                for (Node<V> c : children) {
+                    if (c != null) {
+                        stack.push(c);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 返回已创建的状态数目。
+     * @return 已创建的状态数目。
+     */
+    int getStateCount() {
+        return states.size();
+    }
+
+    /**
+     * 查找指定路径区间[0, end)最终匹配且有相关联值的节点；如果不包含该路径的关联关系，则返回 null。
+     * @param path 指定路径的字符序列。
+     * @param end 路径的结束位置。
+     * @return 最终匹配的节点；如果不包含该路径的关联关系，则返回 null。
+     */
+    Node<V> find(CharSequence path, int end) {
+        if (end == 1 && pathSeparator == path.charAt(0)) {
+            Node<V> root = snapshot.getRoot();
+            return root.getValue() == null ? null : root;
+        }
+        int pos = skipSeparators(path, 0, end);
+        if (pos == end) {
+            return null;
+        }
+        State<V> state = start;
+        while (pos < end) {
+            int segmentEnd = indexOfSeparator(path, pos, end);
+            State<V> next = next(state, path, pos, segmentEnd);
+            if (next == null) {
+                // 超出上限，回退至深度回溯查找
+                return snapshot.search(path, end);
+            }
+            if (next == dead) {
+                return null;
+            }
+            state = next;
+            pos = skipSeparators(path, segmentEnd, end);
+        }
+        return state.accept;
+    }
+
+    /**
+     * 获取状态在路径片段上的转移，不存在则创建；超出上限则返回 null。
+     */
+    private State<V> next(State<V> state, CharSequence path, int from, int to) {
+        if (state.transitions == null) {
+            return null;
+        }
+        int slot = state.literalSlot(path, from, to);
+        int mask = 0;
+        SegmentMatcher[] matchers = state.matchers;
+        // 约束匹配原路径的大小写
+        CharSequence raw = PathNormalizer.original(path);
+        for (int i = 0; i < matchers.length; i++) {
+            if (matchers[i].matches(raw, from, to)) {
+                mask |= 1 << i;
+            }
+        }
+        int idx = (slot << matchers.length) | mask;
+        State<V> next = state.transitions.get(idx);
+        if (next == null) {
+            next = transit(state, path, from, to);
+            if (next == null) {
+                return null;
+            }
+            state.transitions.lazySet(idx, next);
+        }
+        return next;
+    }
+
+    /**
+     * 由状态的所有匹配位置计算路径片段上的下一状态（子集构造）。
+     */
+    private State<V> transit(State<V> state, CharSequence path, int from, int to) {
+        List<Node<V>> nodes = new ArrayList<>();
+        List<Integer> offsets = new ArrayList<>();
+        for (int i = 0; i < state.nodes.length; i++) {
+            Node<V> n = state.nodes[i];
+            int k = state.offsets[i];
+            String[] segs = segments.get(n);
+            if (k < segs.length) {
+                if (regionEquals(segs[k], path, from, to)) {
+                    nodes.add(n);
+                    offsets.add(k + 1);
+                }
+                continue;
+            }
+            // 路径尾匹配剩余的任意路径片段
+            if (tails.contains(n)) {
+                nodes.add(n);
+                offsets.add(k);
+                continue;
+            }
+            Node<V> child = n.findChild(path, from, to);
+            if (child != null) {
+                nodes.add(child);
+                offsets.add(1);
+            }
+            Node<V>[] constrained = n.getConstrained();
+            if (constrained != null) {
+                for (Node<V> c : constrained) {
+                    if (c.getMatcher().matches(PathNormalizer.original(path), from, to)) {
+                        nodes.add(c);
+                        offsets.add(0);
+                    }
+                }
+            }
+            if (n.getWildcard() != null) {
+                nodes.add(n.getWildcard());
+                offsets.add(0);
+            }
+            if (n.getTail() != null) {
+                nodes.add(n.getTail());
+                offsets.add(0);
+            }
+        }
+        if (nodes.isEmpty()) {
+            return dead;
+        }
+        long[] key = new long[nodes.size()];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = position(nodes.get(i), offsets.get(i));
+        }
+        Arrays.sort(key);
+        int size = 0;
+        for (int i = 0; i < key.length; i++) {
+            if (i == 0 || key[i] != key[i - 1]) {
+                key[size++] = key[i];
+            }
+        }
+        key = Arrays.copyOf(key, size);
+        Positions positions = new Positions(key);
+        State<V> next = states.get(positions);
+        if (next != null) {
+            return next;
+        }
+        if (states.size() >= maxStates) {
+            return null;
+        }
+        // 按先序序号排列
+        Node<V>[] ns = Node.newNodes(key.length);
+        int[] ks = new int[key.length];
+        for (int i = 0; i < key.length; i++) {
+            ns[i] = this.nodes.get((int) (key[i] >>> 32));
+            ks[i] = (int) key[i];
+        }
+        return state(positions, ns, ks);
+    }
+
+    /**
+     * 创建或获取匹配位置集合对应的状态。
+     */
+    private State<V> state(Positions positions, Node<V>[] nodes, int[] offsets) {
+        return states.computeIfAbsent(positions, p -> new State<>(this, nodes, offsets));
+    }
+
+    /**
+     * 以节点序号及已匹配的路径片段数编码匹配位置。
+     */
+    private long position(Node<V> node, int offset) {
+        return ((long) ordinals.get(node) << 32) | offset;
+    }
+
+    /**
+     * 以路径分隔符拆分节点的确切路径，根节点及匹配节点返回空数组。
+     */
+    private String[] split(String label) {
+        if (label == null) {
+            return new String[0];
+        }
+        List<String> list = new ArrayList<>(2);
+        int begin = 0;
+        int idx;
+        while ((idx = label.indexOf(pathSeparator, begin)) != -1) {
+            list.add(label.substring(begin, idx));
+            begin = idx + 1;
+        }
+        list.add(label.substring(begin));
+        return list.toArray(new String[0]);
+    }
+
+    private static boolean regionEquals(String segment, CharSequence path, int from, int to) {
+        if (segment.length() != to - from) {
+            return false;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            if (segment.charAt(i) != path.charAt(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int skipSeparators(CharSequence path, int pos, int end) {
+        while (pos < end && path.charAt(pos) == pathSeparator) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private int indexOfSeparator(CharSequence path, int pos, int end) {
+        while (pos < end && path.charAt(pos) != pathSeparator) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * 已排序的匹配位置集合，作为状态的键。
+     */
+    private static final class Positions {
+
+        private final long[] positions;
+
+        private final int hash;
+
+        Positions(long[] positions) {
+            this.positions = positions;
+            this.hash = Arrays.hashCode(positions);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Positions && Arrays.equals(positions, ((Positions) obj).positions);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+    /**
+     * 自动机的状态。
+     */
+    private static final class State<V> {
+
+        /**
+         * 匹配位置的节点，按先序序号排序
+         */
+        final Node<V>[] nodes;
+
+        /**
+         * 匹配位置在节点确切路径中已匹配的路径片段数
+         */
+        final int[] offsets;
+
+        /**
+         * 路径在此状态结束时的最终匹配节点
+         */
+        final Node<V> accept;
+
+        /**
+         * 可转移的确切路径片段，开放寻址存储
+         */
+        final String[] literals;
+
+        /**
+         * 确切路径片段的序号（自1起，0为其他路径片段）
+         */
+        final int[] literalSlots;
+
+        /**
+         * 带约束的匹配器，按约束去重
+         */
+        final SegmentMatcher[] matchers;
+
+        /**
+         * 以（路径片段序号, 匹配器位掩码）索引的转移；带约束的匹配器过多则为 null
+         */
+        final AtomicReferenceArray<State<V>> transitions;
+
+        State(RouteAutomaton<V> automaton, Node<V>[] nodes, int[] offsets) {
+            this.nodes = nodes;
+            this.offsets = offsets;
+            Node<V> winner = null;
+            Set<String> lits = new LinkedHashSet<>();
+            Map<String, SegmentMatcher> ms = new LinkedHashMap<>();
+            for (int i = 0; i < nodes.length; i++) {
+                Node<V> n = nodes[i];
+                String[] segs = automaton.segments.get(n);
+                int k = offsets[i];
+                if (k < segs.length) {
+                    lits.add(segs[k]);
+                    continue;
+                }
+                // 节点已按先序排序，首个有值的完整匹配即为最终匹配
+                if (winner == null && n.getValue() != null) {
+                    winner = n;
+                }
+                if (automaton.tails.contains(n)) {
+                    continue;
+                }
+                Node<V>[] children = n.getChildren();
+                if (children != null) {
+                    for (Node<V> c : children) {
+                        if (c != null) {
+                            lits.add(automaton.segments.get(c)[0]);
+                        }
+                    }
+                }
+                Node<V>[] constrained = n.getConstrained();
+                if (constrained != null) {
+                    for (Node<V> c : constrained) {
+                        ms.putIfAbsent(c.getMatcher().getConstraint(), c.getMatcher());
+                    }
+                }
+            }
+            this.accept = winner;
+            int capacity = Integer.highestOneBit(Math.max(1, lits.size() * 2 - 1)) << 1;
+            this.literals = new String[capacity];
+            this.literalSlots = new int[capacity];
+            int slot = 1;
+            for (String lit : lits) {
+                int i = PathTrie.hash(lit, 0, lit.length()) & (capacity - 1);
+                while (literals[i] != null) {
+                    i = (i + 1) & (capacity - 1);
+                }
+                literals[i] = lit;
+                literalSlots[i] = slot++;
+            }
+            this.matchers = ms.values().toArray(new SegmentMatcher[0]);
+            this.transitions = matchers.length > MAX_MATCHERS ? null
+                    : new AtomicReferenceArray<>((lits.size() + 1) << matchers.length);
+        }
+
+        /**
+         * 返回路径片段的序号，非确切路径片段返回0。
+         */
+        int literalSlot(CharSequence path, int from, int to) {
+            int mask = literals.length - 1;
+            for (int i = PathTrie.hash(path, from, to) & mask;; i = (i + 1) & mask) {
+                String lit = literals[i];
+                if (lit == null) {
+                    return 0;
+                }
+                if (regionEquals(lit, path, from, to)) {
+                    return literalSlots[i];
+                }
+            }
+        }
+
+    }
+
+}
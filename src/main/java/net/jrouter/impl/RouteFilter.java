@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+/**
+ * 由路径映射中所有路径构建的路径预过滤器（布隆过滤器），以路径的首个路径片段及路径片段数目作为签名，
+ * 常数时间内排除绝大多数无法匹配的路径；判定可能匹配的路径仍须查询路径树确认。构建后只读，可被多线程并发访问。
+ *
+ * <p>
+ * 首个路径片段为匹配路径（'*'、'{key}'）的路径仅以路径片段数目判定，含路径尾匹配（'**'）的路径接受不少于其最少路径片段数目的路径；
+ * 首个路径片段即为路径尾匹配时不排除任何路径。
+ * </p>
+ */
+final class RouteFilter {
+
+    /**
+     * 每个签名占用的位数
+     */
+    private static final int BITS_PER_KEY = 10;
+
+    /**
+     * 每个签名的散列函数数目
+     */
+    private static final int HASHES = 3;
+
+    /**
+     * 含路径尾匹配路径的签名中的路径片段数目
+     */
+    private static final int TAIL_COUNT = -1;
+
+    /**
+     * 路径片段数目的上限，超出上限的数目视为相同
+     */
+    private static final int MAX_COUNT = 63;
+
+    /**
+     * 路径分隔符
+     */
+    private final char pathSeparator;
+
+    /**
+     * 布隆过滤器的位数组
+     */
+    private final long[] bits;
+
+    /**
+     * 位数组的位数掩码
+     */
+    private final int mask;
+
+    /**
+     * 首个路径片段为匹配路径的路径片段数目的位集合
+     */
+    private final long variableCounts;
+
+    /**
+     * 首个路径片段为匹配路径且含路径尾匹配的最少路径片段数目，无则为{@link Integer#MAX_VALUE}
+     */
+    private final int variableTailMin;
+
+    /**
+     * 是否存在首个路径片段为确切路径且含路径尾匹配的路径
+     */
+    private final boolean literalTail;
+
+    /**
+     * 是否接受任意路径
+     */
+    private final boolean acceptAll;
+
+    private RouteFilter(Builder builder) {
+        this.pathSeparator = builder.pathSeparator;
+        this.bits = builder.bits;
+        this.mask = builder.bits.length * 64 - 1;
+        this.variableCounts = builder.variableCounts;
+        this.variableTailMin = builder.variableTailMin;
+        this.literalTail = builder.literalTail;
+        this.acceptAll = builder.acceptAll;
+    }
+
+    /**
+     * 由路径映射中的所有路径构建预过滤器。
+     * @param paths 路径集合。
+     * @param size 路径的数目。
+     * @param pathSeparator 路径分隔符。
+     * @return 路径预过滤器。
+     */
+    static RouteFilter build(Iterable<String> paths, int size, char pathSeparator) {
+        Builder builder = new Builder(size, pathSeparator);
+        for (String path : paths) {
+            builder.add(path);
+        }
+        return new RouteFilter(builder);
+    }
+
+    /**
+     * 判断路径区间[0, end)是否可能匹配路径映射中的路径，连续的路径分隔符视为一个；返回{@code false}则一定不匹配。
+     * @param path 路径的字符序列。
+     * @param end 路径的结束位置。
+     * @return 可能匹配返回{@code true}，一定不匹配返回{@code false}。
+     */
+    boolean mightMatch(CharSequence path, int end) {
+        if (acceptAll) {
+            return true;
+        }
+        int count = 0;
+        int firstBegin = -1;
+        int firstEnd = -1;
+        int i = 0;
+        while (i < end) {
+            while (i < end && path.charAt(i) == pathSeparator) {
+                i++;
+            }
+            if (i == end) {
+                break;
+            }
+            int begin = i;
+            while (i < end && path.charAt(i) != pathSeparator) {
+                i++;
+            }
+            if (count++ == 0) {
+                firstBegin = begin;
+                firstEnd = i;
+            }
+        }
+        if (count == 0) {
+            // 根路径
+            return true;
+        }
+        if ((variableCounts & (1L << Math.min(count, MAX_COUNT))) != 0 || count >= variableTailMin) {
+            return true;
+        }
+        int h = PathTrie.hash(path, firstBegin, firstEnd);
+        return contains(h, count) || (literalTail && contains(h, TAIL_COUNT));
+    }
+
+    private boolean contains(int hash, int count) {
+        long x = mix(hash, count);
+        int a = (int) x;
+        int b = (int) (x >>> 32) | 1;
+        for (int k = 0; k < HASHES; k++) {
+            int idx = (a + k * b) & mask;
+            if ((bits[idx >>> 6] & (1L << idx)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 混合首个路径片段的散列值及路径片段数目。
+     */
+    private static long mix(int hash, int count) {
+        long x = hash * 0x9E3779B97F4A7C15L ^ count * 0xC2B2AE3D27D4EB4FL;
+        x ^= x >>> 33;
+        x *= 0xFF51AFD7ED558CCDL;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    @Override
+    public String toString() {
+        return "RouteFilter{" + "bits=" + bits.length * 64 + ", variableCounts=" + Long.toBinaryString(variableCounts)
+                + ", acceptAll=" + acceptAll + '}';
+    }
+
+    /**
+     * 预过滤器的构建对象。
+     */
+    private static final class Builder {
+
+        private final char pathSeparator;
+
+        private final long[] bits;
+
+        private long variableCounts = 0;
+
+        private int variableTailMin = Integer.MAX_VALUE;
+
+        private boolean literalTail = false;
+
+        private boolean acceptAll = false;
+
+        Builder(int size, char pathSeparator) {
+            this.pathSeparator = pathSeparator;
+            int n = Math.max(64, Integer.highestOneBit(Math.max(size, 1) * BITS_PER_KEY - 1) << 1);
+            this.bits = new long[n >>> 6];
+        }
+
+        void add(String path) {
+            int count = 0;
+            String first = null;
+            int tail = -1;
+            int len = path.length();
+            int i = 0;
+            while (i < len) {
+                while (i < len && path.charAt(i) == pathSeparator) {
+                    i++;
+                }
+                if (i == len) {
+                    break;
+                }
+                int begin = i;
+                while (i < len && path.charAt(i) != pathSeparator) {
+                    i++;
+                }
+                String segment = path.substring(begin, i);
+                if (count == 0) {
+                    first = segment;
+                }
+                if (tail == -1 && isTail(segment)) {
+                    tail = count;
+                }
+                count++;
+            }
+            if (count == 0) {
+                return;
+            }
+            if (tail == 0) {
+                acceptAll = true;
+            }
+            else if (isVariable(first)) {
+                if (tail == -1) {
+                    variableCounts |= 1L << Math.min(count, MAX_COUNT);
+                }
+                else {
+                    variableTailMin = Math.min(variableTailMin, tail + 1);
+                }
+            }
+            else if (tail == -1) {
+                put(first.hashCode(), count);
+            }
+            else {
+                literalTail = true;
+                put(first.hashCode(), TAIL_COUNT);
+            }
+        }
+
+        private void put(int hash, int count) {
+            long x = mix(hash, count);
+            int a = (int) x;
+            int b = (int) (x >>> 32) | 1;
+            int m = bits.length * 64 - 1;
+            for (int k = 0; k < HASHES; k++) {
+                int idx = (a + k * b) & m;
+                bits[idx >>> 6] |= 1L << idx;
+            }
+        }
+
+        private static boolean isVariable(String segment) {
+            return PathTree.SINGLE_MATCH.equals(segment) || PathTree.LAST_MATCH.equals(segment)
+                    || PathTree.isMatchKay(segment);
+        }
+
+        private static boolean isTail(String segment) {
+            return PathTree.LAST_MATCH.equals(segment)
+                    || PathTree.LAST_MATCH.equals(SegmentMatcher.getConstraint(segment));
+        }
+
+    }
+
+}
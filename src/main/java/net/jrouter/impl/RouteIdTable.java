@@ -0,0 +1,324 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * 确切路径（不含'*'、'**'或'{key}'）的整数编号与其关联值的不可变散列表，开放寻址、负载因子不超过0.5。
+ * 构建后只读，可被多线程并发访问。含匹配路径的路径调用时须由路径获取路径参数，无编号。
+ *
+ * <p>
+ * 路径的编号为路径字符串的32位FNV-1a散列值，不依赖运行环境；极少数编号与已登记路径的编号冲突时，
+ * 新添加的路径依次以附加序号的散列值重新编号（参见{@link Registry}），已登记路径的编号在删除前保持不变。
+ * 因此重新编号的路径的编号与路径的添加顺序相关，重启后以相同顺序添加路径则编号不变。
+ * </p>
+ *
+ * @param <V> 与路径相关联值的类型。
+ */
+final class RouteIdTable<V> {
+
+    /**
+     * FNV-1a 32位初始值
+     */
+    private static final int FNV_OFFSET_BASIS = 0x811C9DC5;
+
+    /**
+     * FNV-1a 32位素数
+     */
+    private static final int FNV_PRIME = 0x01000193;
+
+    /**
+     * 路径的编号
+     */
+    private final int[] ids;
+
+    /**
+     * 路径
+     */
+    private final String[] paths;
+
+    /**
+     * 路径相关联的值，空槽为 null
+     */
+    private final Object[] values;
+
+    /**
+     * 重新编号的路径及其序号
+     */
+    private final Map<String, Integer> renumbered;
+
+    private RouteIdTable(int[] ids, String[] paths, Object[] values, Map<String, Integer> renumbered) {
+        this.ids = ids;
+        this.paths = paths;
+        this.values = values;
+        this.renumbered = renumbered;
+    }
+
+    /**
+     * 由路径映射中的所有确切路径构建编号表，含匹配路径的路径不编号。
+     * @param <V> 与路径相关联值的类型。
+     * @param entries 路径与其关联值的集合。
+     * @param renumbered 重新编号的路径及其序号，由{@link Registry#renumbered()}获取。
+     * @param pathSeparator 路径分隔符。
+     * @return 路径的编号表。
+     */
+    static <V> RouteIdTable<V> build(Collection<Map.Entry<String, V>> entries, Map<String, Integer> renumbered,
+            char pathSeparator) {
+        List<Map.Entry<String, V>> statics = new ArrayList<>(entries.size());
+        for (Map.Entry<String, V> e : entries) {
+            if (StaticPathIndex.isStaticPath(e.getKey(), pathSeparator)) {
+                statics.add(e);
+            }
+        }
+        int capacity = Integer.highestOneBit(Math.max(statics.size(), 1) * 2 - 1) << 1;
+        int[] ids = new int[capacity];
+        String[] paths = new String[capacity];
+        Object[] values = new Object[capacity];
+        int mask = capacity - 1;
+        for (Map.Entry<String, V> e : statics) {
+            String path = e.getKey();
+            // 登记时已保证编号不重复
+            int id = hash(path, renumbered.getOrDefault(path, 0));
+            int i = id & mask;
+            while (values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            ids[i] = id;
+            paths[i] = path;
+            values[i] = e.getValue();
+        }
+        return new RouteIdTable<>(ids, paths, values, renumbered);
+    }
+
+    /**
+     * 计算路径的FNV-1a散列值，序号大于0时继续散列分隔符'#'及序号。
+     * @param path 路径。
+     * @param seq 冲突时重新编号的序号。
+     * @return 路径的编号。
+     */
+    static int hash(String path, int seq) {
+        int h = FNV_OFFSET_BASIS;
+        for (int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            h = (h ^ (c & 0xFF)) * FNV_PRIME;
+            if (c > 0xFF) {
+                h = (h ^ (c >>> 8)) * FNV_PRIME;
+            }
+        }
+        if (seq > 0) {
+            h = (h ^ '#') * FNV_PRIME;
+            for (int s = seq; s > 0; s >>>= 8) {
+                h = (h ^ (s & 0xFF)) * FNV_PRIME;
+            }
+        }
+        return h;
+    }
+
+    /**
+     * 获取编号相关联的值，不存在则返回 null。
+     * @param id 路径的编号。
+     * @return 编号相关联的值，不存在则返回 null。
+     */
+    @SuppressWarnings("unchecked")
+    V get(int id) {
+        int mask = ids.length - 1;
+        for (int i = id & mask;; i = (i + 1) & mask) {
+            Object v = values[i];
+            if (v == null || ids[i] == id) {
+                return (V) v;
+            }
+        }
+    }
+
+    /**
+     * 获取路径的编号。
+     * @param path 路径。
+     * @return 路径的编号。
+     * @throws NoSuchElementException 如果路径不存在或含匹配路径。
+     */
+    int getId(String path) {
+        int id = hash(path, renumbered.getOrDefault(path, 0));
+        int mask = ids.length - 1;
+        for (int i = id & mask; values[i] != null; i = (i + 1) & mask) {
+            if (ids[i] == id && paths[i].equals(path)) {
+                return id;
+            }
+        }
+        throw new NoSuchElementException(path);
+    }
+
+    /**
+     * 返回按路径排序的编号与路径的映射。
+     * @return 编号与路径的映射。
+     */
+    Map<Integer, String> toMap() {
+        Map<String, Integer> sorted = new TreeMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (values[i] != null) {
+                sorted.put(paths[i], ids[i]);
+            }
+        }
+        Map<Integer, String> map = new LinkedHashMap<>(sorted.size() * 2);
+        for (Map.Entry<String, Integer> e : sorted.entrySet()) {
+            map.put(e.getValue(), e.getKey());
+        }
+        return map;
+    }
+
+
+    /**
+     * 路径编号的登记表，记录已分配的编号及重新编号的路径，由路径树的写锁保护。
+     * 添加确切路径时分配编号：默认编号已被其他路径占用则依次以附加序号的散列值重新编号；删除路径时释放其编号。
+     */
+    static final class Registry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 已分配的编号，开放寻址、负载因子不超过0.5，0为空槽
+         */
+        private int[] table = new int[16];
+
+        /**
+         * 已分配的非0编号的数目
+         */
+        private int size;
+
+        /**
+         * 是否已分配编号0
+         */
+        private boolean zero;
+
+        /**
+         * 重新编号的路径及其序号，修改时复制，可由快照共享
+         */
+        private Map<String, Integer> renumbered = Collections.emptyMap();
+
+        /**
+         * 为新添加的确切路径分配编号。
+         * @param path 路径。
+         * @return 路径的编号。
+         */
+        int add(String path) {
+            int seq = 0;
+            int id = hash(path, seq);
+            while (contains(id)) {
+                id = hash(path, ++seq);
+            }
+            if (id == 0) {
+                zero = true;
+            }
+            else {
+                if ((size + 1) * 2 > table.length) {
+                    int[] old = table;
+                    table = new int[old.length * 2];
+                    for (int v : old) {
+                        if (v != 0) {
+                            insert(table, v);
+                        }
+                    }
+                }
+                insert(table, id);
+                size++;
+            }
+            if (seq > 0) {
+                Map<String, Integer> map = new HashMap<>(renumbered);
+                map.put(path, seq);
+                renumbered = Collections.unmodifiableMap(map);
+            }
+            return id;
+        }
+
+        /**
+         * 释放已删除的确切路径的编号。
+         * @param path 路径。
+         */
+        void remove(String path) {
+            Integer seq = renumbered.get(path);
+            int id = hash(path, seq == null ? 0 : seq);
+            if (seq != null) {
+                Map<String, Integer> map = new HashMap<>(renumbered);
+                map.remove(path);
+                renumbered = map.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(map);
+            }
+            if (id == 0) {
+                zero = false;
+                return;
+            }
+            int mask = table.length - 1;
+            int i = id & mask;
+            while (table[i] != id) {
+                if (table[i] == 0) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            // 线性探测的后移删除
+            int j = i;
+            for (;;) {
+                j = (j + 1) & mask;
+                int v = table[j];
+                if (v == 0) {
+                    break;
+                }
+                int k = v & mask;
+                if (i <= j ? (i < k && k <= j) : (i < k || k <= j)) {
+                    continue;
+                }
+                table[i] = v;
+                i = j;
+            }
+            table[i] = 0;
+            size--;
+        }
+
+        /**
+         * 返回重新编号的路径及其序号的只读映射。
+         * @return 重新编号的路径及其序号。
+         */
+        Map<String, Integer> renumbered() {
+            return renumbered;
+        }
+
+        private boolean contains(int id) {
+            if (id == 0) {
+                return zero;
+            }
+            int mask = table.length - 1;
+            for (int i = id & mask; table[i] != 0; i = (i + 1) & mask) {
+                if (table[i] == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static void insert(int[] tab, int id) {
+            int mask = tab.length - 1;
+            int i = id & mask;
+            while (tab[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            tab[i] = id;
+        }
+
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 批量添加时使用的路径片段字典，相同内容的路径片段（如"api"、"v1"、"user"）、节点标签及键名仅保留一个字符串实例，
+ * 同批次添加的节点均引用字典中的实例。仅在单次批量添加期间存在，添加完成后即释放，查询路径时不访问；非线程安全。
+ */
+final class SegmentDictionary {
+
+    /**
+     * 路径片段的唯一实例
+     */
+    private final Map<String, String> segments = new HashMap<>();
+
+    /**
+     * 返回与指定字符串内容相同的唯一实例，不存在则以指定字符串作为唯一实例。
+     * @param segment 路径片段，可为 null。
+     * @return 路径片段的唯一实例。
+     */
+    String intern(String segment) {
+        if (segment == null) {
+            return null;
+        }
+        String exist = segments.putIfAbsent(segment, segment);
+        return exist == null ? segment : exist;
+    }
+
+}
@@ -0,0 +1,396 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import java.io.Serializable;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 带约束的路径变量（如"{id:int}"、"{slug:[a-z-]+}"、"{uid:uuid}"）的单个路径片段匹配器，添加路径时编译，匹配时不创建字符串。
+ *
+ * <p>
+ * 支持的约束：
+ * <code>
+ * int --> 可带负号的十进制整数，且不超出int的取值范围
+ * long --> 可带负号的十进制整数，且不超出long的取值范围
+ * uuid --> 8-4-4-4-12形式的十六进制字符
+ * [a-z0-9_-]+ --> 单个ASCII字符类，可带+、*、{n}、{n,}、{n,m}数量词
+ * 其他 --> 正则表达式，须匹配整个路径片段
+ * </code>
+ * </p>
+ */
+abstract class SegmentMatcher implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 键名与约束的分隔符
+     */
+    static final char CONSTRAINT_SEPARATOR = ':';
+
+    /**
+     * 约束的原字符串
+     */
+    private final String constraint;
+
+    SegmentMatcher(String constraint) {
+        this.constraint = constraint;
+    }
+
+    /**
+     * 返回匹配路径片段的约束，无约束则返回 null。
+     * @param segment 路径片段。
+     * @return 路径片段的约束，无约束则返回 null。
+     */
+    static String getConstraint(String segment) {
+        String key = PathTree.getMatchKey(segment);
+        if (key == null) {
+            return null;
+        }
+        int idx = key.indexOf(CONSTRAINT_SEPARATOR);
+        return idx == -1 || idx == key.length() - 1 ? null : key.substring(idx + 1);
+    }
+
+    /**
+     * 返回匹配键名去除约束后的名称。
+     * @param matchKey 匹配键名。
+     * @return 去除约束后的键名。
+     */
+    static String getKeyName(String matchKey) {
+        int idx = matchKey.indexOf(CONSTRAINT_SEPARATOR);
+        return idx == -1 ? matchKey : matchKey.substring(0, idx);
+    }
+
+    /**
+     * 编译约束为路径片段匹配器。
+     * @param constraint 约束。
+     * @return 路径片段匹配器。
+     * @throws IllegalArgumentException 如果约束不是有效的正则表达式。
+     */
+    static SegmentMatcher compile(String constraint) {
+        switch (constraint) {
+            case "int":
+                return new IntegerMatcher(constraint, 10, "2147483647");
+            case "long":
+                return new IntegerMatcher(constraint, 19, "9223372036854775807");
+            case "uuid":
+                return new UuidMatcher(constraint);
+            default:
+                SegmentMatcher m = CharClassMatcher.parse(constraint);
+                if (m != null) {
+                    return m;
+                }
+                try {
+                    return new RegexMatcher(constraint, Pattern.compile(constraint));
+                }
+                catch (PatternSyntaxException e) {
+                    throw new IllegalArgumentException("Invalid path constraint : " + constraint, e);
+                }
+        }
+    }
+
+    /**
+     * 判断路径片段是否满足约束。
+     * @param path 全路径。
+     * @param from 路径片段的起始位置。
+     * @param to 路径片段的结束位置。
+     * @return 满足约束返回{@code true}。
+     */
+    abstract boolean matches(CharSequence path, int from, int to);
+
+    /**
+     * 返回约束的原字符串。
+     * @return 约束的原字符串。
+     */
+    String getConstraint() {
+        return constraint;
+    }
+
+    @Override
+    public String toString() {
+        return constraint;
+    }
+
+    /**
+     * 十进制整数，比较数字位数及最大值判断是否越界（负数的绝对值上限多1，忽略该差异）。
+     */
+    private static final class IntegerMatcher extends SegmentMatcher {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 最大位数
+         */
+        private final int maxDigits;
+
+        /**
+         * 最大值的字符串
+         */
+        private final String maxValue;
+
+        IntegerMatcher(String constraint, int maxDigits, String maxValue) {
+            super(constraint);
+            this.maxDigits = maxDigits;
+            this.maxValue = maxValue;
+        }
+
+        @Override
+        boolean matches(CharSequence path, int from, int to) {
+            if (from < to && path.charAt(from) == '-') {
+                from++;
+            }
+            int len = to - from;
+            if (len == 0 || len > maxDigits) {
+                return false;
+            }
+            for (int i = from; i < to; i++) {
+                char c = path.charAt(i);
+                if (c < '0' || c > '9') {
+                    return false;
+                }
+            }
+            if (len == maxDigits) {
+                for (int i = 0; i < len; i++) {
+                    int diff = path.charAt(from + i) - maxValue.charAt(i);
+                    if (diff != 0) {
+                        return diff < 0;
+                    }
+                }
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * 8-4-4-4-12形式的十六进制UUID。
+     */
+    private static final class UuidMatcher extends SegmentMatcher {
+
+        private static final long serialVersionUID = 1L;
+
+        UuidMatcher(String constraint) {
+            super(constraint);
+        }
+
+        @Override
+        boolean matches(CharSequence path, int from, int to) {
+            if (to - from != 36) {
+                return false;
+            }
+            for (int i = 0; i < 36; i++) {
+                char c = path.charAt(from + i);
+                if (i == 8 || i == 13 || i == 18 || i == 23) {
+                    if (c != '-') {
+                        return false;
+                    }
+                }
+                else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * 单个ASCII字符类及数量词，以位图判断字符。
+     */
+    private static final class CharClassMatcher extends SegmentMatcher {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * ASCII字符的位图
+         */
+        private final long low;
+
+        private final long high;
+
+        /**
+         * 最小长度
+         */
+        private final int min;
+
+        /**
+         * 最大长度
+         */
+        private final int max;
+
+        private CharClassMatcher(String constraint, long low, long high, int min, int max) {
+            super(constraint);
+            this.low = low;
+            this.high = high;
+            this.min = min;
+            this.max = max;
+        }
+
+        /**
+         * 解析"[...]"形式的字符类及数量词，不支持的形式（取反、非ASCII字符等）返回 null。
+         */
+        static CharClassMatcher parse(String constraint) {
+            int len = constraint.length();
+            if (len < 3 || constraint.charAt(0) != '[' || constraint.charAt(1) == '^') {
+                return null;
+            }
+            long low = 0;
+            long high = 0;
+            int i = 1;
+            int prev = -1;
+            for (; i < len; i++) {
+                char c = constraint.charAt(i);
+                if (c == ']') {
+                    break;
+                }
+                if (c == '[' || c >= 128) {
+                    return null;
+                }
+                if (c == '\\') {
+                    if (++i == len) {
+                        return null;
+                    }
+                    c = constraint.charAt(i);
+                    if (c == 'd') {
+                        low |= rangeBits('0', '9', true);
+                        high |= rangeBits('0', '9', false);
+                        prev = -1;
+                        continue;
+                    }
+                    if (c == 'w') {
+                        low |= rangeBits('0', '9', true);
+                        high |= rangeBits('A', 'Z', false) | rangeBits('a', 'z', false) | rangeBits('_', '_', false);
+                        prev = -1;
+                        continue;
+                    }
+                    if (Character.isLetterOrDigit(c) || c >= 128) {
+                        return null;
+                    }
+                }
+                // range
+                else if (c == '-' && prev != -1 && i + 1 < len && constraint.charAt(i + 1) != ']') {
+                    char to = constraint.charAt(++i);
+                    if (to == '\\' || to == '[' || to >= 128 || to < prev) {
+                        return null;
+                    }
+                    low |= rangeBits(prev, to, true);
+                    high |= rangeBits(prev, to, false);
+                    prev = -1;
+                    continue;
+                }
+                low |= rangeBits(c, c, true);
+                high |= rangeBits(c, c, false);
+                prev = c;
+            }
+            if (i == len || i == 1) {
+                return null;
+            }
+            // quantifier
+            String q = constraint.substring(i + 1);
+            int min;
+            int max;
+            if (q.isEmpty()) {
+                min = max = 1;
+            }
+            else if ("+".equals(q)) {
+                min = 1;
+                max = Integer.MAX_VALUE;
+            }
+            else if ("*".equals(q)) {
+                min = 0;
+                max = Integer.MAX_VALUE;
+            }
+            else if (q.length() > 2 && q.charAt(0) == '{' && q.charAt(q.length() - 1) == '}') {
+                String range = q.substring(1, q.length() - 1);
+                int comma = range.indexOf(',');
+                try {
+                    if (comma == -1) {
+                        min = max = Integer.parseInt(range);
+                    }
+                    else {
+                        min = Integer.parseInt(range.substring(0, comma));
+                        max = comma == range.length() - 1 ? Integer.MAX_VALUE
+                                : Integer.parseInt(range.substring(comma + 1));
+                    }
+                }
+                catch (NumberFormatException e) {
+                    return null;
+                }
+                if (min < 0 || max < min) {
+                    return null;
+                }
+            }
+            else {
+                return null;
+            }
+            return new CharClassMatcher(constraint, low, high, min, max);
+        }
+
+        /**
+         * 返回字符区间在位图低64位或高64位中的掩码。
+         */
+        private static long rangeBits(int from, int to, boolean lowBits) {
+            long bits = 0;
+            for (int c = from; c <= to; c++) {
+                if (lowBits == (c < 64)) {
+                    bits |= 1L << (c & 63);
+                }
+            }
+            return bits;
+        }
+
+        @Override
+        boolean matches(CharSequence path, int from, int to) {
+            int len = to - from;
+            if (len < min || len > max) {
+                return false;
+            }
+            for (int i = from; i < to; i++) {
+                char c = path.charAt(i);
+                if (c >= 128 || ((c < 64 ? low : high) & (1L << (c & 63))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * 正则表达式，须匹配整个路径片段。
+     */
+    private static final class RegexMatcher extends SegmentMatcher {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Pattern pattern;
+
+        RegexMatcher(String constraint, Pattern pattern) {
+            super(constraint);
+            this.pattern = pattern;
+        }
+
+        @Override
+        boolean matches(CharSequence path, int from, int to) {
+            return pattern.matcher(path).region(from, to).matches();
+        }
+
+    }
+
+}
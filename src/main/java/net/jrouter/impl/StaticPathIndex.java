@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import java.util.Map;
+
+/**
+ * 不含匹配路径（'*'、'**'或'{key}'）的确切路径与其关联值的不可变散列索引，开放寻址、负载因子不超过0.5。
+ * 构建后只读，可被多线程并发访问。
+ *
+ * @param <V> 与路径相关联值的类型。
+ */
+final class StaticPathIndex<V> {
+
+    /**
+     * 空索引。
+     */
+    private static final StaticPathIndex<?> EMPTY = new StaticPathIndex<>(new String[1], new int[1], new Object[1], 0);
+
+    /**
+     * 路径
+     */
+    private final String[] keys;
+
+    /**
+     * 路径的散列值
+     */
+    private final int[] hashes;
+
+    /**
+     * 路径相关联的值
+     */
+    private final Object[] values;
+
+    /**
+     * 确切路径的数目
+     */
+    private final int size;
+
+    private StaticPathIndex(String[] keys, int[] hashes, Object[] values, int size) {
+        this.keys = keys;
+        this.hashes = hashes;
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * 由路径映射中所有的确切路径构建索引。
+     * @param <V> 与路径相关联值的类型。
+     * @param entries 路径与其关联值的映射。
+     * @param pathSeparator 路径分隔符。
+     * @return 确切路径的索引。
+     */
+    @SuppressWarnings("unchecked")
+    static <V> StaticPathIndex<V> build(Iterable<Map.Entry<String, V>> entries, char pathSeparator) {
+        int count = 0;
+        for (Map.Entry<String, V> e : entries) {
+            if (isStaticPath(e.getKey(), pathSeparator)) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return (StaticPathIndex<V>) EMPTY;
+        }
+        int capacity = Integer.highestOneBit(count * 2 - 1) << 1;
+        String[] keys = new String[capacity];
+        int[] hashes = new int[capacity];
+        Object[] values = new Object[capacity];
+        int mask = capacity - 1;
+        for (Map.Entry<String, V> e : entries) {
+            String key = e.getKey();
+            if (isStaticPath(key, pathSeparator)) {
+                int h = key.hashCode();
+                int i = spread(h) & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                hashes[i] = h;
+                values[i] = e.getValue();
+            }
+        }
+        return new StaticPathIndex<>(keys, hashes, values, count);
+    }
+
+    /**
+     * 判断路径是否不含任何匹配路径片段。
+     * @param path 路径。
+     * @param pathSeparator 路径分隔符。
+     * @return 路径不含匹配路径片段则返回{@code true}。
+     */
+    static boolean isStaticPath(String path, char pathSeparator) {
+        int len = path.length();
+        int begin = 0;
+        while (begin < len) {
+            int end = path.indexOf(pathSeparator, begin);
+            if (end == -1) {
+                end = len;
+            }
+            if (end > begin) {
+                String segment = path.substring(begin, end);
+                if (PathTree.SINGLE_MATCH.equals(segment) || PathTree.LAST_MATCH.equals(segment)
+                        || PathTree.isMatchKay(segment)) {
+                    return false;
+                }
+            }
+            begin = end + 1;
+        }
+        return true;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 获取与字符序列区间[0, end)完全相等的确切路径相关联的值，不存在则返回 null。
+     * @param path 路径的字符序列。
+     * @param end 路径的结束位置。
+     * @return 确切路径相关联的值，不存在则返回 null。
+     */
+    @SuppressWarnings("unchecked")
+    V get(CharSequence path, int end) {
+        if (size == 0) {
+            return null;
+        }
+        int h = PathTrie.hash(path, 0, end);
+        int mask = keys.length - 1;
+        for (int i = spread(h) & mask;; i = (i + 1) & mask) {
+            String key = keys[i];
+            if (key == null) {
+                return null;
+            }
+            if (hashes[i] == h && key.length() == end && contentEquals(key, path)) {
+                return (V) values[i];
+            }
+        }
+    }
+
+    private static boolean contentEquals(String key, CharSequence path) {
+        for (int i = key.length() - 1; i >= 0; i--) {
+            if (key.charAt(i) != path.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取与路径完全相等的确切路径相关联的值，不存在则返回 null。
+     * @param path 路径。
+     * @return 确切路径相关联的值，不存在则返回 null。
+     */
+    @SuppressWarnings("unchecked")
+    V get(String path) {
+        if (size == 0) {
+            return null;
+        }
+        int h = path.hashCode();
+        int mask = keys.length - 1;
+        for (int i = spread(h) & mask;; i = (i + 1) & mask) {
+            String key = keys[i];
+            if (key == null) {
+                return null;
+            }
+            if (hashes[i] == h && key.equals(path)) {
+                return (V) values[i];
+            }
+        }
+    }
+
+    /**
+     * 返回确切路径的数目。
+     * @return 确切路径的数目。
+     */
+    int size() {
+        return size;
+    }
+
+}
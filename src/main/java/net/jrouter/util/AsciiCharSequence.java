@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 以单字节（ASCII/ISO-8859-1）解码的{@code ByteBuffer}片段的{@code CharSequence}视图。
+ * 不复制、不修改缓冲区的内容及其position/limit，仅在调用{@link #toString()}时创建字符串。
+ *
+ * <p>
+ * 视图直接引用原缓冲区，缓冲区的内容被修改或复用后视图的内容随之改变。
+ * </p>
+ */
+public final class AsciiCharSequence implements CharSequence {
+
+    /**
+     * 原缓冲区
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * 片段在缓冲区中的起始位置
+     */
+    private final int offset;
+
+    /**
+     * 片段的长度
+     */
+    private final int length;
+
+    /**
+     * 构造一个指定缓冲区片段的视图。
+     * @param buffer 缓冲区。
+     * @param offset 片段在缓冲区中的绝对起始位置。
+     * @param length 片段的长度。
+     * @throws IndexOutOfBoundsException 如果片段超出缓冲区的limit。
+     */
+    public AsciiCharSequence(ByteBuffer buffer, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > buffer.limit()) {
+            throw new IndexOutOfBoundsException(
+                    "offset " + offset + ", length " + length + ", limit " + buffer.limit());
+        }
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        return new AsciiCharSequence(buffer, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+}
@@ -38,6 +38,7 @@ public class ClassScanner {
     /**
      * 包含的包或类。
      */
+    @lombok.Getter
     @lombok.Setter
     private Set<String> includePackages = Collections.emptySet();
 
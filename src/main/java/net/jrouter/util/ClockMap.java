@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded concurrent cache that implements the {@code Map} interface with CLOCK (second chance) eviction,
+ * approximating LRU without an access-ordered list. Instances are thread-safe and need no external synchronization.
+ *
+ * <p>
+ * 条目存储于{@link ConcurrentHashMap}中，命中时不加锁，仅在条目的访问标记未设置时设置一次，之后的命中只读不写。
+ * 新增条目时按插入顺序进入环形队列，超出最大条目数时自队首淘汰：访问标记已设置的条目清除标记后移至队尾，
+ * 未设置的条目被淘汰。并发新增时条目数目可能短暂超出最大条目数。
+ * </p>
+ *
+ * <p>
+ * 指定{@link FrequencySketch}时，未命中及每轮首次命中时记录键的访问，新增的键的估计访问频率不高于将被淘汰的条目则淘汰新增的键
+ * （TinyLFU接纳策略），被保留的条目移至队尾。
+ * </p>
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ */
+public class ClockMap<K, V> extends AbstractMap<K, V> {
+
+    /**
+     * The max number of key-value mappings contained in this map.
+     */
+    private final int maxEntries;
+
+    /**
+     * 键与条目的映射
+     */
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+
+    /**
+     * 按插入顺序排列的条目，已删除的条目于淘汰时跳过
+     */
+    private final Queue<Node<K, V>> clock = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 队列中已删除条目的估计数目，超出最大条目数时清理队列
+     */
+    private final AtomicInteger deadNodes = new AtomicInteger();
+
+    /**
+     * 是否正在清理队列
+     */
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    /**
+     * 条目的数目
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * 淘汰（含接纳策略拒绝）的次数
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * 键的访问频率估计，为 null 则不使用接纳策略
+     */
+    private final FrequencySketch sketch;
+
+    /**
+     * entrySet views for adapting for the Map interface
+     */
+    private transient Set<Map.Entry<K, V>> entrySet = null;
+
+    /**
+     * 构造一个带指定最大条目数的空{@code ClockMap}实例。
+     * @param maxEntries 最大条目数。
+     */
+    public ClockMap(int maxEntries) {
+        this(128, maxEntries);
+    }
+
+    /**
+     * 构造一个带指定初始容量、最大条目数的空{@code ClockMap}实例。
+     * @param initialEntries 初始容量。
+     * @param maxEntries 最大条目数。
+     */
+    public ClockMap(int initialEntries, int maxEntries) {
+        this(initialEntries, maxEntries, null);
+    }
+
+    /**
+     * 构造一个带指定初始容量、最大条目数及访问频率估计的空{@code ClockMap}实例。
+     * @param initialEntries 初始容量。
+     * @param maxEntries 最大条目数。
+     * @param sketch 键的访问频率估计，为 null 则不使用接纳策略。
+     */
+    public ClockMap(int initialEntries, int maxEntries, FrequencySketch sketch) {
+        this.map = new ConcurrentHashMap<>(Math.max(0, Math.min(initialEntries, maxEntries)));
+        this.maxEntries = maxEntries;
+        this.sketch = sketch;
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            if (sketch != null && key != null) {
+                sketch.increment(key);
+            }
+            return null;
+        }
+        // 已设置则不再写入
+        if (!node.referenced) {
+            node.referenced = true;
+            if (sketch != null) {
+                sketch.increment(key);
+            }
+        }
+        return node.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (value == null) {
+            throw new NullPointerException();// NOPMD
+        }
+        Node<K, V> node = new Node<>(key, value);
+        Node<K, V> old = map.putIfAbsent(key, node);
+        if (old != null) {
+            // 替换原条目的值，保留其在队列中的位置
+            V v = old.value;
+            old.value = value;
+            return v;
+        }
+        clock.offer(node);
+        if (size.incrementAndGet() > maxEntries) {
+            evict(node);
+        }
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        Node<K, V> old = map.remove(key);
+        if (old == null) {
+            return null;
+        }
+        size.decrementAndGet();
+        markDead();
+        return old.value;
+    }
+
+    @Override
+    public int size() {
+        return Math.max(0, size.get());
+    }
+
+    @Override
+    public void clear() {
+        clock.clear();
+        for (K key : map.keySet()) {
+            remove(key);
+        }
+        deadNodes.set(0);
+    }
+
+    /**
+     * 记录队列中新增的已删除条目，超出最大条目数时清理队列，避免频繁新增及删除时队列无限增长。
+     */
+    private void markDead() {
+        if (deadNodes.incrementAndGet() > maxEntries && sweeping.compareAndSet(false, true)) {
+            try {
+                // 清理期间删除的条目可能被计入或重复计入，仅影响下次清理的时机
+                deadNodes.set(0);
+                for (Iterator<Node<K, V>> it = clock.iterator(); it.hasNext();) {
+                    Node<K, V> node = it.next();
+                    if (map.get(node.key) != node) {
+                        it.remove();
+                    }
+                }
+            }
+            finally {
+                sweeping.set(false);
+            }
+        }
+    }
+
+    /**
+     * 自队首淘汰条目直至条目数目不超出最大条目数。
+     * @param candidate 新增的条目。
+     */
+    private void evict(Node<K, V> candidate) {
+        while (size.get() > maxEntries) {
+            Node<K, V> node = clock.poll();
+            if (node == null) {
+                return;
+            }
+            // 已删除的条目
+            if (map.get(node.key) != node) {
+                deadNodes.decrementAndGet();
+                continue;
+            }
+            if (node.referenced) {
+                node.referenced = false;
+                clock.offer(node);
+            }
+            else if (candidate != null && candidate != node && reject(candidate, node)) {
+                // 拒绝新增的条目，保留原条目
+                clock.offer(node);
+                if (map.remove(candidate.key, candidate)) {
+                    size.decrementAndGet();
+                    evictions.increment();
+                    markDead();
+                }
+                candidate = null;
+            }
+            else if (map.remove(node.key, node)) {
+                size.decrementAndGet();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * 返回超出最大条目数而淘汰（含接纳策略拒绝）的条目数目。
+     * @return 淘汰的条目数目。
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * 判断是否拒绝新增的条目：新增的键的估计访问频率不高于将被淘汰的键。
+     */
+    private boolean reject(Node<K, V> candidate, Node<K, V> victim) {
+        return sketch != null && sketch.frequency(candidate.key) <= sketch.frequency(victim.key);
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> es = entrySet;
+        if (es == null) {
+            es = new AbstractSet<Map.Entry<K, V>>() {
+
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    Iterator<Node<K, V>> it = map.values().iterator();
+                    return new Iterator<Map.Entry<K, V>>() {
+
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<K, V> next() {
+                            Node<K, V> node = it.next();
+                            return new AbstractMap.SimpleImmutableEntry<>(node.key, node.value);
+                        }
+
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return ClockMap.this.size();
+                }
+
+            };
+            entrySet = es;
+        }
+        return es;
+    }
+
+    /**
+     * 缓存的条目。
+     */
+    private static final class Node<K, V> {
+
+        private final K key;
+
+        private volatile V value;
+
+        /**
+         * 访问标记，命中时设置，淘汰时清除
+         */
+        private volatile boolean referenced;
+
+        Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+    }
+
+}
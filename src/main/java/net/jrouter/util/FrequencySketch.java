@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A probabilistic multiset for estimating the popularity of keys (TinyLFU), used to decide whether a new key
+ * should be admitted into a bounded cache. Instances are thread-safe.
+ *
+ * <p>
+ * 以4位计数器的Count-Min Sketch估计键的访问频率：每个{@code long}含16个计数器，分为4组，每组4个；每个键按散列值选定一组，
+ * 4个深度各以不同的种子选取一个{@code long}，并取其中该组的第i个计数器（i为深度），估计值为这4个计数器中的最小值，
+ * 计数器上限为15。累计的访问次数达到采样数目（最大条目数的10倍）时所有计数器减半，使过去的访问频率随时间衰减。
+ * </p>
+ *
+ * <p>
+ * 缓存已满时，新键的估计频率高于将被淘汰的键才被接纳，一次性访问的键（如参数各不相同的路径）不会淘汰经常访问的键。
+ * </p>
+ */
+public class FrequencySketch {
+
+    /**
+     * 计数器的散列种子
+     */
+    private static final long[] SEED = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    /**
+     * 减半时清除每个计数器最高位的掩码
+     */
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    /**
+     * 每个{@code long}中4位计数器的数目
+     */
+    private static final int COUNTERS = 16;
+
+    /**
+     * 计数器的最大值
+     */
+    private static final int MAX_COUNT = 15;
+
+    /**
+     * 计数器表，每个{@code long}包含16个4位计数器
+     */
+    private final AtomicLongArray table;
+
+    /**
+     * 计数器表的长度掩码
+     */
+    private final int tableMask;
+
+    /**
+     * 计数器减半前累计的访问次数
+     */
+    private final int sampleSize;
+
+    /**
+     * 自上次减半累计的访问次数
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * 构造一个估计指定最大条目数缓存中键的访问频率的实例。
+     * @param maxEntries 缓存的最大条目数。
+     */
+    public FrequencySketch(int maxEntries) {
+        int n = Math.max(1, maxEntries);
+        int length = n >= 1 << 30 ? 1 << 30 : Integer.highestOneBit(n - 1) << 1;
+        this.table = new AtomicLongArray(Math.max(8, length));
+        this.tableMask = table.length() - 1;
+        this.sampleSize = (int) Math.min(10L * n, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 返回键的估计访问频率，至多为15。
+     * @param key 键。
+     * @return 估计访问频率。
+     */
+    public int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table.get(index) >>> ((start + i) << 2)) & MAX_COUNT);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * 记录键的一次访问；计数器均已达上限时不再累加。
+     * @param key 键。
+     */
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && size.incrementAndGet() >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * 累加指定位置的计数器。
+     * @param i 计数器表的索引。
+     * @param j 计数器于{@code long}中的序号。
+     * @return 未达上限并累加则返回{@code true}。
+     */
+    private boolean incrementAt(int i, int j) {
+        int offset = j << 2;
+        long mask = (long) MAX_COUNT << offset;
+        for (;;) {
+            long value = table.get(i);
+            if ((value & mask) == mask) {
+                return false;
+            }
+            if (table.compareAndSet(i, value, value + (1L << offset))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 所有计数器减半。
+     */
+    private synchronized void reset() {
+        if (size.get() < sampleSize) {
+            return;
+        }
+        for (int i = 0; i < table.length(); i++) {
+            for (;;) {
+                long value = table.get(i);
+                if (table.compareAndSet(i, value, (value >>> 1) & RESET_MASK)) {
+                    break;
+                }
+            }
+        }
+        size.set(size.get() >>> 1);
+    }
+
+    /**
+     * 计数器表中指定深度的索引。
+     */
+    private int indexOf(int hash, int depth) {
+        long h = (hash + SEED[depth]) * SEED[depth];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+    @Override
+    public String toString() {
+        return "FrequencySketch{" + "counters=" + table.length() * COUNTERS + ", sampleSize=" + sampleSize + '}';
+    }
+
+}
@@ -25,6 +25,10 @@ import java.util.Map;
  * thread-safe and should be synchronized externally, for instance by using
  * {@link java.util.Collections#synchronizedMap}.
  *
+ * <p>
+ * 指定{@link FrequencySketch}时，缓存已满后新增的键的估计访问频率不高于最久未访问的键则淘汰新增的键（TinyLFU接纳策略）。
+ * </p>
+ *
  * @param <K> the type of keys maintained by this map
  * @param <V> the type of mapped values
  */
@@ -37,6 +41,21 @@ public class LRUMap<K, V> extends LinkedHashMap<K, V> {
      */
     private final int maxEntries;
 
+    /**
+     * 键的访问频率估计，为 null 则不使用接纳策略
+     */
+    private final transient FrequencySketch sketch;
+
+    /**
+     * 正在添加的键
+     */
+    private transient K candidate;
+
+    /**
+     * 淘汰（含接纳策略拒绝）的次数
+     */
+    private transient long evictions;
+
     /**
      * 构造一个带指定最大条目数的空{@code LRUMap}实例。
      * @param maxEntries 最大条目数。
@@ -51,13 +70,63 @@ public class LRUMap<K, V> extends LinkedHashMap<K, V> {
      * @param maxEntries 最大条目数。
      */
     public LRUMap(int initialEntries, int maxEntries) {
+        this(initialEntries, maxEntries, null);
+    }
+
+    /**
+     * 构造一个带指定初始容量、最大条目数及访问频率估计的空{@code LRUMap}实例。
+     * @param initialEntries 初始容量。
+     * @param maxEntries 最大条目数。
+     * @param sketch 键的访问频率估计，为 null 则不使用接纳策略。
+     */
+    public LRUMap(int initialEntries, int maxEntries, FrequencySketch sketch) {
         super(initialEntries, .75f, true);
         this.maxEntries = maxEntries;
+        this.sketch = sketch;
+    }
+
+    @Override
+    public V get(Object key) {
+        if (sketch != null && key != null) {
+            sketch.increment(key);
+        }
+        return super.get(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        candidate = key;
+        try {
+            return super.put(key, value);
+        }
+        finally {
+            candidate = null;
+        }
     }
 
     @Override
     protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
-        return size() > maxEntries;
+        if (size() <= maxEntries) {
+            return false;
+        }
+        K key = candidate;
+        if (sketch != null && key != null && !key.equals(eldest.getKey())
+                && sketch.frequency(key) <= sketch.frequency(eldest.getKey())) {
+            // 拒绝新增的键
+            remove(key);
+            evictions++;
+            return false;
+        }
+        evictions++;
+        return true;
+    }
+
+    /**
+     * 返回超出最大条目数而淘汰（含接纳策略拒绝）的条目数目。
+     * @return 淘汰的条目数目。
+     */
+    public long getEvictionCount() {
+        return evictions;
     }
 
 }
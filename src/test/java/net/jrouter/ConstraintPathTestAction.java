@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter;
+
+import net.jrouter.annotation.Action;
+
+/**
+ * 带约束的匹配路径的测试Action。
+ */
+public class ConstraintPathTestAction {
+
+    @Action("/item/{id:int}")
+    public String itemId() {
+        return "/item/{id:int}";
+    }
+
+    @Action("/item/{slug:[a-z-]+}")
+    public String itemSlug() {
+        return "/item/{slug:[a-z-]+}";
+    }
+
+    @Action("/item/list")
+    public String itemList() {
+        return "/item/list";
+    }
+
+    @Action("/item/{uid:uuid}/detail")
+    public String itemUuid() {
+        return "/item/{uid:uuid}/detail";
+    }
+
+    @Action("/item/*/detail")
+    public String itemDetail() {
+        return "/item/*/detail";
+    }
+
+    @Action("/Code/{code:[A-Z]+}")
+    public String code() {
+        return "/Code/{code:[A-Z]+}";
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter;
+
+import net.jrouter.annotation.Action;
+
+/**
+ * 以路由键区分相同路径的测试Action。
+ */
+public class RouteKeyTestAction {
+
+    public static final int GET = 1;
+
+    public static final int POST = 2;
+
+    public static final int HOST_A = 10;
+
+    @Action(value = "/user/{id}", routeKeys = GET)
+    public String getUser() {
+        return "GET /user/{id}";
+    }
+
+    @Action(value = "/user/{id}", routeKeys = POST)
+    public String postUser() {
+        return "POST /user/{id}";
+    }
+
+    @Action(value = "/user/{id}", routeKeys = { GET, HOST_A })
+    public String getUserOfHost() {
+        return "GET A /user/{id}";
+    }
+
+    @Action(value = "/user/{id}")
+    public String anyUser() {
+        return "/user/{id}";
+    }
+
+    @Action(value = "/host", routeKeys = { Action.ANY_ROUTE_KEY, HOST_A })
+    public String host() {
+        return "* A /host";
+    }
+
+}
@@ -17,12 +17,18 @@
 
 package net.jrouter.config;
 
+import net.jrouter.ObjectFactory;
 import net.jrouter.impl.InterceptorProxy;
 import net.jrouter.impl.PathActionFactory;
+import net.jrouter.impl.PathActionProxy;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -60,6 +66,131 @@ public class ConfigurationAopTest extends Assert {
         assertInterceptorProxies("/aa/b5/*/*/*/*", "[]");
     }
 
+    /**
+     * 测试路径相同、路由键不同的Action均设置aop的拦截器集合。
+     */
+    @Test
+    public void test_aopRouteKeyActions() {
+        List<PathActionProxy> aps = factory.getAllActions().get("/user/{id}");
+        assertEquals(4, aps.size());
+        for (PathActionProxy ap : aps) {
+            assertEquals(ap.getMethodInfo(), "[timer]", interceptorsToString(ap.getInterceptorProxies()));
+        }
+        assertEquals(1, factory.getAllActions().get("/host").size());
+        assertInterceptorProxies("/host", "[]");
+    }
+
+    /**
+     * 测试路由快照：首次构建写入快照，再次构建由快照设置拦截器集合；快照与Action不一致时回退至aop匹配。
+     */
+    @Test
+    public void test_routeSnapshot() throws Exception {
+        File file = File.createTempFile("jrouter", ".snapshot");
+        assertTrue(file.delete());
+        try {
+            Configuration c = new Configuration().load("/jrouter_aop.xml");
+            c.setRouteSnapshotFile(file);
+            PathActionFactory f1 = c.buildActionFactory();
+            RouteSnapshot snapshot = RouteSnapshot.read(file);
+            assertNotNull(snapshot);
+            assertEquals(countActions(f1), snapshot.getRoutes().size());
+            assertTrue(f1.getActions().size() < snapshot.getRoutes().size());
+            assertFalse(snapshot.getComponentClasses().isEmpty());
+            f1.clear();
+
+            // 篡改快照的拦截器集合，验证由快照获取
+            List<RouteSnapshot.Route> routes = new ArrayList<>();
+            for (RouteSnapshot.Route r : snapshot.getRoutes()) {
+                if ("/test/simple".equals(r.getPath())) {
+                    r = new RouteSnapshot.Route(r.getPath(), r.getClassName(), r.getMethod(), Arrays.asList("timer"));
+                }
+                // 路径相同、路由键不同的Action以方法区分
+                else if ("/user/{id}".equals(r.getPath()) && r.getMethod().startsWith("postUser")) {
+                    r = new RouteSnapshot.Route(r.getPath(), r.getClassName(), r.getMethod(), Arrays.asList("demo"));
+                }
+                routes.add(r);
+            }
+            new RouteSnapshot(snapshot.getFingerprint(), snapshot.getComponentClasses(), routes).write(file);
+            PathActionFactory f2 = c.buildActionFactory();
+            assertEquals("[timer]", interceptorsToString(f2.getActions().get("/test/simple").getInterceptorProxies()));
+            assertEquals("[timer, timer, springInject, logging]",
+                    interceptorsToString(f2.getActions().get("/test/param").getInterceptorProxies()));
+            for (PathActionProxy ap : f2.getAllActions().get("/user/{id}")) {
+                assertEquals(ap.getMethodInfo(), "postUser".equals(ap.getMethod().getName()) ? "[demo]" : "[timer]",
+                        interceptorsToString(ap.getInterceptorProxies()));
+            }
+            f2.clear();
+
+            // 不一致的快照
+            routes.remove(0);
+            new RouteSnapshot(snapshot.getFingerprint(), snapshot.getComponentClasses(), routes).write(file);
+            PathActionFactory f3 = c.buildActionFactory();
+            assertEquals("[demo, springInject]",
+                    interceptorsToString(f3.getActions().get("/test/simple").getInterceptorProxies()));
+            assertEquals(countActions(f3), RouteSnapshot.read(file).getRoutes().size());
+            f3.clear();
+        }
+        finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    /**
+     * 测试路由快照的指纹：以新的配置对象构建两次，非标量的属性值（ObjectFactory实例）不影响指纹。
+     */
+    @Test
+    public void test_routeSnapshotFingerprint() throws Exception {
+        File file = File.createTempFile("jrouter", ".snapshot");
+        assertTrue(file.delete());
+        try {
+            long[] fingerprints = new long[2];
+            for (int i = 0; i < fingerprints.length; i++) {
+                Configuration c = new Configuration().load("/jrouter_aop.xml");
+                c.addActionFactoryProperties(Collections.<String, Object>singletonMap("objectFactory",
+                        new TestObjectFactory()));
+                c.setRouteSnapshotFile(file);
+                c.buildActionFactory().clear();
+                fingerprints[i] = RouteSnapshot.read(file).getFingerprint();
+            }
+            assertEquals(fingerprints[0], fingerprints[1]);
+        }
+        finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    /**
+     * 以默认toString（含哈希值）描述的ObjectFactory。
+     */
+    private static final class TestObjectFactory implements ObjectFactory {
+
+        @Override
+        public <T> T newInstance(Class<T> clazz) {
+            try {
+                return clazz.newInstance();
+            }
+            catch (InstantiationException | IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public Class<?> getClass(Object obj) {
+            return obj.getClass();
+        }
+    }
+
+    /**
+     * 包括路径相同、路由键不同的Action的数目。
+     */
+    private static int countActions(PathActionFactory factory) {
+        int count = 0;
+        for (List<PathActionProxy> aps : factory.getAllActions().values()) {
+            count += aps.size();
+        }
+        return count;
+    }
+
     /**
      * 测试指定path的action的拦截器集合。
      */
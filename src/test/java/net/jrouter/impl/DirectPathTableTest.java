@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static net.jrouter.impl.PathTreeTest.PATHS;
+import static org.junit.Assert.*;
+
+/**
+ * DirectPathTable堆外路径表的测试，匹配结果须与{@link PathTrie}一致。
+ */
+public class DirectPathTableTest {
+
+    private PathTrie<String> trie;
+
+    private PathTrie<String> direct;
+
+    @Before
+    public void init() {
+        trie = new PathTrie<>();
+        direct = new PathTrie<>(PathTree.PATH_SEPARATOR, false, true);
+        for (String p : PATHS) {
+            trie.put(p, p);
+            direct.put(p, p);
+        }
+        for (String p : new String[] { "/aa/b3/{id:int}/d1", "/static/**", "/files/{path:**}" }) {
+            trie.put(p, p);
+            direct.put(p, p);
+        }
+    }
+
+    /**
+     * 测试查询及匹配参数，与路径树结果比较。
+     */
+    @Test
+    public void testGet() {
+        String[] paths = { "/xx/yy/zz", "/aa/b1/c1/d0", "/aa/b3/12/d1", "/aa/b3/c1/d1", "/aa/b3/c1/d1/e1",
+                "/aa/b4/null/d2/null", "/aa/zzz/c1/d1/e1/null/null/null", "/aa/b5/1/2/3/4", "//xx//yy/zz/",
+                "/static/js/lib/a.js", "/files/a/b/c.txt", "/static", "/xx/yyy/zz", "/", "", "//", "/zzz/null" };
+        for (String p : paths) {
+            Map<String, String> expected = new HashMap<>();
+            Map<String, String> actual = new HashMap<>();
+            assertEquals(p, trie.get(p, expected), direct.get(p, actual));
+            assertEquals(p, expected, actual);
+        }
+        assertNull(direct.get("/"));
+        PathTrie<String> root = new PathTrie<>(PathTree.PATH_SEPARATOR, false, true);
+        assertNull(root.put("/", "root"));
+        assertEquals("root", root.get("/"));
+    }
+
+    /**
+     * 测试路径表的构建：节点释放、全路径，创建路径表后只读。
+     */
+    @Test
+    public void testTable() {
+        PathTrie.Snapshot<String> snapshot = direct.snapshot();
+        assertTrue(snapshot.isDirect());
+        // 创建路径表前可修改，由节点遍历
+        assertEquals(trie.snapshot().entries(), snapshot.entries());
+        assertEquals("/aa/b3/{id:int}/d1", direct.remove("/aa/b3/{x:int}/d1"));
+        assertNull(direct.put("/aa/b3/{id:int}/d1", "/aa/b3/{id:int}/d1"));
+        snapshot = direct.snapshot();
+        DirectPathTable<String> table = snapshot.table();
+        assertSame(table, snapshot.table());
+        assertEquals(trie.snapshot().size(), table.size());
+        assertTrue(table.memorySize() > 0);
+        // entries in same order
+        assertEquals(trie.snapshot().entries(), snapshot.entries());
+        // exact path not indexed
+        assertNull(snapshot.staticIndex().get("/xx/yy/zz"));
+        int slot = table.find("/aa/b3/12/d1", 12);
+        assertEquals("/aa/b3/{id:int}/d1", table.getValue(slot));
+        assertEquals("/aa/b3/{id:int}/d1", table.getPath(slot));
+        assertEquals(-1, table.find("/aa/b3/12/d1", 6));
+        try {
+            snapshot.find("/xx/yy/zz", 9);
+            fail("no exception");
+        }
+        catch (UnsupportedOperationException e) {
+            assertNotNull(e);
+        }
+
+        // 创建路径表后只读
+        for (Runnable write : new Runnable[] { () -> direct.remove("/aa/b3/{x:int}/d1"),
+                () -> direct.put("/new", "new"),
+                () -> direct.putAll(Collections.singletonList("/new"), Collections.singletonList("new")) }) {
+            try {
+                write.run();
+                fail("no exception");
+            }
+            catch (IllegalStateException e) {
+                assertNotNull(e);
+            }
+        }
+        assertEquals("/aa/b3/{id:int}/d1", direct.get("/aa/b3/12/d1"));
+        assertEquals(trie.snapshot().size(), direct.snapshot().entries().size());
+        direct.clear();
+        assertNull(direct.get("/xx/yy/zz"));
+        assertEquals(0, direct.snapshot().table().size());
+        direct.clear();
+        assertNull(direct.put("/new", "new"));
+        assertEquals("new", direct.get("/new"));
+    }
+
+}
@@ -18,6 +18,7 @@
 package net.jrouter.impl;
 
 import net.jrouter.JRouterException;
+import net.jrouter.NotFoundException;
 import net.jrouter.interceptor.DemoThreadActionContextInterceptor;
 import net.jrouter.result.DefaultResult;
 import org.junit.After;
@@ -26,6 +27,8 @@ import org.junit.Test;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static net.jrouter.impl.PathTreeTest.PATHS;
 import static org.junit.Assert.*;
@@ -100,6 +103,462 @@ public class PathActionFactoryTest {
         assertEquals("/aa/*/c1/d1/e1", factory.invokeAction("/aa/null/c1/d1/e1"));
     }
 
+    /**
+     * 测试以确定性自动机查询路径，结果与默认方式一致。
+     */
+    @Test
+    public void test_compiledRouting() {
+        PathActionFactory.Properties prop = new PathActionFactory.Properties();
+        prop.setExtension("");
+        prop.setActionCacheNumber(0);
+        prop.setCompiledRouting(true);
+        PathActionFactory compiled = new PathActionFactory(prop);
+        compiled.addActions(net.jrouter.PathTestAction.class);
+        assertTrue(compiled.isCompiledRouting());
+        for (String p : new String[] { "/zzz", "/aa/b3/c1/d1", "/aa/b3/null/d1/null", "/aa/b4/c1/d1/e1",
+                "/aa/b4/null/d2/null", "/aa/null/c1/d1/e1", "/aa/b5/1/2/3/4" }) {
+            assertEquals(p, (Object) factory.invokeAction(p), compiled.invokeAction(p));
+        }
+        compiled.clear();
+    }
+
+    /**
+     * 测试转存至堆外路径表查询，结果与默认方式一致；首次调用后路径表只读，清除后可再添加Action。
+     */
+    @Test
+    public void test_directRouting() {
+        PathActionFactory.Properties prop = new PathActionFactory.Properties();
+        prop.setExtension("");
+        prop.setDirectRouting(true);
+        prop.setActionCacheNumber(4);
+        PathActionFactory direct = new PathActionFactory(prop);
+        direct.addActions(net.jrouter.PathTestAction.class);
+        // 调用前可多次添加
+        direct.addActions(net.jrouter.ConstraintPathTestAction.class);
+        assertNotNull(direct.removeAction("/Code/{code:[A-Z]+}"));
+        assertNotNull(direct.removeAction("/item/*/detail"));
+        assertTrue(direct.isDirectRouting());
+        for (String p : new String[] { "/zzz", "/xx/yy/zz", "/aa/b3/c1/d1", "/aa/b3/null/d1/null",
+                "/aa/b4/c1/d1/e1", "/aa/b4/null/d2/null", "/aa/null/c1/d1/e1", "/aa/b5/1/2/3/4" }) {
+            assertEquals(p, (Object) factory.invokeAction(p), direct.invokeAction(p));
+            assertEquals(p, (Object) factory.invokeAction(new StringBuilder(p)),
+                    direct.invokeAction(new StringBuilder(p)));
+        }
+        assertEquals("/item/{id:int}", direct.invokeAction("/item/12"));
+        assertEquals(factory.getActions().size() + 4, direct.getActions().size());
+        // 全路径的缓存限制数目
+        for (String p : direct.getActions().keySet()) {
+            if (StaticPathIndex.isStaticPath(p, direct.getPathSeparator())) {
+                direct.invokeAction(p);
+            }
+        }
+        ActionCacheStats.Tier full = direct.getActionCacheStats().getFullPath();
+        assertTrue(full.getInsertCount() > 4);
+        assertTrue(full.getSize() <= 4);
+        try {
+            direct.removeAction("/aa/b3/{k}/d1");
+            fail("no exception");
+        }
+        catch (IllegalStateException e) {
+            assertNotNull(e);
+        }
+        assertEquals("/aa/b3/*/d1", direct.invokeAction("/aa/b3/c1/d1"));
+        direct.clear();
+        direct.addActions(net.jrouter.PathTestAction.class);
+        assertEquals(factory.getActions().keySet(), direct.getActions().keySet());
+        assertEquals("/aa/b3/*/d1", direct.invokeAction("/aa/b3/c1/d1"));
+        direct.clear();
+    }
+
+    /**
+     * 测试路径预过滤器排除无法匹配的路径，不写入缓存。
+     */
+    @Test
+    public void test_routeFilter() {
+        PathActionFactory.Properties prop = new PathActionFactory.Properties();
+        prop.setExtension("");
+        prop.setRouteFilter(true);
+        prop.setNotFoundCacheNumber(16);
+        PathActionFactory filtered = new PathActionFactory(prop);
+        filtered.addActions(net.jrouter.PathTestAction.class);
+        assertTrue(filtered.isRouteFilter());
+        for (String p : new String[] { "/zzz", "/aa/b3/c1/d1", "/aa/b4/null/d2/null", "/aa/b5/1/2/3/4" }) {
+            assertEquals(p, (Object) factory.invokeAction(p), filtered.invokeAction(p));
+        }
+        assertEquals(0, filtered.getRouteFilterRejects());
+        // '/{k1}' accepts any single segment
+        assertEquals("/{k1}", filtered.invokeAction("/wp-login.php"));
+        for (String p : new String[] { "/wp/admin/setup/install/x/y/z/1", "/cgi-bin/a/b/c/d/e/f/g" }) {
+            try {
+                filtered.invokeAction(p);
+                fail("no exception");
+            }
+            catch (NotFoundException e) {
+                assertNotNull(e);
+            }
+            try {
+                filtered.invokeAction(new StringBuilder(p));
+                fail("no exception");
+            }
+            catch (NotFoundException e) {
+                assertNotNull(e);
+            }
+        }
+        assertEquals(4, filtered.getRouteFilterRejects() + filtered.getRouteFilterFalsePositives());
+        assertFalse(filtered.getActionCache().containsKey("/cgi-bin/a/b/c/d/e/f/g"));
+        // 仅路径映射未匹配的路径写入负缓存，预过滤器排除的路径不写入
+        assertEquals(filtered.getRouteFilterFalsePositives() / 2,
+                filtered.getActionCacheStats().getNotFound().getInsertCount());
+        filtered.clear();
+    }
+
+    /**
+     * 测试无锁的CLOCK淘汰缓存。
+     */
+    @Test
+    public void test_actionCacheType() {
+        assertEquals("lru", factory.getActionCacheType());
+        PathActionFactory.Properties prop = new PathActionFactory.Properties();
+        prop.setExtension("");
+        prop.setActionCacheNumber(2);
+        prop.setActionCacheType("clock");
+        PathActionFactory clock = new PathActionFactory(prop);
+        clock.addActions(net.jrouter.PathTestAction.class);
+        assertEquals("clock", clock.getActionCacheType());
+        for (String p : new String[] { "/aa/b3/c1/d1", "/aa/b4/null/d2/null", "/aa/b5/1/2/3/4", "/aa/b3/c1/d1" }) {
+            assertEquals(p, (Object) factory.invokeAction(p), clock.invokeAction(p));
+        }
+        assertEquals(2, clock.getActionCache().size());
+        assertTrue(clock.getActionCache().containsKey("/aa/b3/c1/d1"));
+        clock.clear();
+        assertTrue(clock.getActionCache().isEmpty());
+
+        // TinyLFU admission, "/aa/b4/null/d2/null" not admitted
+        prop.setActionCacheAdmission(true);
+        PathActionFactory admission = new PathActionFactory(prop);
+        admission.addActions(net.jrouter.PathTestAction.class);
+        assertTrue(admission.isActionCacheAdmission());
+        for (String p : new String[] { "/aa/b3/c1/d1", "/aa/b3/c1/d1", "/aa/b5/1/2/3/4", "/aa/b5/1/2/3/4",
+            "/aa/b4/null/d2/null" }) {
+            assertEquals(p, (Object) factory.invokeAction(p), admission.invokeAction(p));
+        }
+        assertEquals(2, admission.getActionCache().size());
+        assertFalse(admission.getActionCache().containsKey("/aa/b4/null/d2/null"));
+        admission.clear();
+
+        prop.setActionCacheType("unknown");
+        try {
+            new PathActionFactory(prop);
+            fail("no exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertNotNull(e);
+        }
+    }
+
+    /**
+     * 测试未匹配路径的负缓存及不记录栈轨迹的异常。
+     */
+    @Test
+    public void test_notFoundCache() {
+        PathActionFactory.Properties prop = new PathActionFactory.Properties();
+        prop.setExtension("");
+        prop.setNotFoundCacheNumber(16);
+        prop.setStacklessNotFound(true);
+        PathActionFactory stackless = new PathActionFactory(prop);
+        stackless.addActions(net.jrouter.PathTestAction.class);
+        assertEquals(16, stackless.getNotFoundCacheNumber());
+        assertTrue(stackless.isStacklessNotFound());
+        String missed = "/aa/b1/c1/d1/e1/f1/g1/h1";
+        NotFoundException first = null;
+        for (int i = 0; i < 3; i++) {
+            try {
+                stackless.invokeAction(missed);
+                fail("no exception");
+            }
+            catch (NotFoundException e) {
+                assertEquals(0, e.getStackTrace().length);
+                assertEquals("No such Action : " + missed, e.getMessage());
+                if (first == null) {
+                    first = e;
+                }
+                else {
+                    // cached miss, new exception
+                    assertNotSame(first, e);
+                }
+            }
+        }
+        assertFalse(stackless.getActionCache().containsKey(missed));
+        try {
+            stackless.invokeAction(new StringBuilder(missed));
+            fail("no exception");
+        }
+        catch (NotFoundException e) {
+            assertEquals(0, e.getStackTrace().length);
+            assertNotSame(first, e);
+        }
+        // invalidated after adding Action
+        stackless.addActions(MissedPathAction.class);
+        assertEquals("h", stackless.invokeAction(missed));
+        stackless.clear();
+
+        // negative cache with stack traces
+        prop.setStacklessNotFound(false);
+        PathActionFactory cached = new PathActionFactory(prop);
+        cached.addActions(net.jrouter.PathTestAction.class);
+        NotFoundException e1 = null;
+        for (int i = 0; i < 2; i++) {
+            try {
+                cached.invokeAction(missed);
+                fail("no exception");
+            }
+            catch (NotFoundException e) {
+                assertTrue(e.getStackTrace().length > 0);
+                assertNotSame(e1, e);
+                e1 = e;
+            }
+        }
+        cached.clear();
+    }
+
+    /**
+     * 测试路径缓存的统计。
+     */
+    @Test
+    public void test_actionCacheStats() {
+        PathActionFactory.Properties prop = new PathActionFactory.Properties();
+        prop.setExtension("");
+        prop.setActionCacheNumber(1);
+        prop.setNotFoundCacheNumber(4);
+        PathActionFactory stats = new PathActionFactory(prop);
+        stats.addActions(net.jrouter.PathTestAction.class);
+        for (String p : new String[] { "/aa/b3/c1/d1", "/aa/b3/c1/d1", "/aa/b4/null/d2/null", "/aa/b4/null/d2/null",
+            "/aa/b5/1/2/3/4", "/aa/b4/null/d2/null" }) {
+            stats.invokeAction(p);
+        }
+        for (int i = 0; i < 2; i++) {
+            try {
+                stats.invokeAction("/aa/b1/c1/d1/e1/f1/g1/h1");
+                fail("no exception");
+            }
+            catch (NotFoundException e) {
+                assertNotNull(e);
+            }
+        }
+        ActionCacheStats s = stats.getActionCacheStats();
+        // '*' also records path parameters
+        assertEquals(0, s.getFullPath().getHitCount());
+        assertEquals(8, s.getFullPath().getMissCount());
+        assertEquals(0, s.getFullPath().getInsertCount());
+        assertEquals(0, s.getFullPath().getEvictionCount());
+
+        assertEquals(2, s.getMatchedPath().getHitCount());
+        assertEquals(6, s.getMatchedPath().getMissCount());
+        assertEquals(4, s.getMatchedPath().getInsertCount());
+        assertEquals(3, s.getMatchedPath().getEvictionCount());
+        assertEquals(1, s.getMatchedPath().getSize());
+        assertEquals(0.25, s.getMatchedPath().getHitRate(), 0.0001);
+
+        // probed after each action cache miss
+        assertEquals(1, s.getNotFound().getHitCount());
+        assertEquals(5, s.getNotFound().getMissCount());
+        assertEquals(1, s.getNotFound().getInsertCount());
+        assertEquals(1, s.getNotFound().getSize());
+
+        // stale entries after adding Action are misses
+        stats.addActions(MissedPathAction.class);
+        stats.invokeAction("/aa/b1/c1/d1/e1/f1/g1/h1");
+        s = stats.getActionCacheStats();
+        assertEquals(0, s.getNotFound().getSize());
+        assertEquals(1, s.getNotFound().getHitCount());
+        stats.clear();
+        // empty not found cache
+        assertEquals(0, factory.getActionCacheStats().getNotFound().getSize());
+        assertEquals(0, factory.getActionCacheStats().getNotFound().getHitRate(), 0);
+    }
+
+    /**
+     * 测试线程独享的路径缓存：重复调用不查询共享的缓存，版本号或清除缓存后失效，清除后替换。
+     */
+    @Test
+    public void test_threadActionCache() throws Exception {
+        PathActionFactory.Properties prop = new PathActionFactory.Properties();
+        prop.setExtension("");
+        prop.setThreadActionCacheSize(3);
+        PathActionFactory local = new PathActionFactory(prop);
+        local.addActions(net.jrouter.PathTestAction.class);
+        assertEquals(3, local.getThreadActionCacheSize());
+        String path = "/aa/b4/null/d2/null";
+        for (int i = 0; i < 3; i++) {
+            assertEquals(factory.invokeAction(path), (Object) local.invokeAction(path));
+            assertEquals("null", getPathParameters().get("k1"));
+        }
+        ActionCacheStats.Tier tier = local.getActionCacheStats().getMatchedPath();
+        assertEquals(0, tier.getHitCount());
+        assertEquals(1, tier.getMissCount());
+
+        // another thread
+        Thread t = new Thread(() -> local.invokeAction(path));
+        t.start();
+        t.join();
+        tier = local.getActionCacheStats().getMatchedPath();
+        assertEquals(1, tier.getHitCount());
+
+        local.clearActionCache();
+        local.invokeAction(path);
+        assertEquals(2, local.getActionCacheStats().getMatchedPath().getMissCount());
+
+        // new snapshot version
+        assertNotNull(local.removeAction("/aa/b4/{k1}/d2/{k2}"));
+        assertEquals("/aa/b4/{k1}/d2", local.invokeAction("/aa/b4/null/d2"));
+        try {
+            local.invokeAction(path);
+            fail("no exception");
+        }
+        catch (NotFoundException e) {
+            assertNotNull(e);
+        }
+        // 清除后替换线程缓存
+        local.clear();
+        local.addActions(net.jrouter.PathTestAction.class);
+        long missed = local.getActionCacheStats().getMatchedPath().getMissCount();
+        assertEquals(factory.invokeAction(path), (Object) local.invokeAction(path));
+        assertEquals(factory.invokeAction(path), (Object) local.invokeAction(path));
+        assertEquals(missed + 1, local.getActionCacheStats().getMatchedPath().getMissCount());
+        local.clear();
+    }
+
+    /**
+     * 测试确切路径由索引获取，不写入缓存。
+     */
+    @Test
+    public void test_staticPath() {
+        factory.clearActionCache();
+        assertEquals("/xx/yy/zz", factory.invokeAction("/xx/yy/zz"));
+        assertEquals("/aa/b1/c1/d0", factory.invokeAction("/aa/b1/c1/d0"));
+        assertTrue(factory.getActionCache().isEmpty());
+
+        assertEquals("/aa/b3/*/d1", factory.invokeAction("/aa/b3/c1/d1"));
+        assertEquals(1, factory.getActionCache().size());
+        assertTrue(factory.getActionCache().containsKey("/aa/b3/c1/d1"));
+        // not normalized static path
+        assertEquals("/xx/yy/zz", factory.invokeAction("/xx//yy/zz/"));
+        assertEquals(2, factory.getActionCache().size());
+    }
+
+    /**
+     * 测试运行时删除及添加Action，原有缓存失效。
+     */
+    @Test
+    public void test_addRemoveAction() {
+        assertEquals("/aa/b3/*/d1", factory.invokeAction("/aa/b3/c1/d1"));
+        assertTrue(factory.getActionCache().containsKey("/aa/b3/c1/d1"));
+        int size = factory.getActions().size();
+
+        PathActionProxy ap = factory.removeAction("/aa/b3/{k}/d1");
+        assertNotNull(ap);
+        assertEquals("/aa/b3/*/d1", ap.getPath());
+        assertNull(factory.removeAction("/aa/b3/*/d1"));
+        assertNull(factory.removeAction("/aa/b3/c1"));
+        assertEquals(size - 1, factory.getActions().size());
+        assertFalse(factory.getActions().containsKey("/aa/b3/*/d1"));
+        assertTrue(factory.getActionCache().isEmpty());
+        assertEquals("/aa/*/c1/d1", factory.invokeAction("/aa/b3/c1/d1"));
+
+        // static path
+        PathActionProxy staticAp = factory.removeAction("/xx/yy/zz");
+        assertNotNull(staticAp);
+        try {
+            factory.invokeAction("/xx/yy/zz");
+            fail("no exception");
+        }
+        catch (JRouterException e) {
+            assertNotNull(e);
+        }
+
+        factory.addAction(ap, staticAp);
+        assertEquals(size, factory.getActions().size());
+        assertEquals("/aa/b3/*/d1", factory.invokeAction("/aa/b3/c1/d1"));
+        assertEquals("/xx/yy/zz", factory.invokeAction("/xx/yy/zz"));
+    }
+
+    /**
+     * 测试调用Action时并发删除及添加Action。
+     */
+    @Test
+    public void test_concurrentAddRemoveAction() throws InterruptedException {
+        final String path = "/aa/b3/c1/d1";
+        final PathActionProxy ap = factory.removeAction("/aa/b3/*/d1");
+        // 删除后匹配的Action
+        final Object fallback = factory.invokeAction(path);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        Thread[] readers = new Thread[4];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        for (String p : PATHS) {
+                            if (!p.equals(ap.getPath())) {
+                                assertEquals(p, factory.invokeAction(p));
+                            }
+                        }
+                        Object res = factory.invokeAction(path);
+                        assertTrue(String.valueOf(res), ap.getPath().equals(res) || fallback.equals(res));
+                    }
+                }
+                catch (Throwable e) {
+                    error.compareAndSet(null, e);
+                }
+            });
+            readers[i].start();
+        }
+        for (int i = 0; i < 200; i++) {
+            factory.addAction(ap);
+            assertEquals(ap, factory.removeAction(ap.getPath()));
+        }
+        running.set(false);
+        for (Thread t : readers) {
+            t.join();
+        }
+        assertNull(error.get());
+    }
+
+    /**
+     * 测试带约束的匹配路径。
+     */
+    @Test
+    public void test_constraintPath() {
+        factory.addActions(net.jrouter.ConstraintPathTestAction.class);
+        assertEquals("/item/list", factory.invokeAction("/item/list"));
+        assertEquals("/item/{id:int}", factory.invokeAction("/item/-123"));
+        assertEquals("-123", getPathParameters().get("id"));
+        assertEquals("/item/{slug:[a-z-]+}", factory.invokeAction("/item/new-item"));
+        assertEquals("new-item", getPathParameters().get("slug"));
+        // neither int nor slug
+        for (String path : new String[] { "/item/Item_1", "/item/2147483648" }) {
+            try {
+                factory.invokeAction(path);
+                fail("no exception");
+            }
+            catch (JRouterException e) {
+                assertTrue(e.getMessage().startsWith("No such Action"));
+            }
+        }
+
+        String uuid = "0f8fad5b-d9cb-469f-a165-70867728950e";
+        assertEquals("/item/{uid:uuid}/detail", factory.invokeAction("/item/" + uuid + "/detail"));
+        assertEquals(uuid, getPathParameters().get("uid"));
+        assertEquals("/item/*/detail", factory.invokeAction("/item/123/detail"));
+        try {
+            factory.addActions(net.jrouter.ConstraintPathTestAction.class);
+            fail("no exception");
+        }
+        catch (JRouterException e) {
+            assertTrue(e.getMessage().startsWith("Duplicate path Action "));
+        }
+    }
+
     /**
      * 测试Action调用，返回匹配参数。
      *
@@ -157,6 +616,255 @@ public class PathActionFactoryTest {
 
     }
 
+    /**
+     * 测试以字符序列及{@code ByteBuffer}形式的路径调用Action。
+     */
+    @Test
+    public void test_invokeCharSequence() {
+        assertEquals("/xx/yy/zz", factory.invokeAction(new StringBuilder("/xx/yy/zz")));
+        assertEquals("/aa/b3/*/d1/{k2}", factory.invokeAction(new StringBuilder("/aa/b3/null1/d1/null2")));
+        Map<String, String> excepted = new HashMap<>();
+        excepted.put("*", "null1");
+        excepted.put("k2", "null2");
+        assertEquals(excepted, getPathParameters());
+
+        byte[] bytes = "GET /aa/b4/c1/d2/e1 HTTP/1.1".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.wrap(bytes);
+        assertEquals("/aa/b4/{k1}/d2/e1", factory.invokeAction(buffer, 4, 15));
+        assertEquals(0, buffer.position());
+        assertEquals("c1", getPathParameters().get("k1"));
+        assertEquals("/aa/b4/c1/d2/e1", DemoThreadActionContextInterceptor.get().getActionPath());
+        // static path
+        bytes = "/xx/yy/zz".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+        assertEquals("/xx/yy/zz", factory.invokeAction(java.nio.ByteBuffer.wrap(bytes), 0, bytes.length));
+        try {
+            factory.invokeAction(java.nio.ByteBuffer.wrap(bytes), 0, 6);
+            fail("no exception");
+        }
+        catch (JRouterException e) {
+            assertNotNull(e);
+        }
+    }
+
+    /**
+     * 测试批量解析路径并调用已解析的Action。
+     */
+    @Test
+    public void test_resolveAll() {
+        ResolvedAction[] resolved = factory.resolveAll("/xx/yy/zz", "/aa/b4/c1/d2/e1", "/zzz", "/aa/b4/c1/d2/e1");
+        assertEquals(4, resolved.length);
+        assertEquals("/xx/yy/zz", resolved[0].getActionProxy().getPath());
+        assertTrue(resolved[0].getPathParameters().isEmpty());
+        assertEquals("/aa/b4/{k1}/d2/e1", resolved[1].getActionProxy().getPath());
+        assertEquals("c1", resolved[1].getPathParameters().get("k1"));
+        assertEquals("zzz", resolved[2].getPathParameters().get("k1"));
+        // 重复的路径仅解析一次
+        assertSame(resolved[1], resolved[3]);
+
+        assertEquals("/aa/b4/{k1}/d2/e1", factory.invokeAction(resolved[1]));
+        assertEquals("c1", getPathParameters().get("k1"));
+        assertEquals("/aa/b4/c1/d2/e1", DemoThreadActionContextInterceptor.get().getActionPath());
+        assertEquals("/{k1}", factory.invokeAction(resolved[2]));
+        assertEquals(0, factory.resolveAll().length);
+        try {
+            factory.resolveAll("/zzz", "/aa/b4/c1/d2/e1/f1/g1");
+            fail("no exception");
+        }
+        catch (JRouterException e) {
+            assertNotNull(e);
+        }
+    }
+
+    /**
+     * 测试Action调用句柄，添加或删除Action后重新解析路径。
+     */
+    @Test
+    public void test_handle() {
+        ActionHandle handle = factory.handle("/aa/b3/c1/d1");
+        assertEquals("/aa/b3/c1/d1", handle.getPath());
+        assertEquals("/aa/b3/*/d1", handle.getActionProxy().getPath());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("/aa/b3/*/d1", handle.invoke());
+            assertEquals("c1", getPathParameters().get("*"));
+            assertEquals("/aa/b3/c1/d1", DemoThreadActionContextInterceptor.get().getActionPath());
+        }
+
+        PathActionProxy ap = factory.removeAction("/aa/b3/*/d1");
+        assertEquals("/aa/*/c1/d1", handle.invoke());
+        assertEquals("/aa/*/c1/d1", handle.getActionProxy().getPath());
+        factory.addAction(ap);
+        assertEquals("/aa/b3/*/d1", handle.invoke());
+
+        ActionHandle staticHandle = factory.handle("/xx/yy/zz");
+        assertEquals("/xx/yy/zz", staticHandle.invoke());
+        factory.removeAction("/xx/yy/zz");
+        try {
+            staticHandle.invoke();
+            fail("no exception");
+        }
+        catch (JRouterException e) {
+            assertNotNull(e);
+        }
+        try {
+            factory.handle("/xx/yy/zz");
+            fail("no exception");
+        }
+        catch (JRouterException e) {
+            assertNotNull(e);
+        }
+    }
+
+    /**
+     * 测试以路径的整数编号调用Action。
+     */
+    @Test
+    public void test_routeId() {
+        Map<Integer, String> table = factory.getRouteTable();
+        int statics = 0;
+        for (String path : factory.getActions().keySet()) {
+            if (StaticPathIndex.isStaticPath(path, PathTree.PATH_SEPARATOR)) {
+                statics++;
+            }
+        }
+        assertTrue(statics > 0);
+        assertEquals(statics, table.size());
+        for (Map.Entry<Integer, String> e : table.entrySet()) {
+            assertEquals(e.getKey().intValue(), factory.getRouteId(e.getValue()));
+            assertEquals(e.getValue(), factory.invokeAction(e.getKey().intValue()));
+        }
+        int id = factory.getRouteId("/aa/b1/c1/d1");
+        assertEquals(RouteIdTable.hash("/aa/b1/c1/d1", 0), id);
+
+        PathActionProxy ap = factory.removeAction("/aa/b1/c1/d1");
+        try {
+            factory.invokeAction(id);
+            fail("no exception");
+        }
+        catch (JRouterException e) {
+            assertNotNull(e);
+        }
+        factory.addAction(ap);
+        // 重新添加后编号不变
+        assertEquals(id, factory.getRouteId("/aa/b1/c1/d1"));
+        assertEquals("/aa/b1/c1/d1", factory.invokeAction(id));
+        // 不存在的路径及含匹配路径的路径无编号
+        for (String path : new String[] { "/aa/b3/c1/d1", "/aa/b3/*/d1", "/aa/b4/{k1}/d1" }) {
+            try {
+                factory.getRouteId(path);
+                fail("no exception");
+            }
+            catch (JRouterException e) {
+                assertNotNull(e);
+            }
+        }
+    }
+
+    /**
+     * 测试以路由键区分相同路径的Action。
+     */
+    @Test
+    public void test_routeKeys() {
+        factory.addActions(net.jrouter.RouteKeyTestAction.class);
+        int get = net.jrouter.RouteKeyTestAction.GET;
+        int post = net.jrouter.RouteKeyTestAction.POST;
+        int hostA = net.jrouter.RouteKeyTestAction.HOST_A;
+        assertEquals("GET /user/{id}", factory.invokeAction(new int[] { get }, "/user/1"));
+        assertEquals("1", getPathParameters().get("id"));
+        assertEquals("POST /user/{id}", factory.invokeAction(new int[] { post }, "/user/2"));
+        assertEquals("GET A /user/{id}", factory.invokeAction(new int[] { get, hostA }, "/user/3"));
+        assertEquals("POST /user/{id}", factory.invokeAction(new int[] { post, hostA }, "/user/3"));
+        assertEquals("/user/{id}", factory.invokeAction(new int[] { 3 }, "/user/4"));
+        assertEquals("/user/{id}", factory.invokeAction("/user/5"));
+        // 缓存仅以路径为键
+        assertEquals(5, factory.getActionCache().size());
+        assertTrue(factory.getActionCache().containsKey("/user/3"));
+
+        assertEquals("* A /host", factory.invokeAction(new int[] { post, hostA }, "/host"));
+        for (int[] keys : new int[][] { null, {}, { get }, { get, hostA + 1 } }) {
+            try {
+                factory.invokeAction(keys, "/host");
+                fail("no exception");
+            }
+            catch (JRouterException e) {
+                assertTrue(e.getMessage().startsWith("No such Action"));
+            }
+        }
+        Map<String, PathActionProxy> actions = new HashMap<>(factory.getActions());
+        try {
+            factory.addActions(new net.jrouter.RouteKeyTestAction());
+            fail("no exception");
+        }
+        catch (JRouterException e) {
+            assertTrue(e.getMessage().startsWith("Duplicate path Action"));
+        }
+        // 校验失败时不发布任何Action
+        for (Map.Entry<String, PathActionProxy> e : factory.getActions().entrySet()) {
+            assertSame(actions.get(e.getKey()), e.getValue());
+        }
+        assertEquals(actions.size(), factory.getActions().size());
+        assertEquals("GET A /user/{id}", factory.invokeAction(new int[] { get, hostA }, "/user/3"));
+
+        assertNotNull(factory.removeAction("/user/{id}"));
+        try {
+            factory.invokeAction(new int[] { get }, "/user/1");
+            fail("no exception");
+        }
+        catch (JRouterException e) {
+            assertNotNull(e);
+        }
+    }
+
+    /**
+     * 测试调用路径的规范化处理，规范化后的路径同时用于缓存及查询。
+     */
+    @Test
+    public void test_normalizePath() {
+        PathActionFactory.Properties prop = new PathActionFactory.Properties();
+        prop.setExtension(".");
+        prop.setCollapseSeparators(true);
+        prop.setTrimTrailingSeparator(true);
+        prop.setCaseInsensitive(true);
+        PathActionFactory normalized = new PathActionFactory(prop);
+        normalized.addActions(net.jrouter.PathTestAction.class);
+        normalized.addActions(net.jrouter.ConstraintPathTestAction.class);
+        assertTrue(normalized.isCaseInsensitive());
+
+        assertEquals("/xx/yy/zz", normalized.invokeAction("/XX//yy/Zz/.json"));
+        assertEquals("/xx/yy/zz", normalized.invokeAction(new StringBuilder("/xx/YY/zz/")));
+        assertTrue(normalized.getActionCache().isEmpty());
+        assertEquals("/aa/b3/*/d1", normalized.invokeAction("/AA//b3/C1/d1/"));
+        assertEquals("/aa/b3/*/d1", normalized.invokeAction("/aa/b3/c1/D1"));
+        // 缓存以保留大小写的路径为键
+        assertEquals(2, normalized.getActionCache().size());
+        assertTrue(normalized.getActionCache().containsKey("/AA/b3/C1/d1"));
+        assertTrue(normalized.getActionCache().containsKey("/aa/b3/c1/D1"));
+        assertEquals("/item/{id:int}", normalized.invokeAction("/Item/12"));
+        assertEquals("/item/list", normalized.invokeAction("/ITEM/LIST"));
+        assertEquals("/Aa/B3/C1/D1", normalized.handle("/Aa/B3/C1/D1.do").getPath());
+        // 路径参数及约束保留调用路径的大小写
+        assertEquals("/Code/{code:[A-Z]+}", normalized.invokeAction("/code/ABC"));
+        assertEquals("ABC", normalized.resolve("/CODE/ABC").getPathParameters().get("code"));
+        assertEquals("Mixed", normalized.resolve("/aa/B4/Mixed/d1").getPathParameters().get("k1"));
+        assertEquals("/Code/{code:[A-Z]+}", normalized.invokeAction(new StringBuilder("/CODE/XYZ")));
+        try {
+            normalized.invokeAction("/code/abc");
+            fail("no exception");
+        }
+        catch (JRouterException e) {
+            assertNotNull(e);
+        }
+
+        assertNotNull(normalized.removeAction("/XX/yy/zz"));
+        try {
+            normalized.invokeAction("/xx/yy/zz");
+            fail("no exception");
+        }
+        catch (JRouterException e) {
+            assertNotNull(e);
+        }
+        normalized.clear();
+    }
+
     /**
      * 从线程变量中返回Action路径匹配的键值映射。
      * @return 返回Action路径匹配的键值映射。
@@ -178,4 +886,16 @@ public class PathActionFactoryTest {
         excepted.clear();
     }
 
+    /**
+     * 匹配原未匹配路径的Action。
+     */
+    public static class MissedPathAction {
+
+        @net.jrouter.annotation.Action("/aa/b1/c1/d1/e1/f1/g1/{h}")
+        public String h() {
+            return "h";
+        }
+
+    }
+
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * PathNormalizerTest。
+ */
+public class PathNormalizerTest {
+
+    /**
+     * 测试截断后缀，无需改写时不复制路径。
+     */
+    @Test
+    public void testExtension() {
+        PathNormalizer normalizer = new PathNormalizer('/', ".", false, false, false);
+        assertFalse(normalizer.isRewriting());
+        String path = "/a/b";
+        assertSame(path, normalizer.normalize(path));
+        assertEquals("/a/b", normalizer.normalize("/a/b.json"));
+        assertEquals("/a/b.x", normalizer.normalize("/a/b.x.y"));
+
+        normalizer = new PathNormalizer('/', "action", false, false, false);
+        assertEquals("/a/b", normalizer.normalize("/a/b.action"));
+        assertEquals("/a/b", normalizer.normalize("/a/baction"));
+        assertEquals("action", normalizer.normalize("action"));
+
+        normalizer = new PathNormalizer('/', "", false, false, false);
+        assertEquals("/a/b.json", normalizer.normalize("/a/b.json"));
+    }
+
+    /**
+     * 测试合并及去除路径分隔符，忽略大小写时不转换调用路径。
+     */
+    @Test
+    public void testRewrite() {
+        PathNormalizer normalizer = new PathNormalizer('/', ".", true, false, false);
+        assertEquals("/a/b/", normalizer.normalize("//a///b//.json"));
+        String path = "/a/b";
+        assertSame(path, normalizer.normalize(path));
+
+        normalizer = new PathNormalizer('/', null, false, true, false);
+        assertEquals("/a//b", normalizer.normalize("/a//b//"));
+        assertEquals("/", normalizer.normalize("///"));
+        assertEquals("/", normalizer.normalize("/"));
+
+        normalizer = new PathNormalizer('/', ".", true, true, true);
+        assertEquals("/A/bC/D", normalizer.normalize("/A//bC/D/.Json"));
+        assertEquals("/", normalizer.normalize("//"));
+        path = "/a/B/c";
+        assertSame(path, normalizer.normalize(path));
+    }
+
+    /**
+     * 测试忽略大小写：后缀不区分大小写，查询时转换为小写的视图保留原路径。
+     */
+    @Test
+    public void testCaseInsensitive() {
+        PathNormalizer normalizer = new PathNormalizer('/', "json", false, false, true);
+        assertFalse(normalizer.isRewriting());
+        assertEquals("/A/b", normalizer.normalize("/A/b.JSON"));
+        assertEquals("/A/b", normalizer.normalize("/A/b.json"));
+
+        String path = "/a/b";
+        assertSame(path, normalizer.fold(path));
+        path = "/Item/ABC";
+        CharSequence folded = normalizer.fold(path);
+        assertEquals("/item/abc", folded.toString());
+        assertEquals(path.length(), folded.length());
+        assertEquals('i', folded.charAt(1));
+        assertEquals("abc", folded.subSequence(6, 9).toString());
+        assertSame(path, PathNormalizer.original(folded));
+        assertSame(path, PathNormalizer.original(path));
+
+        normalizer = new PathNormalizer('/', "json", false, false, false);
+        assertEquals("/A/b.JSON", normalizer.normalize("/A/b.JSON"));
+        path = "/Item/ABC";
+        assertSame(path, normalizer.fold(path));
+    }
+
+    /**
+     * 测试规范化Action路径。
+     */
+    @Test
+    public void testNormalizeActionPath() {
+        PathNormalizer normalizer = new PathNormalizer('/', null, false, false, false);
+        String path = "/User/{ID}";
+        assertSame(path, normalizer.normalizeActionPath(path));
+
+        normalizer = new PathNormalizer('/', null, false, false, true);
+        assertEquals("/user/{ID}/*/{id:[A-Z]+}/list/", normalizer.normalizeActionPath("/User/{ID}/*/{id:[A-Z]+}/LIST/"));
+    }
+
+}
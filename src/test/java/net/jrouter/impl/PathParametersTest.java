@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * PathParametersTest。
+ */
+public class PathParametersTest {
+
+    /**
+     * 测试按索引读取路径片段，与PathTree的匹配参数比较。
+     */
+    @Test
+    public void testGet() {
+        PathTrie<String> trie = new PathTrie<>();
+        trie.put("/user/{id}/orders/{oid}", "orders");
+        trie.put("/aa/*/cc/*/*", "stars");
+
+        String path = "//user/1001//orders/A-2/";
+        PathTrie.Node<String> node = trie.find(path, path.length());
+        PathParameters params = new PathParameters(path, path.length(), '/', node.getIndexKeys());
+        assertFalse(params.isEmpty());
+        assertTrue(params.containsKey("id"));
+        assertFalse(params.containsKey("orders"));
+        assertEquals("1001", params.get("id"));
+        assertEquals("A-2", params.get("oid"));
+        assertNull(params.get("none"));
+
+        Map<String, String> excepted = new HashMap<>();
+        excepted.put("id", "1001");
+        excepted.put("oid", "A-2");
+        assertEquals(excepted, params);
+        assertEquals(2, params.size());
+
+        path = "/aa/b/cc/d/e.html";
+        node = trie.find(path, path.length() - 5);
+        params = new PathParameters(path, path.length() - 5, '/', node.getIndexKeys());
+        assertEquals("e", params.get("*3"));
+        excepted.clear();
+        excepted.put("*", "b");
+        excepted.put("*2", "d");
+        excepted.put("*3", "e");
+        assertEquals(excepted, params);
+    }
+
+    /**
+     * 测试参数映射不可修改。
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testUnmodifiable() {
+        PathTrie<String> trie = new PathTrie<>();
+        trie.put("/{k}", "k");
+        PathParameters params = new PathParameters("/v", 2, '/', trie.find("/v", 2).getIndexKeys());
+        params.put("k", "v2");
+    }
+
+}
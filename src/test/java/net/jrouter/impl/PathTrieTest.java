@@ -0,0 +1,568 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static net.jrouter.impl.PathTreeTest.PATHS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+/**
+ * PathTrie压缩树路径的测试，匹配结果须与{@link PathTree}一致。
+ */
+public class PathTrieTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PathTrieTest.class);
+
+    private PathTrie<String> trie;
+
+    private PathTree<String> tree;
+
+    @Before
+    public void init() {
+        trie = new PathTrie<>();
+        tree = new PathTree<>();
+        for (String p : PATHS) {
+            assertNull(trie.put(p, p));
+            tree.put(p, p);
+        }
+    }
+
+    /**
+     * 测试添加节点及压缩节点的拆分。
+     */
+    @Test
+    public void testPut() {
+        assertEquals("/xx/yy/zz", trie.put("/xx/yy/zz", "another value"));
+        assertEquals("another value", trie.get("/xx/yy/zz"));
+        // split "xx/yy/zz"
+        assertNull(trie.put("/xx/yy", "/xx/yy"));
+        assertNull(trie.put("/xx/yy/aa", "/xx/yy/aa"));
+        assertEquals("/xx/yy", trie.get("/xx/yy"));
+        assertEquals("another value", trie.get("/xx/yy/zz"));
+        assertEquals("/xx/yy/aa", trie.get("/xx/yy/aa"));
+        assertEquals("/{k1}", trie.get("/xx"));
+
+        assertEquals("/{k1}", trie.put("/*", "another value"));
+        assertEquals("/aa/b4/{k1}/d2/{k2}", trie.put("/aa/b4/{k1}/d2/*", "another value"));
+
+        // root
+        assertNull(trie.get("/"));
+        assertNull(trie.put("/", "root"));
+        assertEquals("root", trie.get("/"));
+    }
+
+    /**
+     * 测试获取节点，与PathTree结果比较。
+     */
+    @Test
+    public void testGet() {
+        String[] paths = { "/xx/yy/zz", "/aa/b1/c1/d0", "/aa/b1/c1/d1", "/aa/b2/c2/d2", "/zzz", "/aa", "/zzz/null",
+                "/xx/yy", "/aa/b1/c1", "/aa/b2/c2", "/aa/b3/c1/d1", "/aa/b3/c1/d1/e1", "/aa/b3/c1/d1/null",
+                "/aa/b3/null/d1/null", "/aa/b2/c1/d1", "/aa/b1/c1/d1/e1", "/aa/b2/c1/d1/e1", "/aa/b4/c1/d1",
+                "/aa/b4/c1/d2", "/aa/b4/c1/d1/e1", "/aa/b4/c1/d2/e1", "/aa/b4/c1/d2/null", "/aa/b4/null/d2/null",
+                "/aa/null/c1/d1/e1", "/aa/b1", "/aa/b2", "/aa/null/c1", "/aa/b1/c1/d1/null", "/aa/null/c1/d2",
+                "/aa/null/c1/d2/null", "/aa/zzz/c1/d1/e1/null/null/null", "/aa/b5/1/2/3/4", "//xx//yy/zz/",
+                "xx/yy/zz", "/xx/yyy/zz", "/xx/yy/z", "", "//" };
+        for (String p : paths) {
+            assertEquals(p, tree.get(p), trie.get(p));
+        }
+        for (String p : PATHS) {
+            assertEquals(p, trie.get(p));
+        }
+    }
+
+    /**
+     * 测试删除节点，原快照不受影响。
+     */
+    @Test
+    public void testRemove() {
+        PathTrie.Snapshot<String> old = trie.snapshot();
+        int size = old.size();
+        assertEquals(PATHS.length, size);
+
+        assertEquals("/aa/b3/*/d1", trie.remove("/aa/b3/{k}/d1"));
+        assertNull(trie.remove("/aa/b3/*/d1"));
+        assertNull(trie.remove("/aa/b3"));
+        assertNull(trie.remove("/xx/yy"));
+        assertEquals("/aa/*/c1/d1", trie.get("/aa/b3/c1/d1"));
+        assertEquals("/xx/yy/zz", trie.remove("/xx/yy/zz"));
+        assertNull(trie.get("/xx/yy/zz"));
+
+        PathTrie.Snapshot<String> current = trie.snapshot();
+        assertEquals(size - 2, current.size());
+        assertEquals(size - 2, current.entries().size());
+        assertTrue(current.getVersion() > old.getVersion());
+        // old snapshot
+        assertEquals(size, old.entries().size());
+        assertEquals("/aa/b3/*/d1", old.find("/aa/b3/c1/d1", 12).getValue());
+        assertEquals("/xx/yy/zz", old.staticIndex().get("/xx/yy/zz"));
+        assertNull(current.staticIndex().get("/xx/yy/zz"));
+
+        assertNull(trie.put("/xx/yy/zz", "/xx/yy/zz"));
+        assertEquals("/xx/yy/zz", trie.get("/xx/yy/zz"));
+        trie.clear();
+        assertEquals(0, trie.snapshot().size());
+        assertNull(trie.get("/xx/yy/zz"));
+    }
+
+    /**
+     * 测试删除路径后清理不含值的节点，并合并仅含一个子节点的压缩节点。
+     */
+    @Test
+    public void testRemovePrune() {
+        PathTrie<String> t = new PathTrie<>();
+        t.put("/api/v1/users/{id}/roles", "roles");
+        t.put("/api/v1/users/{id:int}", "user");
+        t.put("/api/v2/**", "v2");
+        t.put("/api/v1", "v1");
+        int nodes = countNodes(t.snapshot().getRoot());
+        // 反复添加及删除路径，节点数目不增长
+        for (int i = 0; i < 100; i++) {
+            t.put("/api/v1/users/{id}/tmp" + i + "/{x}/y", "tmp");
+            t.put("/api/v1/users/{id:[a-z]+}", "name");
+            t.put("/plugin" + i + "/a/b", "plugin");
+            assertEquals("tmp", t.remove("/api/v1/users/{id}/tmp" + i + "/{x}/y"));
+            assertEquals("name", t.remove("/api/v1/users/{id:[a-z]+}"));
+            assertEquals("plugin", t.remove("/plugin" + i + "/a/b"));
+        }
+        assertEquals(nodes, countNodes(t.snapshot().getRoot()));
+
+        PathTrie.Snapshot<String> old = t.snapshot();
+        assertEquals("v1", t.remove("/api/v1"));
+        assertEquals("v2", t.remove("/api/v2/**"));
+        // "api" -> "v1" -> "users"合并为"api/v1/users"
+        List<String> labels = new ArrayList<>();
+        collect(t.snapshot().getRoot(), labels, new ArrayList<>());
+        assertEquals(Arrays.asList("api/v1/users", "roles"), labels);
+        assertEquals("user", t.get("/api/v1/users/12"));
+        assertEquals("roles", t.get("/api/v1/users/ab/roles"));
+        assertNull(t.get("/api/v1"));
+        assertEquals(2, t.snapshot().size());
+        // old snapshot
+        assertEquals("v1", old.find("/api/v1", 7).getValue());
+        assertEquals("v2", old.find("/api/v2/a", 9).getValue());
+
+        assertEquals("roles", t.remove("/api/v1/users/{id}/roles"));
+        assertEquals("user", t.remove("/api/v1/users/{x:int}"));
+        assertEquals(1, countNodes(t.snapshot().getRoot()));
+    }
+
+    /**
+     * 测试带约束的匹配路径：确切路径 &gt; 带约束的匹配路径 &gt; '*'。
+     */
+    @Test
+    public void testConstraint() {
+        assertNull(trie.put("/aa/b3/{id:int}/d1", "int"));
+        assertNull(trie.put("/aa/b3/{name:[a-z]+}/d1", "name"));
+        assertEquals("int", trie.put("/aa/b3/{x:int}/d1", "int"));
+        assertEquals("int", trie.get("/aa/b3/12/d1"));
+        assertEquals("name", trie.get("/aa/b3/abc/d1"));
+        assertEquals("/aa/b3/*/d1", trie.get("/aa/b3/Abc/d1"));
+        // backtracking
+        assertEquals("/aa/b3/*/d1/{k2}", trie.get("/aa/b3/12/d1/e1"));
+        assertEquals("/aa/b3/c1/d1/*", trie.get("/aa/b3/c1/d1/e1"));
+
+        Map<String, String> params = new HashMap<>();
+        trie.get("/aa/b3/12/d1", params);
+        assertEquals("12", params.get("x"));
+        assertEquals(1, params.size());
+
+        assertEquals("name", trie.remove("/aa/b3/{name:[a-z]+}/d1"));
+        assertEquals("/aa/b3/*/d1", trie.get("/aa/b3/abc/d1"));
+        assertEquals("int", trie.get("/aa/b3/12/d1"));
+        assertEquals(PATHS.length + 1, trie.snapshot().entries().size());
+    }
+
+    /**
+     * 测试路径尾匹配，匹配一个或多个路径片段且优先级最低。
+     */
+    @Test
+    public void testTailMatch() {
+        assertNull(trie.put("/static/**", "tail"));
+        assertNull(trie.put("/static/*", "single"));
+        assertNull(trie.put("/static/img/{name:[a-z]+}", "img"));
+        assertNull(trie.put("/files/{path:**}", "files"));
+
+        // one segment at least
+        assertEquals("/{k1}", trie.get("/static"));
+        assertEquals("single", trie.get("/static/a"));
+        assertEquals("img", trie.get("/static/img/a"));
+        assertEquals("tail", trie.get("/static/img/a1"));
+        assertEquals("tail", trie.get("/static/js/lib/a.js"));
+        // '/{k1}' and '/*' at root level
+        assertEquals("/aa/b5/*/*/*/*", trie.get("/aa/b5/1/2/3/4"));
+
+        Map<String, String> params = new HashMap<>();
+        assertEquals("tail", trie.get("//static//js//lib/a.js//", params));
+        assertEquals("js//lib/a.js", params.get("**"));
+        params.clear();
+        assertEquals("files", trie.get("/files/a/b/c.txt", params));
+        assertEquals("a/b/c.txt", params.get("path"));
+
+        assertEquals("tail", trie.remove("/static/**"));
+        assertNull(trie.get("/static/js/lib/a.js"));
+        assertEquals("single", trie.get("/static/a"));
+        try {
+            trie.put("/static/**/a", "error");
+            fail("no exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertNotNull(e);
+        }
+    }
+
+    /**
+     * 测试超过32层的路径，路径树及确定性自动机均无深度限制。
+     */
+    @Test
+    public void testDeepPath() {
+        StringBuilder exact = new StringBuilder();
+        StringBuilder match = new StringBuilder();
+        StringBuilder tail = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            exact.append("/s").append(i);
+            match.append(i == 150 ? "/{p}" : "/s" + i);
+            tail.append(i >= 190 ? "/*" : "/s" + i);
+        }
+        for (boolean compiled : new boolean[] { false, true }) {
+            PathTrie<String> t = new PathTrie<>(PathTree.PATH_SEPARATOR, compiled);
+            t.put(match.toString(), "match");
+            t.put(tail.toString(), "tail");
+            assertEquals("tail", t.get(exact.toString()));
+            t.put(exact.toString(), "exact");
+            assertEquals("exact", t.get(exact.toString()));
+
+            Map<String, String> params = new HashMap<>();
+            assertEquals("match", t.get(exact.toString().replace("/s150/", "/x/"), params));
+            assertEquals("x", params.get("p"));
+            params.clear();
+            assertEquals("tail", t.get(exact.toString().replace("/s199", "/y"), params));
+            assertEquals("y", params.get("*10"));
+        }
+    }
+
+    /**
+     * 测试匹配参数。
+     */
+    @Test
+    public void testPathParameters() {
+        String[] paths = { "/zzz", "/aa/b3/c1/d1", "/aa/b3/null1/d1/null2", "/aa/b4/c1/d2/null",
+                "/aa/b5/null1/null2/null3/null4", "//aa//b5/null1/null2//null3/null4/" };
+        for (String p : paths) {
+            Map<String, String> excepted = new HashMap<>();
+            Map<String, String> actual = new HashMap<>();
+            tree.get(p, excepted);
+            trie.get(p, actual);
+            assertEquals(p, excepted, actual);
+        }
+    }
+
+    /**
+     * 测试同批次添加的节点标签及键名共享相同的字符串实例，字典不在批次之外保留。
+     */
+    @Test
+    public void testSegmentDictionary() throws Exception {
+        PathTrie<String> t = new PathTrie<>();
+        t.putAll(Arrays.asList(new String("/api/{id}/user"), new String("/web/{id}/user"),
+                new String("/api/{id}/role")), Arrays.asList("1", "2", "3"));
+        java.lang.reflect.Field segments = PathTrie.class.getDeclaredField("segments");
+        segments.setAccessible(true);
+        assertNull(segments.get(t));
+        List<String> labels = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        collect(t.snapshot().getRoot(), labels, keys);
+        assertEquals(3, keys.size());
+        for (String key : keys) {
+            assertSame(keys.get(0), key);
+        }
+        // "user"在两个分支中共享同一实例
+        String user = null;
+        for (String label : labels) {
+            if ("user".equals(label)) {
+                if (user == null) {
+                    user = label;
+                }
+                else {
+                    assertSame(user, label);
+                }
+            }
+        }
+        assertNotNull(user);
+        t.clear();
+        assertEquals(0, t.snapshot().size());
+    }
+
+    /**
+     * 测试发布快照前创建查询所需的索引，查询时不再创建。
+     */
+    @Test
+    public void testPrepare() throws Exception {
+        PathTrie<String> t = new PathTrie<>(PathTree.PATH_SEPARATOR, true, false, true);
+        t.putAll(Arrays.asList(PATHS), Arrays.asList(PATHS));
+        assertPrepared(t.snapshot(), "staticIndex", "routeIds", "automaton", "routeFilter");
+        t.remove("/xx/yy/zz");
+        assertPrepared(t.snapshot(), "staticIndex", "routeIds", "automaton", "routeFilter");
+        // 默认不创建预过滤器
+        trie.put("/new/path", "v");
+        assertPrepared(trie.snapshot(), "staticIndex", "routeIds");
+        java.lang.reflect.Field filter = PathTrie.Snapshot.class.getDeclaredField("routeFilter");
+        filter.setAccessible(true);
+        assertNull(filter.get(trie.snapshot()));
+    }
+
+    private static void assertPrepared(PathTrie.Snapshot<String> snapshot, String... fields) throws Exception {
+        for (String name : fields) {
+            java.lang.reflect.Field field = PathTrie.Snapshot.class.getDeclaredField(name);
+            field.setAccessible(true);
+            assertNotNull(name, field.get(snapshot));
+        }
+    }
+
+    /**
+     * 测试批量添加：结果须与逐个添加一致，返回值按添加顺序。
+     */
+    @Test
+    public void testPutAll() {
+        List<String> paths = new ArrayList<>(Arrays.asList(PATHS));
+        // 同一节点的路径按添加顺序覆盖
+        paths.addAll(Arrays.asList("/aa/b3/{id:int}/d1", "/aa/b3/{x:int}/d1", "/xx/yy/zz", "/static/**",
+                "/static/{p:**}"));
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < paths.size(); i++) {
+            values.add(paths.get(i) + "#" + i);
+        }
+        PathTrie<String> incremental = new PathTrie<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < paths.size(); i++) {
+            expected.add(incremental.put(paths.get(i), values.get(i)));
+        }
+        PathTrie<String> bulk = new PathTrie<>();
+        long version = bulk.snapshot().getVersion();
+        assertEquals(expected, bulk.putAll(paths, values));
+        assertEquals(version + 1, bulk.snapshot().getVersion());
+        assertEquals(incremental.snapshot().size(), bulk.snapshot().size());
+        assertEquals(new HashSet<>(incremental.snapshot().entries()), new HashSet<>(bulk.snapshot().entries()));
+        for (String p : new String[] { "/aa/b3/12/d1", "/xx/yy/zz", "/static/a/b", "/aa/b5/1/2/3/4",
+                "/aa/zzz/c1/d1/e1/null/null/null", "/xx/yyy/zz" }) {
+            Map<String, String> p1 = new HashMap<>();
+            Map<String, String> p2 = new HashMap<>();
+            assertEquals(p, incremental.get(p, p1), bulk.get(p, p2));
+            assertEquals(p, p1, p2);
+        }
+
+        // 同一节点下大量子节点
+        List<String> wide = new ArrayList<>();
+        for (int i = 0; i < PathTrie.Node.MAX_ARRAY_CHILDREN * 4; i++) {
+            wide.add("/api/res" + i + "/{id}");
+        }
+        PathTrie<String> wideTrie = new PathTrie<>();
+        wideTrie.putAll(wide, wide);
+        assertEquals(wide.size(), wideTrie.snapshot().size());
+        for (String p : wide) {
+            assertEquals(p, wideTrie.get(p.replace("{id}", "1")));
+        }
+
+        // 批量添加至已有的路径树，原快照不变
+        PathTrie.Snapshot<String> old = trie.snapshot();
+        List<String> olds = trie.putAll(Arrays.asList("/xx/yy/zz", "/new/path", "/new/path/{id}"),
+                Arrays.asList("v1", "v2", "v3"));
+        assertEquals(Arrays.asList("/xx/yy/zz", null, null), olds);
+        assertEquals(PATHS.length + 2, trie.snapshot().size());
+        assertEquals("v3", trie.get("/new/path/1"));
+        assertEquals("/xx/yy/zz", old.find("/xx/yy/zz", 9).getValue());
+        assertNull(old.find("/new/path", 9));
+
+        try {
+            trie.putAll(Arrays.asList("/a/b", "/**/c"), Arrays.asList("1", "2"));
+            fail("no exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertNotNull(e);
+        }
+        // 不发布新的快照
+        assertNull(trie.get("/a/b"));
+    }
+
+    /**
+     * 批量添加与逐个添加的耗时比较：同一节点下大量子节点（逐个添加时每次复制子节点数组）及分散的路径。
+     */
+    @Ignore("benchmark")
+    @Test
+    public void benchmarkPutAll() {
+        List<String> wide = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            wide.add("/api/v1/res" + i + "/{id}");
+        }
+        List<String> narrow = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            narrow.add("/svc" + (i % 100) + "/res" + (i / 100) + "/item" + i + "/{id}");
+        }
+        for (int round = 0; round < 2; round++) {
+            benchmark("wide", wide);
+            benchmark("narrow", narrow);
+        }
+    }
+
+    private static void benchmark(String name, List<String> paths) {
+        long t0 = System.nanoTime();
+        PathTrie<String> incremental = new PathTrie<>();
+        for (String p : paths) {
+            incremental.put(p, p);
+        }
+        long t1 = System.nanoTime();
+        PathTrie<String> bulk = new PathTrie<>();
+        bulk.putAll(paths, paths);
+        long t2 = System.nanoTime();
+        assertEquals(paths.size(), incremental.snapshot().size());
+        assertEquals(paths.size(), bulk.snapshot().size());
+        String last = paths.get(paths.size() - 1);
+        assertEquals(last, bulk.get(last.replace("{id}", "1")));
+        LOG.info("Put {} {} paths, incremental : {} ms, bulk : {} ms", paths.size(), name, (t1 - t0) / 1_000_000,
+                (t2 - t1) / 1_000_000);
+    }
+
+    /**
+     * 测试确切路径子节点由数组存储转为散列表存储，删除后再转为数组存储。
+     */
+    @Test
+    public void testChildStorage() {
+        PathTrie<String> t = new PathTrie<>();
+        int max = PathTrie.Node.MAX_ARRAY_CHILDREN * 3;
+        t.put("/ns/{k}", "*");
+        for (int i = 0; i < max; i++) {
+            t.put("/ns/c" + i + "/x", "c" + i);
+            for (int j = 0; j <= i; j++) {
+                assertEquals("c" + j, t.get("/ns/c" + j + "/x"));
+            }
+        }
+        PathTrie.Node<String>[] children = t.snapshot().getRoot().getChildren()[0].getChildren();
+        assertTrue(children.length > PathTrie.Node.MAX_ARRAY_CHILDREN);
+        for (int i = max - 1; i >= 0; i--) {
+            assertEquals("c" + i, t.remove("/ns/c" + i + "/x"));
+            assertNull(t.get("/ns/c" + i + "/x"));
+            for (int j = 0; j < i; j++) {
+                assertEquals("c" + j, t.get("/ns/c" + j + "/x"));
+            }
+            PathTrie.Node<String> ns = t.snapshot().getRoot().getChildren()[0];
+            if (i > 0 && i <= PathTrie.Node.MAX_ARRAY_CHILDREN) {
+                // 数组存储，无空元素
+                assertEquals(i, ns.getChildren().length);
+            }
+        }
+        Map<String, String> params = new HashMap<>();
+        assertEquals("*", t.get("/ns/c0", params));
+        assertEquals("c0", params.get("k"));
+        assertEquals(1, t.snapshot().size());
+    }
+
+    /**
+     * 路径树占用的堆内存：20个命名空间各1000个资源，每个资源下1至3个子路径，共60000个路径。
+     * 以GC后已使用的堆内存之差估算，不含路径字符串及值。
+     */
+    @Ignore("benchmark")
+    @Test
+    public void benchmarkMemory() {
+        List<String> paths = new ArrayList<>();
+        for (int n = 0; n < 20; n++) {
+            for (int r = 0; r < 1000; r++) {
+                String res = "/ns" + n + "/res" + r;
+                paths.add(res);
+                for (int c = 0; c <= r % 3; c++) {
+                    paths.add(res + "/c" + c + (c == 2 ? "/{id}" : ""));
+                }
+            }
+        }
+        long before = usedMemory();
+        PathTrie<String> trie = new PathTrie<>();
+        trie.putAll(paths, paths);
+        long after = usedMemory();
+        assertEquals(paths.size(), trie.snapshot().size());
+        LOG.info("Trie of {} paths, {} nodes : {} bytes, {} bytes per path", paths.size(),
+                countNodes(trie.snapshot().getRoot()), after - before, (after - before) / paths.size());
+    }
+
+    private static long usedMemory() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static int countNodes(PathTrie.Node<String> node) {
+        if (node == null) {
+            return 0;
+        }
+        int count = 1 + countNodes(node.getWildcard()) + countNodes(node.getTail());
+        if (node.getChildren() != null) {
+            for (PathTrie.Node<String> child : node.getChildren()) {
+                count += countNodes(child);
+            }
+        }
+        if (node.getConstrained() != null) {
+            for (PathTrie.Node<String> child : node.getConstrained()) {
+                count += countNodes(child);
+            }
+        }
+        return count;
+    }
+
+    private static void collect(PathTrie.Node<String> node, List<String> labels, List<String> keys) {
+        if (node == null) {
+            return;
+        }
+        if (node.getLabel() != null) {
+            labels.add(node.getLabel());
+        }
+        if (node.getIndexKeys() != null) {
+            for (PathTree.IndexKey key : node.getIndexKeys()) {
+                keys.add(key.matchKey);
+            }
+        }
+        if (node.getChildren() != null) {
+            for (PathTrie.Node<String> child : node.getChildren()) {
+                collect(child, labels, keys);
+            }
+        }
+        collect(node.getWildcard(), labels, keys);
+        collect(node.getTail(), labels, keys);
+        if (node.getConstrained() != null) {
+            for (PathTrie.Node<String> child : node.getConstrained()) {
+                collect(child, labels, keys);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static net.jrouter.impl.PathTreeTest.PATHS;
+import static org.junit.Assert.*;
+
+/**
+ * RouteAutomatonTest，查询结果须与路径树的深度回溯查找一致。
+ */
+public class RouteAutomatonTest {
+
+    private static final String[] EXTRA_PATHS = { "/item/{id:int}", "/item/{slug:[a-z-]+}", "/item/list",
+            "/item/*/detail", "/item/{id:int}/detail/{x:int}", "/static/**", "/static/*", "/static/img/{name:[a-z]+}",
+            "/files/{path:**}", "/aa/b3/{n:int}/d1", "/" };
+
+    private static final String[] QUERIES = { "/xx/yy/zz", "/aa/b1/c1/d0", "/aa/b1/c1/d1", "/aa/b2/c2/d2", "/zzz",
+            "/aa", "/zzz/null", "/xx/yy", "/aa/b1/c1", "/aa/b2/c2", "/aa/b3/c1/d1", "/aa/b3/c1/d1/e1",
+            "/aa/b3/c1/d1/null", "/aa/b3/null/d1/null", "/aa/b2/c1/d1", "/aa/b1/c1/d1/e1", "/aa/b2/c1/d1/e1",
+            "/aa/b4/c1/d1", "/aa/b4/c1/d2", "/aa/b4/c1/d1/e1", "/aa/b4/c1/d2/e1", "/aa/b4/c1/d2/null",
+            "/aa/b4/null/d2/null", "/aa/null/c1/d1/e1", "/aa/b1", "/aa/b2", "/aa/null/c1", "/aa/b1/c1/d1/null",
+            "/aa/null/c1/d2", "/aa/null/c1/d2/null", "/aa/zzz/c1/d1/e1/null/null/null", "/aa/b5/1/2/3/4",
+            "//xx//yy/zz/", "xx/yy/zz", "/xx/yyy/zz", "/xx/yy/z", "", "//", "/", "/item/12", "/item/new-item",
+            "/item/Item", "/item/12/detail", "/item/ab/detail", "/item/12/detail/3", "/item/12/detail/x",
+            "/static", "/static/a", "/static/img/a", "/static/img/a1", "/static/js/lib/a.js", "/files/a/b/c.txt",
+            "/aa/b3/12/d1", "/aa/b3/12/d1/e1" };
+
+    private PathTrie<String> trie;
+
+    @Before
+    public void init() {
+        trie = new PathTrie<>('/', true);
+        for (String p : PATHS) {
+            trie.put(p, p);
+        }
+        for (String p : EXTRA_PATHS) {
+            trie.put(p, p);
+        }
+    }
+
+    /**
+     * 测试自动机与深度回溯查找的结果一致，且重复查询复用已创建的状态。
+     */
+    @Test
+    public void testFind() {
+        PathTrie.Snapshot<String> snapshot = trie.snapshot();
+        for (int i = 0; i < 2; i++) {
+            for (String p : QUERIES) {
+                PathTrie.Node<String> expected = snapshot.search(p, p.length());
+                PathTrie.Node<String> actual = snapshot.find(p, p.length());
+                assertSame(p, expected, actual);
+            }
+        }
+        int states = snapshot.automaton().getStateCount();
+        for (String p : QUERIES) {
+            snapshot.find(p, p.length());
+        }
+        assertEquals(states, snapshot.automaton().getStateCount());
+
+        Map<String, String> params = new HashMap<>();
+        assertEquals("/item/{id:int}/detail/{x:int}", trie.get("/item/12/detail/3", params));
+        assertEquals("12", params.get("id"));
+        assertEquals("3", params.get("x"));
+    }
+
+    /**
+     * 测试大量'*'层级的路径，状态数目与路径深度线性相关。
+     */
+    @Test
+    public void testWildcards() {
+        PathTrie<String> t = new PathTrie<>('/', true);
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            path.append("/*");
+            t.put(path.toString(), "w" + i);
+            t.put(path + "/a", "a" + i);
+        }
+        StringBuilder query = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            query.append("/a");
+        }
+        PathTrie.Snapshot<String> snapshot = t.snapshot();
+        String q = query.toString();
+        assertSame(snapshot.search(q, q.length()), snapshot.find(q, q.length()));
+        assertEquals("a38", t.get(q));
+        assertTrue(snapshot.automaton().getStateCount() < 200);
+    }
+
+    /**
+     * 测试状态数目超出上限时回退至深度回溯查找。
+     */
+    @Test
+    public void testMaxStates() {
+        PathTrie.Snapshot<String> snapshot = trie.snapshot();
+        RouteAutomaton<String> automaton = new RouteAutomaton<>(snapshot, '/', 3);
+        for (String p : QUERIES) {
+            assertSame(p, snapshot.search(p, p.length()), automaton.find(p, p.length()));
+        }
+        assertTrue(automaton.getStateCount() <= 3);
+    }
+
+}
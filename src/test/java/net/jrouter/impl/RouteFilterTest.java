@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static net.jrouter.impl.PathTreeTest.PATHS;
+import static org.junit.Assert.*;
+
+/**
+ * RouteFilterTest。
+ */
+public class RouteFilterTest {
+
+    /**
+     * 测试可匹配的路径均不被排除，无法匹配的路径绝大多数被排除。
+     */
+    @Test
+    public void testMightMatch() {
+        List<String> routes = new ArrayList<>();
+        PathTrie<String> trie = new PathTrie<>();
+        for (int i = 0; i < 1000; i++) {
+            routes.add("/api" + i + "/user/{id}");
+            routes.add("/static" + i + "/**");
+        }
+        routes.add("/{k}/a/b/c/d/e/f");
+        for (String r : routes) {
+            trie.put(r, r);
+        }
+        RouteFilter filter = RouteFilter.build(routes, routes.size(), '/');
+        for (int i = 0; i < 1000; i++) {
+            String p = "/api" + i + "/user/1";
+            assertTrue(filter.mightMatch(p, p.length()));
+            p = "//api" + i + "//user/2/";
+            assertTrue(filter.mightMatch(p, p.length()));
+            p = "/static" + i + "/js/lib/a.js";
+            assertTrue(filter.mightMatch(p, p.length()));
+        }
+        // variable first segment
+        assertTrue(filter.mightMatch("/x/a/b/c/d/e/f", 14));
+        assertTrue(filter.mightMatch("/", 1));
+
+        Random random = new Random(1);
+        int rejects = 0;
+        int n = 10_000;
+        for (int i = 0; i < n; i++) {
+            String p = "/" + Long.toHexString(random.nextLong()) + "/wp-admin/" + i;
+            boolean match = trie.get(p) != null;
+            boolean might = filter.mightMatch(p, p.length());
+            assertTrue(p, might || !match);
+            if (!might) {
+                rejects++;
+            }
+        }
+        assertTrue("rejects : " + rejects, rejects > n * 0.95);
+    }
+
+    /**
+     * 测试首个路径片段为路径尾匹配时接受所有路径。
+     */
+    @Test
+    public void testAcceptAll() {
+        RouteFilter filter = RouteFilter.build(Arrays.asList("/a/b", "/**"), 2, '/');
+        assertTrue(filter.mightMatch("/x/y/z", 6));
+        filter = RouteFilter.build(Arrays.asList(PATHS), PATHS.length, '/');
+        for (String p : PATHS) {
+            assertTrue(p, filter.mightMatch(p, p.length()));
+        }
+    }
+
+}
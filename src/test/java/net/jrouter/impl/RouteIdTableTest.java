@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * RouteIdTableTest。
+ */
+public class RouteIdTableTest {
+
+    private static RouteIdTable<String> build(String... paths) {
+        RouteIdTable.Registry registry = new RouteIdTable.Registry();
+        List<Map.Entry<String, String>> entries = new ArrayList<>();
+        for (String p : paths) {
+            if (StaticPathIndex.isStaticPath(p, '/')) {
+                registry.add(p);
+            }
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(p, "v" + p));
+        }
+        return RouteIdTable.build(entries, registry.renumbered(), '/');
+    }
+
+    /**
+     * 测试编号为路径的FNV-1a散列值，与添加顺序无关；含匹配路径的路径无编号。
+     */
+    @Test
+    public void testBuild() {
+        // FNV-1a 32 of "a"
+        assertEquals(0xE40C292C, RouteIdTable.hash("a", 0));
+        RouteIdTable<String> t1 = build("/a", "/b/{k}", "/c/*", "/d", "/e/**");
+        RouteIdTable<String> t2 = build("/e/**", "/d", "/c/*", "/b/{k}", "/a");
+        assertEquals(t1.toMap(), t2.toMap());
+        assertEquals(Arrays.asList("/a", "/d"), new ArrayList<>(t1.toMap().values()));
+        for (String p : new String[] { "/a", "/d" }) {
+            int id = t1.getId(p);
+            assertEquals(RouteIdTable.hash(p, 0), id);
+            assertEquals("v" + p, t1.get(id));
+        }
+        assertNull(t1.get(RouteIdTable.hash("/c/*", 0)));
+        for (String p : new String[] { "/e", "/b/{k}", "/c/*" }) {
+            try {
+                t1.getId(p);
+                fail("no exception");
+            }
+            catch (NoSuchElementException e) {
+                assertNotNull(e);
+            }
+        }
+        assertTrue(build().toMap().isEmpty());
+    }
+
+    /**
+     * 测试编号冲突时仅新添加的路径重新编号，已登记路径的编号不变。
+     */
+    @Test
+    public void testCollision() {
+        assertEquals(RouteIdTable.hash("/r95119", 0), RouteIdTable.hash("/r2031414", 0));
+        RouteIdTable.Registry registry = new RouteIdTable.Registry();
+        assertEquals(RouteIdTable.hash("/r95119", 0), registry.add("/r95119"));
+        assertEquals(RouteIdTable.hash("/r2031414", 1), registry.add("/r2031414"));
+        assertEquals(Collections.singletonMap("/r2031414", 1), registry.renumbered());
+
+        List<Map.Entry<String, String>> entries = new ArrayList<>();
+        for (String p : new String[] { "/r95119", "/r2031414", "/x" }) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(p, "v" + p));
+        }
+        registry.add("/x");
+        RouteIdTable<String> t = RouteIdTable.build(entries, registry.renumbered(), '/');
+        // 先添加的路径保持默认编号，不因路径顺序重新编号
+        assertEquals(RouteIdTable.hash("/r95119", 0), t.getId("/r95119"));
+        assertEquals(RouteIdTable.hash("/r2031414", 1), t.getId("/r2031414"));
+        assertEquals("v/r2031414", t.get(t.getId("/r2031414")));
+        assertEquals("v/r95119", t.get(t.getId("/r95119")));
+        assertEquals(3, t.toMap().size());
+
+        // 删除后释放编号，重新添加的路径使用默认编号
+        registry.remove("/r95119");
+        assertTrue(registry.renumbered().containsKey("/r2031414"));
+        assertEquals(RouteIdTable.hash("/r95119", 0), registry.add("/r95119"));
+        registry.remove("/r2031414");
+        assertTrue(registry.renumbered().isEmpty());
+        registry.remove("/r95119");
+        assertEquals(RouteIdTable.hash("/r2031414", 0), registry.add("/r2031414"));
+        assertEquals(RouteIdTable.hash("/r95119", 1), registry.add("/r95119"));
+    }
+
+    /**
+     * 测试登记表扩容及删除后编号仍可查找。
+     */
+    @Test
+    public void testRegistry() {
+        RouteIdTable.Registry registry = new RouteIdTable.Registry();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(RouteIdTable.hash("/p" + i, 0), registry.add("/p" + i));
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            registry.remove("/p" + i);
+        }
+        // 未删除的编号仍被占用，删除的编号可再次分配
+        for (int i = 0; i < 1000; i++) {
+            String p = "/p" + i;
+            int seq = i % 2 == 0 ? 0 : 1;
+            assertEquals(RouteIdTable.hash(p, seq), registry.add(p));
+        }
+        assertEquals(500, registry.renumbered().size());
+    }
+
+    /**
+     * 测试路径树添加、删除路径时登记编号，批量添加失败时不登记。
+     */
+    @Test
+    public void testPathTrie() {
+        PathTrie<String> trie = new PathTrie<>();
+        trie.put("/r95119", "a");
+        trie.put("/r2031414", "b");
+        trie.put("/c/{k}", "c");
+        RouteIdTable<String> t = trie.snapshot().routeIds();
+        assertEquals(2, t.toMap().size());
+        assertEquals(RouteIdTable.hash("/r95119", 0), t.getId("/r95119"));
+        assertEquals(RouteIdTable.hash("/r2031414", 1), t.getId("/r2031414"));
+
+        try {
+            trie.putAll(Arrays.asList("/r95119", "/x/**/y"), Arrays.asList("a2", "x"));
+            fail("no exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertNotNull(e);
+        }
+        trie.remove("/r95119");
+        trie.putAll(Arrays.asList("/r95119", "/d"), Arrays.asList("a3", "d"));
+        t = trie.snapshot().routeIds();
+        assertEquals(RouteIdTable.hash("/r2031414", 1), t.getId("/r2031414"));
+        assertEquals(RouteIdTable.hash("/r95119", 0), t.getId("/r95119"));
+        assertEquals("a3", t.get(t.getId("/r95119")));
+
+        trie.clear();
+        trie.put("/r2031414", "b");
+        assertEquals(RouteIdTable.hash("/r2031414", 0), trie.snapshot().routeIds().getId("/r2031414"));
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * SegmentMatcherTest。
+ */
+public class SegmentMatcherTest {
+
+    private static boolean matches(String constraint, String segment) {
+        String path = "/x/" + segment + "/y";
+        return SegmentMatcher.compile(constraint).matches(path, 3, 3 + segment.length());
+    }
+
+    /**
+     * 测试解析约束及键名。
+     */
+    @Test
+    public void testGetConstraint() {
+        assertEquals("int", SegmentMatcher.getConstraint("{id:int}"));
+        assertEquals("[a-z-]+", SegmentMatcher.getConstraint("{slug:[a-z-]+}"));
+        assertEquals("\\d{3}", SegmentMatcher.getConstraint("{x:\\d{3}}"));
+        assertNull(SegmentMatcher.getConstraint("{id}"));
+        assertNull(SegmentMatcher.getConstraint("{id:}"));
+        assertNull(SegmentMatcher.getConstraint("*"));
+        assertNull(SegmentMatcher.getConstraint("abc"));
+        assertEquals("id", SegmentMatcher.getKeyName("id:int"));
+        assertEquals("id", SegmentMatcher.getKeyName("id"));
+    }
+
+    /**
+     * 测试数字及UUID约束。
+     */
+    @Test
+    public void testNamedConstraints() {
+        assertTrue(matches("int", "0"));
+        assertTrue(matches("int", "-2147483647"));
+        assertTrue(matches("int", "2147483647"));
+        assertFalse(matches("int", "2147483648"));
+        assertFalse(matches("int", "12345678901"));
+        assertFalse(matches("int", "-"));
+        assertFalse(matches("int", ""));
+        assertFalse(matches("int", "12a"));
+        assertTrue(matches("long", "9223372036854775807"));
+        assertFalse(matches("long", "9223372036854775808"));
+
+        assertTrue(matches("uuid", "0f8fad5b-d9cb-469f-a165-70867728950e"));
+        assertTrue(matches("uuid", "0F8FAD5B-D9CB-469F-A165-70867728950E"));
+        assertFalse(matches("uuid", "0f8fad5bd9cb-469f-a165-70867728950e1"));
+        assertFalse(matches("uuid", "0f8fad5b-d9cb-469f-a165-70867728950g"));
+    }
+
+    /**
+     * 测试字符类及正则表达式约束。
+     */
+    @Test
+    public void testCharClassAndRegex() {
+        assertTrue(matches("[a-z-]+", "new-item"));
+        assertFalse(matches("[a-z-]+", "New-item"));
+        assertFalse(matches("[a-z-]+", ""));
+        assertTrue(matches("[a-z-]*", ""));
+        assertTrue(matches("[\\d_]{2,4}", "1_2"));
+        assertFalse(matches("[\\d_]{2,4}", "1_2_3"));
+        assertTrue(matches("[\\w]{3}", "a_Z"));
+        assertTrue(matches("[abc]", "b"));
+        assertFalse(matches("[abc]", "bb"));
+        // regex
+        assertTrue(matches("\\d{3}", "123"));
+        assertFalse(matches("\\d{3}", "1234"));
+        assertTrue(matches("[^/]+\\.json", "a.json"));
+        assertTrue(matches("v[0-9]+", "v12"));
+        try {
+            SegmentMatcher.compile("[a-");
+            fail("no exception");
+        }
+        catch (IllegalArgumentException e) {
+            assertNotNull(e);
+        }
+    }
+
+}
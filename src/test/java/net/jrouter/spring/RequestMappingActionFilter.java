@@ -98,6 +98,11 @@ public class RequestMappingActionFilter implements ActionFilter {
                     return hasAction ? action.parameters() : new Parameter[0];
                 }
 
+                @Override
+                public int[] routeKeys() {
+                    return hasAction ? action.routeKeys() : new int[0];
+                }
+
                 @Override
                 public Class<? extends Annotation> annotationType() {
                     return RequestMapping.class;
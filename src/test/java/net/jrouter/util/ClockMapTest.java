@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * ClockMapTest。
+ */
+public class ClockMapTest {
+
+    /**
+     * 测试添加、替换、删除及淘汰。
+     */
+    @Test
+    public void testPut() {
+        ClockMap<String, Integer> map = new ClockMap<>(3);
+        assertNull(map.put("a", 1));
+        assertNull(map.put("b", 2));
+        assertNull(map.put("c", 3));
+        assertEquals(Integer.valueOf(1), map.put("a", 10));
+        assertEquals(3, map.size());
+        assertEquals(Integer.valueOf(10), map.get("a"));
+        // 'a' referenced, 'b' evicted
+        assertNull(map.put("d", 4));
+        assertEquals(3, map.size());
+        assertTrue(map.containsKey("a"));
+        assertFalse(map.containsKey("b"));
+        assertNull(map.get("b"));
+        // all referenced, second chance
+        map.get("c");
+        map.get("d");
+        assertNull(map.put("e", 5));
+        assertEquals(3, map.size());
+        assertTrue(map.containsKey("e"));
+        assertEquals(2, map.getEvictionCount());
+
+        assertNotNull(map.remove("e"));
+        assertNull(map.remove("e"));
+        assertEquals(2, map.size());
+        assertEquals(2, map.entrySet().size());
+        assertEquals(map.size(), new ArrayList<>(map.keySet()).size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.put("a", 1));
+        assertEquals(1, map.size());
+        try {
+            map.put("x", null);
+            fail("no exception");
+        }
+        catch (NullPointerException e) {
+            assertNotNull(e);
+        }
+    }
+
+    /**
+     * 测试频繁添加及删除后队列中已删除的条目被清理。
+     */
+    @Test
+    public void testChurn() throws Exception {
+        int max = 100;
+        ClockMap<Integer, Integer> map = new ClockMap<>(max);
+        for (int i = 0; i < 1_000_000; i++) {
+            map.put(i, i);
+            map.remove(i);
+        }
+        assertEquals(0, map.size());
+        java.lang.reflect.Field clock = ClockMap.class.getDeclaredField("clock");
+        clock.setAccessible(true);
+        assertTrue(((Collection<?>) clock.get(map)).size() <= max + 1);
+
+        // 存活的条目不被清理
+        int live = max - 1;
+        for (int i = 0; i < live; i++) {
+            map.put(-i - 1, i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            map.put(i, i);
+            map.remove(i);
+        }
+        assertEquals(live, map.size());
+        assertEquals(0, map.getEvictionCount());
+        assertTrue(((Collection<?>) clock.get(map)).size() <= live + max + 1);
+        for (int i = 0; i < live; i++) {
+            assertEquals(Integer.valueOf(i), map.get(-i - 1));
+        }
+    }
+
+    /**
+     * 测试并发添加及查询后条目数目不超出最大条目数。
+     */
+    @Test
+    public void testConcurrent() throws Exception {
+        int max = 100;
+        ClockMap<Integer, Integer> map = new ClockMap<>(max);
+        ExecutorService es = Executors.newFixedThreadPool(4);
+        List<Future<?>> fs = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int seed = t;
+            fs.add(es.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    int k = (i * 31 + seed) % 1000;
+                    if (map.get(k) == null) {
+                        map.put(k, k);
+                    }
+                }
+            }));
+        }
+        for (Future<?> f : fs) {
+            f.get();
+        }
+        es.shutdown();
+        assertTrue(es.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(map.size() <= max);
+        assertEquals(map.size(), map.entrySet().size());
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2010-2111 sunjumper@163.com
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package net.jrouter.util;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * FrequencySketchTest。
+ */
+public class FrequencySketchTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FrequencySketchTest.class);
+
+    /**
+     * 测试访问频率估计及上限。
+     */
+    @Test
+    public void testFrequency() {
+        FrequencySketch sketch = new FrequencySketch(512);
+        assertEquals(0, sketch.frequency("/order/1"));
+        for (int i = 0; i < 5; i++) {
+            sketch.increment("/order/1");
+        }
+        assertEquals(5, sketch.frequency("/order/1"));
+        for (int i = 0; i < 20; i++) {
+            sketch.increment("/order/1");
+        }
+        assertEquals(15, sketch.frequency("/order/1"));
+        assertTrue(sketch.frequency("/order/2") <= 1);
+    }
+
+    /**
+     * 测试访问次数达到采样数目后计数器减半。
+     */
+    @Test
+    public void testReset() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 10; i++) {
+            sketch.increment("hot");
+        }
+        assertEquals(10, sketch.frequency("hot"));
+        // sample size 160
+        for (int i = 0; i < 160; i++) {
+            sketch.increment("key" + i);
+        }
+        assertEquals(5, sketch.frequency("hot"));
+    }
+
+    /**
+     * 测试LRUMap及ClockMap的接纳策略：新增的键不高于淘汰的键的访问频率则淘汰新增的键。
+     */
+    @Test
+    public void testAdmission() {
+        FrequencySketch sketch = new FrequencySketch(2);
+        LRUMap<String, Integer> lru = new LRUMap<>(16, 2, sketch);
+        for (String key : new String[] { "a", "a", "b", "b" }) {
+            if (lru.get(key) == null) {
+                lru.put(key, 1);
+            }
+        }
+        lru.get("c");
+        lru.put("c", 1);
+        assertEquals(2, lru.size());
+        assertFalse(lru.containsKey("c"));
+        for (int i = 0; i < 3; i++) {
+            lru.get("c");
+        }
+        lru.put("c", 1);
+        assertTrue(lru.containsKey("c"));
+        assertEquals(2, lru.size());
+
+        ClockMap<String, Integer> clock = new ClockMap<>(16, 2, new FrequencySketch(2));
+        clock.get("a");
+        clock.put("a", 1);
+        clock.get("b");
+        clock.put("b", 1);
+        clock.get("c");
+        clock.put("c", 1);
+        assertEquals(2, clock.size());
+        assertFalse(clock.containsKey("c"));
+        for (int i = 0; i < 3; i++) {
+            clock.get("c");
+        }
+        clock.put("c", 1);
+        assertTrue(clock.containsKey("c"));
+        assertEquals(2, clock.size());
+    }
+
+    /**
+     * Zipf分布的参数路径混合一次性参数路径时各缓存的命中率比较。
+     */
+    @Ignore("benchmark")
+    @Test
+    public void benchmarkHitRate() {
+        int maxEntries = 1000;
+        int[] workload = workload(500_000, 10_000, 0.9, 0.5, 17);
+        double lru = hitRate(new LRUMap<>(128, maxEntries), workload);
+        double lruAdmission = hitRate(new LRUMap<>(128, maxEntries, new FrequencySketch(maxEntries)), workload);
+        double clock = hitRate(new ClockMap<>(128, maxEntries), workload);
+        double clockAdmission = hitRate(new ClockMap<>(128, maxEntries, new FrequencySketch(maxEntries)),
+                workload);
+        LOG.info("Hit rate of zipf and unique paths, lru : {}, lru with admission : {}, clock : {}, "
+                + "clock with admission : {}", lru, lruAdmission, clock, clockAdmission);
+        assertTrue(lruAdmission > lru);
+        assertTrue(clockAdmission > clock);
+    }
+
+    /**
+     * 生成访问序列：负数为一次性的键，非负数为Zipf分布的键。
+     */
+    private static int[] workload(int n, int keys, double skew, double uniqueRatio, long seed) {
+        double[] cdf = new double[keys];
+        double sum = 0;
+        for (int i = 0; i < keys; i++) {
+            sum += 1 / Math.pow(i + 1, skew);
+            cdf[i] = sum;
+        }
+        Random random = new Random(seed);
+        int[] workload = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (random.nextDouble() < uniqueRatio) {
+                workload[i] = -i - 1;
+            }
+            else {
+                int k = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+                workload[i] = k < 0 ? -k - 1 : k;
+            }
+        }
+        return workload;
+    }
+
+    private static double hitRate(Map<String, Integer> cache, int[] workload) {
+        int hits = 0;
+        for (int k : workload) {
+            String path = k < 0 ? "/order/u" + -k : "/order/" + k;
+            if (cache.get(path) != null) {
+                hits++;
+            }
+            else {
+                cache.put(path, k);
+            }
+        }
+        return Math.round(hits * 10000.0 / workload.length) / 100.0;
+    }
+
+}